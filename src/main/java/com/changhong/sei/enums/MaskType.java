@@ -0,0 +1,53 @@
+package com.changhong.sei.enums;
+
+import com.changhong.sei.annotation.Remark;
+
+/**
+ * 实现功能：敏感数据类型(掩码规则)
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public enum MaskType {
+    /**
+     * 手机号
+     */
+    @Remark("手机号")
+    MOBILE,
+
+    /**
+     * 电话号码
+     */
+    @Remark("电话号码")
+    TELEPHONE,
+
+    /**
+     * 身份证号
+     */
+    @Remark("身份证号")
+    ID_CARD,
+
+    /**
+     * 银行卡号
+     */
+    @Remark("银行卡号")
+    BANK_CARD,
+
+    /**
+     * 邮箱
+     */
+    @Remark("邮箱")
+    EMAIL,
+
+    /**
+     * 姓名
+     */
+    @Remark("姓名")
+    NAME,
+
+    /**
+     * 全隐藏
+     */
+    @Remark("全隐藏")
+    ALL
+}
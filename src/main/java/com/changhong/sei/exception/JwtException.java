@@ -0,0 +1,41 @@
+package com.changhong.sei.exception;
+
+/**
+ * <strong>实现功能:</strong>.
+ * <p>JWT令牌异常</p>
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public class JwtException extends BaseRuntimeException {
+
+    private static final long serialVersionUID = 4622167384620939913L;
+
+    /**
+     * 令牌格式或签名无效
+     */
+    public static final String INVALID = "JWT_INVALID";
+    /**
+     * 令牌已过期
+     */
+    public static final String EXPIRED = "JWT_EXPIRED";
+
+    public JwtException(String msg) {
+        super(INVALID, msg);
+    }
+
+    public JwtException(String errorCode, String msg) {
+        super(errorCode, msg);
+    }
+
+    public JwtException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
+    /**
+     * @return 是否因过期而无效
+     */
+    public boolean isExpired() {
+        return EXPIRED.equals(getErrorCode());
+    }
+}
@@ -0,0 +1,21 @@
+package com.changhong.sei.exception;
+
+/**
+ * <strong>实现功能:</strong>.
+ * <p>序列化/反序列化异常</p>
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public class SerializationException extends BaseRuntimeException {
+
+    private static final long serialVersionUID = 6180473525542410727L;
+
+    public SerializationException(String msg) {
+        super(msg);
+    }
+
+    public SerializationException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
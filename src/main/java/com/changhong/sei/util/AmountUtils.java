@@ -1,10 +1,15 @@
 package com.changhong.sei.util;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.CharBuffer;
 import java.util.Currency;
 
 /**
  * 实现功能：分元转换
+ * <p>
+ * 批量处理(如对账文件)请使用{@link #parseYuanToFen(CharSequence)}/{@link #formatFenToYuan(long, Appendable)}
+ * 及其CharBuffer批量版本, 以long表示分, 不经过Double/BigDecimal/DecimalFormat, 不创建对象.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2020-01-08 00:45
@@ -14,6 +19,14 @@ public final class AmountUtils {
      * 缺省的币种代码，为CNY（人民币）。
      */
     public static final String DEFAULT_CURRENCY_CODE = "CNY";
+    /**
+     * 元到分的小数位数
+     */
+    private static final int FEN_SCALE = 2;
+    /**
+     * 格式化一个金额最多输出的字符数("-92233720368547758.08")
+     */
+    private static final int MAX_YUAN_LENGTH = 21;
 
     public static Double changeF2Y(Double cent) {
         if (null == cent) {
@@ -49,6 +62,139 @@ public final class AmountUtils {
         return val.setScale(0, roundingMode).longValue();
     }
 
+    /**
+     * 将元为单位的金额字符串转换为分, 支持正负号和千分位逗号, 超出2位的小数按银行家舍入(与changeY2F一致)
+     *
+     * @param yuan 金额(元), 如"1,234.56"
+     * @return 分
+     * @throws NumberFormatException 格式错误
+     */
+    public static long parseYuanToFen(CharSequence yuan) {
+        return NumberUtils.parseScaledLong(yuan, 0, yuan.length(), FEN_SCALE);
+    }
+
+    /**
+     * 将元为单位的金额字符串转换为分
+     *
+     * @param yuan  金额(元)
+     * @param start 起始位置(含)
+     * @param end   结束位置(不含)
+     * @return 分
+     * @throws NumberFormatException 格式错误
+     * @see #parseYuanToFen(CharSequence)
+     */
+    public static long parseYuanToFen(CharSequence yuan, int start, int end) {
+        return NumberUtils.parseScaledLong(yuan, start, end, FEN_SCALE);
+    }
+
+    /**
+     * 将分输出为元(保留2位小数, 无千分位), 如-5 -&gt; "-0.05"
+     *
+     * @param fen 分
+     * @param out 输出
+     * @throws IOException 输出失败
+     */
+    public static void formatFenToYuan(long fen, Appendable out) throws IOException {
+        NumberUtils.appendScaledLong(fen, FEN_SCALE, out);
+    }
+
+    /**
+     * 将分输出为元(保留2位小数, 无千分位)
+     *
+     * @param fen 分
+     * @param out 输出
+     * @return out
+     */
+    public static StringBuilder formatFenToYuan(long fen, StringBuilder out) {
+        return NumberUtils.appendScaledLong(fen, FEN_SCALE, out);
+    }
+
+    /**
+     * 将分转换为元(保留2位小数, 无千分位)
+     *
+     * @param fen 分
+     * @return 元
+     */
+    public static String formatFenToYuan(long fen) {
+        return formatFenToYuan(fen, new StringBuilder(MAX_YUAN_LENGTH)).toString();
+    }
+
+    /**
+     * 批量将以delimiter分隔的金额(元)转换为分; 从in的当前位置开始解析, 解析后的位置移到已处理内容之后, 空白字段忽略.
+     * <p>
+     * 分块读取文件时, endOfInput为false则末尾不完整(无分隔符结尾)的值保留在in中, 由调用方compact后继续读入:
+     * <pre>
+     * boolean eof = false;
+     * while (!eof || buffer.position() > 0) {
+     *     eof = eof || reader.read(buffer) &lt; 0;
+     *     buffer.flip();
+     *     int n = AmountUtils.parseYuanToFen(buffer, '\n', fens, 0, eof);
+     *     ...
+     *     buffer.compact();
+     * }
+     * </pre>
+     *
+     * @param in         输入
+     * @param delimiter  分隔符
+     * @param out        输出(分)
+     * @param offset     输出的起始位置
+     * @param endOfInput 输入是否已结束
+     * @return 输出的金额个数, out已满时提前返回
+     * @throws NumberFormatException 格式错误, 此时in的位置在出错的字段开头
+     */
+    public static int parseYuanToFen(CharBuffer in, char delimiter, long[] out, int offset, boolean endOfInput) {
+        int count = 0;
+        while (offset + count < out.length && in.hasRemaining()) {
+            int remaining = in.remaining();
+            int end = 0;
+            while (end < remaining && in.charAt(end) != delimiter) {
+                end++;
+            }
+            if (end == remaining && !endOfInput) {
+                break;
+            }
+            if (!isBlank(in, end)) {
+                out[offset + count++] = NumberUtils.parseScaledLong(in, 0, end, FEN_SCALE);
+            }
+            in.position(in.position() + Math.min(end + 1, remaining));
+        }
+        return count;
+    }
+
+    /**
+     * 批量将分输出为元, 每个金额后跟一个delimiter; out剩余空间不足时提前返回
+     *
+     * @param fen       分
+     * @param offset    起始位置
+     * @param length    个数
+     * @param delimiter 分隔符
+     * @param out       输出
+     * @return 已输出的金额个数
+     */
+    public static int formatFenToYuan(long[] fen, int offset, int length, char delimiter, CharBuffer out) {
+        int count = 0;
+        try {
+            while (count < length && out.remaining() > MAX_YUAN_LENGTH) {
+                NumberUtils.appendScaledLong(fen[offset + count], FEN_SCALE, out);
+                out.append(delimiter);
+                count++;
+            }
+        } catch (IOException e) {
+            // CharBuffer不会抛出IOException
+            throw new IllegalStateException(e);
+        }
+        return count;
+    }
+
+    private static boolean isBlank(CharSequence text, int end) {
+        for (int i = 0; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void main(String[] args) {
         try {
             System.out.println(AmountUtils.changeY2F(2999.00));
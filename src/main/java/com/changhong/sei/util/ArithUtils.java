@@ -1,17 +1,52 @@
 package com.changhong.sei.util;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.text.DecimalFormat;
 
 /**
  * 算术工具类.
  * 由于Java的简单类型不能够精确的对浮点数进行运算，这个工具类提供精确的浮点数运算，包括加减乘除和四舍五入
+ * <p>
+ * 热点循环中请使用定点数(*Fixed)方法: 以long表示小数位数为{@link #FIXED_SCALE}的定点数, 运算结果四舍五入(ROUND_HALF_UP),
+ * 溢出时抛出{@link ArithmeticException}, 运算过程不创建对象.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.1 2017/9/1 10:15
  */
 public class ArithUtils {
     private static final int DEF_DIV_SCALE = 10;
+    /**
+     * 定点数的小数位数
+     */
+    public static final int FIXED_SCALE = 6;
+    /**
+     * 定点数1
+     */
+    public static final long FIXED_ONE = 1_000_000L;
+    /**
+     * 10的0-18次幂, 用于定点数的缩放与舍入
+     */
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[19];
+    /**
+     * 小于该值的double可以精确表示为long, 且除以10的幂的结果是正确舍入的
+     */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    /**
+     * 缩放后小于该值时, double的精度(ulp &lt;= 1/16)足以判断四舍五入的方向
+     */
+    private static final double MAX_FAST_SCALED = 0x1p49;
+    private static final double MAX_EXACT_SCALED = 0x1p48;
+
+    static {
+        long power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            DOUBLE_POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
 
     /**
      * 这个类不能实例化
@@ -27,6 +62,11 @@ public class ArithUtils {
      * @return 两个参数的和
      */
     public static double add(double value1, double value2) {
+        long s1 = exactScaled(value1);
+        long s2 = exactScaled(value2);
+        if (s1 != NOT_EXACT && s2 != NOT_EXACT) {
+            return fromFixed(s1 + s2, DEF_DIV_SCALE);
+        }
         BigDecimal b1 = new BigDecimal(String.valueOf(value1));
         BigDecimal b2 = new BigDecimal(String.valueOf(value2));
         return round(b1.add(b2).doubleValue(), DEF_DIV_SCALE);
@@ -52,6 +92,11 @@ public class ArithUtils {
      * @return 两个参数的差
      */
     public static double sub(double value1, double value2) {
+        long s1 = exactScaled(value1);
+        long s2 = exactScaled(value2);
+        if (s1 != NOT_EXACT && s2 != NOT_EXACT) {
+            return fromFixed(s1 - s2, DEF_DIV_SCALE);
+        }
         BigDecimal b1 = new BigDecimal(String.valueOf(value1));
         BigDecimal b2 = new BigDecimal(String.valueOf(value2));
         return round(b1.subtract(b2).doubleValue(), DEF_DIV_SCALE);
@@ -134,6 +179,12 @@ public class ArithUtils {
         if (scale < 0) {
             throw new IllegalArgumentException("The scale must be a positive integer or zero");
         }
+        if (scale < POWERS_OF_TEN.length && !Double.isNaN(v) && !Double.isInfinite(v)) {
+            long fixed = fastScaled(v, scale);
+            if (fixed != NOT_EXACT) {
+                return fromFixed(fixed, scale);
+            }
+        }
 
         BigDecimal b = new BigDecimal(Double.toString(v));
         BigDecimal one = new BigDecimal("1");
@@ -156,6 +207,409 @@ public class ArithUtils {
         return format.format(round(v, scale));
     }
 
+    //********************************** 定点数 **********************************
+
+    /**
+     * 将double按{@link Double#toString(double)}的十进制值四舍五入为定点数
+     *
+     * @param v 数值
+     * @return 小数位数为{@link #FIXED_SCALE}的定点数
+     */
+    public static long toFixed(double v) {
+        return toFixed(v, FIXED_SCALE);
+    }
+
+    /**
+     * 将double按{@link Double#toString(double)}的十进制值四舍五入为指定小数位数的定点数.
+     * 仅在量级较大(|v|·10^scale &gt;= 2^49)或恰在进位边界附近时使用BigDecimal
+     *
+     * @param v     数值
+     * @param scale 小数位数(0-18)
+     * @return 定点数
+     * @throws ArithmeticException 非有限数值或超出long范围
+     */
+    public static long toFixed(double v, int scale) {
+        checkFixedScale(scale);
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            throw new ArithmeticException("无法转换为定点数: " + v);
+        }
+        long fixed = fastScaled(v, scale);
+        if (fixed != NOT_EXACT) {
+            return fixed;
+        }
+        return new BigDecimal(Double.toString(v)).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 定点数转为double(正确舍入, 与BigDecimal.doubleValue()一致)
+     *
+     * @param fixed 小数位数为{@link #FIXED_SCALE}的定点数
+     * @return double
+     */
+    public static double fromFixed(long fixed) {
+        return fromFixed(fixed, FIXED_SCALE);
+    }
+
+    /**
+     * 定点数转为double(正确舍入, 与BigDecimal.doubleValue()一致)
+     *
+     * @param fixed 定点数
+     * @param scale 小数位数(0-18)
+     * @return double
+     */
+    public static double fromFixed(long fixed, int scale) {
+        checkFixedScale(scale);
+        if (fixed > -MAX_EXACT_DOUBLE && fixed < MAX_EXACT_DOUBLE) {
+            // 被除数与除数均可精确表示, IEEE除法的结果即为正确舍入
+            return fixed / DOUBLE_POWERS_OF_TEN[scale];
+        }
+        return BigDecimal.valueOf(fixed, scale).doubleValue();
+    }
+
+    /**
+     * 定点数加法
+     *
+     * @throws ArithmeticException 溢出
+     */
+    public static long addFixed(long value1, long value2) {
+        return Math.addExact(value1, value2);
+    }
+
+    /**
+     * 定点数减法
+     *
+     * @throws ArithmeticException 溢出
+     */
+    public static long subFixed(long value1, long value2) {
+        return Math.subtractExact(value1, value2);
+    }
+
+    /**
+     * 定点数乘法, 结果四舍五入到{@link #FIXED_SCALE}位小数; 中间结果按128位计算, 不会提前溢出
+     *
+     * @throws ArithmeticException 结果溢出
+     */
+    public static long mulFixed(long value1, long value2) {
+        long lo = value1 * value2;
+        long hi = multiplyHigh(value1, value2);
+        if (hi == (lo >> 63)) {
+            return divideHalfUp(lo, FIXED_ONE);
+        }
+        return divideHalfUp(hi, lo, FIXED_ONE);
+    }
+
+    /**
+     * 定点数除法, 结果四舍五入到{@link #FIXED_SCALE}位小数
+     *
+     * @throws ArithmeticException 除数为0或结果溢出
+     */
+    public static long divFixed(long value1, long value2) {
+        if (value2 == 0) {
+            throw new ArithmeticException("除数不能为0");
+        }
+        long lo = value1 * FIXED_ONE;
+        long hi = multiplyHigh(value1, FIXED_ONE);
+        if (value2 < 0) {
+            // 除数取正, 被除数按128位取反
+            lo = -lo;
+            hi = lo == 0 ? -hi : ~hi;
+            if (value2 == Long.MIN_VALUE) {
+                // 除数的绝对值2^63超出long范围, 按无符号数参与128位除法
+                return divideHalfUp(hi, lo, value2);
+            }
+            value2 = -value2;
+        }
+        if (hi == (lo >> 63)) {
+            return divideHalfUp(lo, value2);
+        }
+        return divideHalfUp(hi, lo, value2);
+    }
+
+    /**
+     * 将定点数四舍五入到scale位小数(结果仍为{@link #FIXED_SCALE}位小数的定点数)
+     *
+     * @param fixed 定点数
+     * @param scale 保留的小数位数(0-{@link #FIXED_SCALE})
+     * @return 定点数
+     * @throws ArithmeticException 溢出
+     */
+    public static long roundFixed(long fixed, int scale) {
+        if (scale < 0 || scale > FIXED_SCALE) {
+            throw new IllegalArgumentException("The scale must be between 0 and " + FIXED_SCALE);
+        }
+        long unit = POWERS_OF_TEN[FIXED_SCALE - scale];
+        return Math.multiplyExact(divideHalfUp(fixed, unit), unit);
+    }
+
+    /**
+     * 定点数数组求和
+     *
+     * @throws ArithmeticException 溢出
+     */
+    public static long sumFixed(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum = Math.addExact(sum, value);
+        }
+        return sum;
+    }
+
+    /**
+     * 定点数数组内积, 各乘积按128位精确累加, 最后四舍五入一次
+     *
+     * @throws ArithmeticException 结果溢出
+     */
+    public static long dotFixed(long[] values1, long[] values2) {
+        checkLength(values1.length, values2.length);
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < values1.length; i++) {
+            long productLo = values1[i] * values2[i];
+            long productHi = multiplyHigh(values1[i], values2[i]);
+            long sumLo = lo + productLo;
+            hi = Math.addExact(hi, Math.addExact(productHi, Long.compareUnsigned(sumLo, lo) < 0 ? 1 : 0));
+            lo = sumLo;
+        }
+        return divideHalfUp(hi, lo, FIXED_ONE);
+    }
+
+    /**
+     * 精确求和: 各元素先按{@link #DEF_DIV_SCALE}位小数四舍五入, 再精确累加, 结果只在最后转换为double时舍入一次
+     *
+     * @param values 数组
+     * @return 和
+     */
+    public static double sum(double[] values) {
+        return sum(values, DEF_DIV_SCALE);
+    }
+
+    /**
+     * 精确求和: 各元素先按scale位小数四舍五入, 再精确累加; 元素量级超出定点数范围时回退到BigDecimal
+     *
+     * @param values 数组
+     * @param scale  小数位数(0-18)
+     * @return 和
+     */
+    public static double sum(double[] values, int scale) {
+        checkFixedScale(scale);
+        try {
+            long sum = 0;
+            for (double value : values) {
+                sum = Math.addExact(sum, toFixed(value, scale));
+            }
+            return fromFixed(sum, scale);
+        } catch (ArithmeticException e) {
+            if (containsNonFinite(values)) {
+                throw e;
+            }
+            BigDecimal sum = BigDecimal.ZERO;
+            for (double value : values) {
+                sum = sum.add(new BigDecimal(Double.toString(value)).setScale(scale, RoundingMode.HALF_UP));
+            }
+            return sum.doubleValue();
+        }
+    }
+
+    /**
+     * 精确内积: 各元素先按{@link #DEF_DIV_SCALE}位小数四舍五入, 乘积精确累加, 结果四舍五入到{@link #DEF_DIV_SCALE}位小数
+     *
+     * @param values1 数组1
+     * @param values2 数组2, 长度须与数组1相同
+     * @return 内积
+     */
+    public static double dot(double[] values1, double[] values2) {
+        return dot(values1, values2, DEF_DIV_SCALE);
+    }
+
+    /**
+     * 精确内积: 各元素先按scale位小数四舍五入, 乘积按128位精确累加, 结果四舍五入到scale位小数;
+     * 超出定点数范围时回退到BigDecimal
+     *
+     * @param values1 数组1
+     * @param values2 数组2, 长度须与数组1相同
+     * @param scale   小数位数(0-18)
+     * @return 内积
+     */
+    public static double dot(double[] values1, double[] values2, int scale) {
+        checkFixedScale(scale);
+        checkLength(values1.length, values2.length);
+        try {
+            long hi = 0;
+            long lo = 0;
+            for (int i = 0; i < values1.length; i++) {
+                long v1 = toFixed(values1[i], scale);
+                long v2 = toFixed(values2[i], scale);
+                long productLo = v1 * v2;
+                long productHi = multiplyHigh(v1, v2);
+                long sumLo = lo + productLo;
+                hi = Math.addExact(hi, Math.addExact(productHi, Long.compareUnsigned(sumLo, lo) < 0 ? 1 : 0));
+                lo = sumLo;
+            }
+            return fromFixed(divideHalfUp(hi, lo, POWERS_OF_TEN[scale]), scale);
+        } catch (ArithmeticException e) {
+            if (containsNonFinite(values1) || containsNonFinite(values2)) {
+                throw e;
+            }
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int i = 0; i < values1.length; i++) {
+                BigDecimal v1 = new BigDecimal(Double.toString(values1[i])).setScale(scale, RoundingMode.HALF_UP);
+                BigDecimal v2 = new BigDecimal(Double.toString(values2[i])).setScale(scale, RoundingMode.HALF_UP);
+                sum = sum.add(v1.multiply(v2));
+            }
+            return sum.setScale(scale, RoundingMode.HALF_UP).doubleValue();
+        }
+    }
+
+    /**
+     * fastScaled/exactScaled无法快速得到结果时的返回值
+     */
+    private static final long NOT_EXACT = Long.MIN_VALUE;
+
+    /**
+     * 按double的精度快速四舍五入到scale位小数; 量级过大或距进位边界过近(无法确定舍入方向)时返回{@link #NOT_EXACT}
+     */
+    private static long fastScaled(double v, int scale) {
+        double scaled = Math.abs(v) * DOUBLE_POWERS_OF_TEN[scale];
+        if (!(scaled < MAX_FAST_SCALED)) {
+            return NOT_EXACT;
+        }
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        // v与其十进制表示之差不超过0.5ulp(v), 乘法再引入0.5ulp, 留出余量
+        if (Math.abs(fraction - 0.5) <= 4 * Math.ulp(scaled)) {
+            return NOT_EXACT;
+        }
+        long fixed = (long) floor + (fraction > 0.5 ? 1 : 0);
+        return v < 0 ? -fixed : fixed;
+    }
+
+    /**
+     * 若v缩放到{@link #DEF_DIV_SCALE}位小数后(在误差范围内)为整数则返回该整数, 否则返回{@link #NOT_EXACT}.
+     * 缩放后小于2^48时误差不超过1/16, 两个这样的数之和(差)距进位边界足够远,
+     * 直接相加与先按BigDecimal精确相加再四舍五入的结果一致
+     */
+    private static long exactScaled(double v) {
+        double scaled = Math.abs(v) * DOUBLE_POWERS_OF_TEN[DEF_DIV_SCALE];
+        if (!(scaled < MAX_EXACT_SCALED)) {
+            return NOT_EXACT;
+        }
+        double nearest = Math.rint(scaled);
+        if (Math.abs(scaled - nearest) > 2 * Math.ulp(scaled)) {
+            return NOT_EXACT;
+        }
+        return v < 0 ? -(long) nearest : (long) nearest;
+    }
+
+    /**
+     * 128位有符号乘积的高64位
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * long除以正数, 四舍五入(ROUND_HALF_UP)
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * 128位有符号数(hi:lo)除以正数(按无符号数处理, 可为2^63), 四舍五入(ROUND_HALF_UP)
+     *
+     * @throws ArithmeticException 结果超出long范围
+     */
+    private static long divideHalfUp(long hi, long lo, long divisor) {
+        boolean negative = hi < 0;
+        if (negative) {
+            lo = -lo;
+            hi = lo == 0 ? -hi : ~hi;
+        }
+        if (Long.compareUnsigned(hi, divisor) >= 0) {
+            throw new ArithmeticException("定点数溢出");
+        }
+        long quotient = divideUnsigned(hi, lo, divisor);
+        long remainder = lo - quotient * divisor;
+        if (Long.compareUnsigned(remainder, divisor - remainder) >= 0) {
+            quotient++;
+        }
+        if (quotient < 0 && !(negative && quotient == Long.MIN_VALUE)) {
+            throw new ArithmeticException("定点数溢出");
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    /**
+     * 128位无符号数(u1:u0)除以64位无符号数v, 要求u1 &lt; v(商不超过64位); 参见Hacker's Delight中的divlu
+     */
+    private static long divideUnsigned(long u1, long u0, long v) {
+        final long b = 1L << 32;
+        int s = Long.numberOfLeadingZeros(v);
+        v <<= s;
+        long vn1 = v >>> 32;
+        long vn0 = v & 0xFFFFFFFFL;
+        long un32 = s == 0 ? u1 : (u1 << s) | (u0 >>> (64 - s));
+        long un10 = u0 << s;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = un32 - q1 * vn1;
+        while (q1 >= b || Long.compareUnsigned(q1 * vn0, b * rhat + un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (rhat >= b) {
+                break;
+            }
+        }
+        long un21 = un32 * b + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = un21 - q0 * vn1;
+        while (q0 >= b || Long.compareUnsigned(q0 * vn0, b * rhat + un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (rhat >= b) {
+                break;
+            }
+        }
+        return q1 * b + q0;
+    }
+
+    private static void checkFixedScale(int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("The scale must be between 0 and " + (POWERS_OF_TEN.length - 1));
+        }
+    }
+
+    private static void checkLength(int length1, int length2) {
+        if (length1 != length2) {
+            throw new IllegalArgumentException("数组长度不一致");
+        }
+    }
+
+    private static boolean containsNonFinite(double[] values) {
+        for (double value : values) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static void main(String[] args) {
         Double a=528542.46;
         Double b=12979.46;
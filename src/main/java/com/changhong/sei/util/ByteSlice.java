@@ -0,0 +1,357 @@
+package com.changhong.sei.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 实现功能：字节数组视图
+ * <p>
+ * 引用字节数组中的一段, 切片与拆分只创建视图不复制数据. 多段数据通过{@link Composite}组合, 最终只分配一次
+ * ({@link Composite#toByteArray()})或直接聚集写出({@link Composite#writeTo(WritableByteChannel)}):
+ * <pre>
+ * byte[] cipherText = ByteUtil.composite().add(c1).add(c2).add(c3).toByteArray();
+ * </pre>
+ * 视图与原数组共享数据, 原数组修改后视图可见; 需要复用缓冲区时可使用{@link Pool}.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ByteSlice {
+    public static final ByteSlice EMPTY = new ByteSlice(new byte[0], 0, 0);
+
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+
+    private ByteSlice(byte[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * 引用整个数组
+     */
+    public static ByteSlice wrap(byte[] array) {
+        return new ByteSlice(array, 0, array.length);
+    }
+
+    /**
+     * 引用数组中的一段
+     */
+    public static ByteSlice wrap(byte[] array, int offset, int length) {
+        checkRange(array.length, offset, length);
+        return new ByteSlice(array, offset, length);
+    }
+
+    /**
+     * 创建组合缓冲
+     */
+    public static Composite composite() {
+        return new Composite();
+    }
+
+    /**
+     * 截取视图
+     *
+     * @param from   相对起始位置
+     * @param length 长度
+     * @return 视图
+     */
+    public ByteSlice slice(int from, int length) {
+        checkRange(this.length, from, length);
+        return new ByteSlice(array, offset + from, length);
+    }
+
+    /**
+     * 截取从from开始到末尾的视图
+     */
+    public ByteSlice slice(int from) {
+        return slice(from, length - from);
+    }
+
+    /**
+     * 按固定长度拆分为多个视图, 最后一个可能较短
+     *
+     * @param chunkLength 每段长度
+     * @return 视图
+     */
+    public ByteSlice[] split(int chunkLength) {
+        if (chunkLength <= 0) {
+            throw new IllegalArgumentException("chunkLength must be positive.");
+        }
+        ByteSlice[] slices = new ByteSlice[(length + chunkLength - 1) / chunkLength];
+        for (int i = 0; i < slices.length; i++) {
+            int from = i * chunkLength;
+            slices[i] = new ByteSlice(array, offset + from, Math.min(chunkLength, length - from));
+        }
+        return slices;
+    }
+
+    public byte get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return array[offset + index];
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * @return 底层数组(共享, 不复制)
+     */
+    public byte[] array() {
+        return array;
+    }
+
+    /**
+     * @return 在底层数组中的起始位置
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * 复制到目标数组
+     *
+     * @return 目标数组中下一个写入位置
+     */
+    public int copyTo(byte[] target, int targetOffset) {
+        System.arraycopy(array, offset, target, targetOffset, length);
+        return targetOffset + length;
+    }
+
+    /**
+     * 复制为新数组; 视图覆盖整个数组时也会复制
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(array, offset, offset + length);
+    }
+
+    /**
+     * @return 只读的ByteBuffer视图
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(array, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(array, offset, length);
+    }
+
+    /**
+     * 内容是否相同, 比较耗时与内容无关
+     */
+    public boolean contentEquals(ByteSlice other) {
+        if (other.length != length) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= array[offset + i] ^ other.array[other.offset + i];
+        }
+        return diff == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ByteSlice[offset=" + offset + ", length=" + length + "]";
+    }
+
+    private static void checkRange(int size, int from, int length) {
+        if (from < 0 || length < 0 || from > size - length) {
+            throw new IndexOutOfBoundsException("from: " + from + ", length: " + length + ", size: " + size);
+        }
+    }
+
+    /**
+     * 组合缓冲: 按顺序引用多段数据, 不复制; 非线程安全
+     */
+    public static final class Composite {
+        private final List<ByteSlice> parts = new ArrayList<>();
+        private int length;
+
+        Composite() {
+        }
+
+        public Composite add(byte[] part) {
+            return add(wrap(part));
+        }
+
+        public Composite add(byte[] part, int offset, int length) {
+            return add(wrap(part, offset, length));
+        }
+
+        public Composite add(ByteSlice part) {
+            if (part.length > Integer.MAX_VALUE - length) {
+                throw new IllegalStateException("Composite too large.");
+            }
+            parts.add(part);
+            length += part.length;
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        /**
+         * @return 各段视图
+         */
+        public List<ByteSlice> parts() {
+            return Collections.unmodifiableList(parts);
+        }
+
+        /**
+         * 依次复制到目标数组
+         *
+         * @return 目标数组中下一个写入位置
+         */
+        public int copyTo(byte[] target, int targetOffset) {
+            if (targetOffset < 0 || targetOffset > target.length - length) {
+                throw new IndexOutOfBoundsException("target too small: " + target.length + ", need: " + (targetOffset + length));
+            }
+            for (ByteSlice part : parts) {
+                targetOffset = part.copyTo(target, targetOffset);
+            }
+            return targetOffset;
+        }
+
+        /**
+         * 合并为一个新数组(只分配一次)
+         */
+        public byte[] toByteArray() {
+            byte[] bytes = new byte[length];
+            copyTo(bytes, 0);
+            return bytes;
+        }
+
+        /**
+         * 合并到从缓冲池获取的数组中, 使用后请{@link Pool#release(ByteSlice)}
+         */
+        public ByteSlice toSlice(Pool pool) {
+            ByteSlice slice = pool.acquire(length);
+            copyTo(slice.array, 0);
+            return slice;
+        }
+
+        /**
+         * 聚集写出; 通道支持{@link GatheringByteChannel}时一次提交全部数据段
+         *
+         * @return 写出的字节数
+         */
+        public long writeTo(WritableByteChannel channel) throws IOException {
+            ByteBuffer[] buffers = new ByteBuffer[parts.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                ByteSlice part = parts.get(i);
+                buffers[i] = ByteBuffer.wrap(part.array, part.offset, part.length);
+            }
+            long written = 0;
+            if (channel instanceof GatheringByteChannel) {
+                GatheringByteChannel gathering = (GatheringByteChannel) channel;
+                int first = 0;
+                while (written < length) {
+                    written += gathering.write(buffers, first, buffers.length - first);
+                    while (first < buffers.length && !buffers[first].hasRemaining()) {
+                        first++;
+                    }
+                }
+            } else {
+                for (ByteBuffer buffer : buffers) {
+                    while (buffer.hasRemaining()) {
+                        written += channel.write(buffer);
+                    }
+                }
+            }
+            return written;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            for (ByteSlice part : parts) {
+                part.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * 字节数组缓冲池: 按2的幂分级缓存数组, 归还时清零(避免密钥、明文残留); 线程安全
+     * <p>
+     * 只回收本池借出且尚未归还的数组, 其他数组(包括重复归还)被忽略; 借出的数组在归还前一直被记录, 请在finally中归还.
+     */
+    public static final class Pool {
+        private static final int MIN_SHIFT = 6;
+        private final List<ArrayBlockingQueue<byte[]>> queues;
+        /**
+         * 已借出的数组, 按引用判断
+         */
+        private final Set<byte[]> outstanding = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+        private final int maxArrayLength;
+
+        /**
+         * @param maxArrayLength 缓存的最大数组长度, 更大的数组直接分配且不缓存
+         * @param perSize        每级最多缓存的数组个数
+         */
+        public Pool(int maxArrayLength, int perSize) {
+            if (maxArrayLength <= 0 || maxArrayLength > (1 << 30) || perSize <= 0) {
+                throw new IllegalArgumentException("invalid pool size.");
+            }
+            int levels = Math.max(1, sizeClass(maxArrayLength) + 1);
+            this.queues = new ArrayList<>(levels);
+            for (int i = 0; i < levels; i++) {
+                queues.add(new ArrayBlockingQueue<>(perSize));
+            }
+            this.maxArrayLength = 1 << (MIN_SHIFT + levels - 1);
+        }
+
+        /**
+         * 获取长度为length的视图, 底层数组可能更长
+         */
+        public ByteSlice acquire(int length) {
+            if (length > maxArrayLength) {
+                return new ByteSlice(new byte[length], 0, length);
+            }
+            int level = sizeClass(length);
+            byte[] array = queues.get(level).poll();
+            if (array == null) {
+                array = new byte[1 << (MIN_SHIFT + level)];
+            }
+            outstanding.add(array);
+            return new ByteSlice(array, 0, length);
+        }
+
+        /**
+         * 归还由{@link #acquire(int)}获取的视图, 归还后不得再使用该视图; 非本池借出的视图被忽略
+         */
+        public void release(ByteSlice slice) {
+            byte[] array = slice.array;
+            if (!outstanding.remove(array)) {
+                return;
+            }
+            Arrays.fill(array, (byte) 0);
+            queues.get(sizeClass(array.length)).offer(array);
+        }
+
+        private static int sizeClass(int length) {
+            if (length <= 1 << MIN_SHIFT) {
+                return 0;
+            }
+            return 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_SHIFT;
+        }
+    }
+}
@@ -41,6 +41,32 @@ public class ByteUtil {
         return buffer;
     }
 
+    /**
+     * 将多个字节数组连接到一个新的字节数组(只分配一次).
+     */
+    public static byte[] concat(byte[]... buffers) {
+        int length = 0;
+        for (byte[] buf : buffers) {
+            length = Math.addExact(length, buf.length);
+        }
+        byte[] buffer = new byte[length];
+        int offset = 0;
+        for (byte[] buf : buffers) {
+            System.arraycopy(buf, 0, buffer, offset, buf.length);
+            offset += buf.length;
+        }
+        return buffer;
+    }
+
+    /**
+     * 创建组合缓冲, 按顺序引用多段数据, 最终合并时只分配一次.
+     *
+     * @see ByteSlice
+     */
+    public static ByteSlice.Composite composite() {
+        return ByteSlice.composite();
+    }
+
     /**
      * 将字节转换为十六进制字符串（全部小写）.
      *
@@ -0,0 +1,258 @@
+package com.changhong.sei.util;
+
+import com.changhong.sei.exception.ServiceException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 实现功能：分块文件合并
+ * <p>
+ * 与{@link FileUtils#splitChunks}/{@link FileUtils#mapChunks}的分块规则一致: 第i块位于i*chunkSize处, 仅最后一块可不足chunkSize.
+ * 目标文件必须不存在, 创建后预先分配大小, 各分块可由多个线程以任意顺序通过{@link FileChannel}按偏移写入; 完成情况记录在位图中.
+ * <p>
+ * 写入时即校验分块摘要并保存, 整个文件的摘要为各分块摘要按序号拼接后的摘要(见{@link #compositeDigest(Path, int, String)}),
+ * 因此合并完成后无需再次读取文件. 发送方可用{@link #compositeDigest}计算同样的值.
+ * <p>
+ * 完成位图只保存在内存中, 实例线程安全.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ChunkAssembler implements Closeable {
+    private final Path target;
+    private final long totalSize;
+    private final int chunkSize;
+    private final int chunks;
+    private final String algorithm;
+    private final FileChannel channel;
+    private final AtomicLongArray bitmap;
+    private final AtomicReferenceArray<byte[]> digests;
+    private final AtomicInteger remaining;
+
+    ChunkAssembler(Path target, long totalSize, int chunkSize, String algorithm) throws IOException {
+        this.target = target;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.chunks = FileUtils.chunkCount(totalSize, chunkSize);
+        this.algorithm = algorithm;
+        // 提前校验摘要算法
+        newDigest(algorithm);
+        this.bitmap = new AtomicLongArray((chunks + 63) >>> 6);
+        this.digests = new AtomicReferenceArray<>(chunks);
+        this.remaining = new AtomicInteger(chunks);
+        // 仅创建新文件, 避免覆盖已有文件后又被abort删除
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (totalSize > 0) {
+                // 写入最后一个字节以预分配文件大小
+                channel.write(ByteBuffer.wrap(new byte[1]), totalSize - 1);
+            }
+        } catch (IOException e) {
+            channel.close();
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    /**
+     * 写入分块
+     *
+     * @param index 分块序号
+     * @param data  分块数据
+     * @return 是否首次写入该分块(重复写入会覆盖原数据)
+     */
+    public boolean write(int index, byte[] data) throws IOException {
+        return write(index, ByteBuffer.wrap(data), null);
+    }
+
+    /**
+     * 写入分块并校验分块摘要
+     *
+     * @param index          分块序号
+     * @param data           分块数据, 读取位置会被移动到末尾
+     * @param expectedDigest 期望的分块摘要(16进制), 为null时不校验
+     * @return 是否首次写入该分块(重复写入会覆盖原数据)
+     * @throws ServiceException 分块大小或摘要不匹配
+     */
+    public boolean write(int index, ByteBuffer data, String expectedDigest) throws IOException {
+        if (index < 0 || index >= chunks) {
+            throw new IndexOutOfBoundsException("分块序号越界: " + index);
+        }
+        long position = (long) index * chunkSize;
+        long expectedSize = Math.min(chunkSize, totalSize - position);
+        if (data.remaining() != expectedSize) {
+            throw new ServiceException("分块[" + index + "]大小不正确, 期望" + expectedSize + ", 实际" + data.remaining());
+        }
+        MessageDigest md = newDigest(algorithm);
+        md.update(data.duplicate());
+        byte[] digest = md.digest();
+        if (expectedDigest != null && !HashUtil.toHexString(digest).equalsIgnoreCase(expectedDigest)) {
+            throw new ServiceException("分块[" + index + "]摘要校验失败");
+        }
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+        digests.set(index, digest);
+        if (markCompleted(index)) {
+            remaining.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param index 分块序号
+     * @return 分块是否已写入
+     */
+    public boolean isCompleted(int index) {
+        return (bitmap.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * @return 是否全部分块均已写入
+     */
+    public boolean isComplete() {
+        return remaining.get() == 0;
+    }
+
+    /**
+     * @return 已写入的分块序号(可作为续传时的排除分块)
+     */
+    public Set<Integer> getCompletedChunks() {
+        Set<Integer> completed = new LinkedHashSet<>();
+        for (int index = 0; index < chunks; index++) {
+            if (isCompleted(index)) {
+                completed.add(index);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * @return 尚未写入的分块序号
+     */
+    public List<Integer> getMissingChunks() {
+        List<Integer> missing = new ArrayList<>(remaining.get());
+        for (int index = 0; index < chunks; index++) {
+            if (!isCompleted(index)) {
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @return 分块数
+     */
+    public int getChunkCount() {
+        return chunks;
+    }
+
+    /**
+     * 完成合并: 校验全部分块已写入, 刷盘并关闭文件
+     *
+     * @param expectedDigest 期望的文件摘要(16进制, 见{@link #compositeDigest}), 为null时不校验
+     * @return 文件摘要(16进制)
+     * @throws ServiceException 分块缺失或摘要不匹配
+     */
+    public String complete(String expectedDigest) throws IOException {
+        if (!isComplete()) {
+            throw new ServiceException("文件[" + target.getFileName() + "]尚有" + remaining.get() + "个分块未上传");
+        }
+        MessageDigest md = newDigest(algorithm);
+        for (int index = 0; index < chunks; index++) {
+            md.update(digests.get(index));
+        }
+        String digest = HashUtil.toHexString(md.digest());
+        if (expectedDigest != null && !digest.equalsIgnoreCase(expectedDigest)) {
+            throw new ServiceException("文件[" + target.getFileName() + "]摘要校验失败");
+        }
+        channel.force(true);
+        channel.close();
+        return digest;
+    }
+
+    /**
+     * 放弃合并并删除本合并器创建的目标文件
+     */
+    public void abort() throws IOException {
+        channel.close();
+        Files.deleteIfExists(target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 计算文件的分块组合摘要: 各分块摘要按序号拼接后再求摘要
+     *
+     * @param file      文件
+     * @param chunkSize 分块大小
+     * @param algorithm 摘要算法(如SHA-256, MD5)
+     * @return 摘要(16进制)
+     */
+    public static String compositeDigest(Path file, int chunkSize, String algorithm) throws IOException {
+        MessageDigest composite = newDigest(algorithm);
+        MessageDigest md = newDigest(algorithm);
+        for (ByteBuffer chunk : FileUtils.mapChunks(file, chunkSize, null)) {
+            md.update(chunk);
+            composite.update(md.digest());
+        }
+        return HashUtil.toHexString(composite.digest());
+    }
+
+    /**
+     * 计算分块数据的组合摘要: 各分块摘要按序号拼接后再求摘要
+     *
+     * @param chunks    按序号排列的分块
+     * @param algorithm 摘要算法(如SHA-256, MD5)
+     * @return 摘要(16进制)
+     */
+    public static String compositeDigest(byte[][] chunks, String algorithm) {
+        MessageDigest composite = newDigest(algorithm);
+        MessageDigest md = newDigest(algorithm);
+        for (byte[] chunk : chunks) {
+            composite.update(md.digest(chunk));
+        }
+        return HashUtil.toHexString(composite.digest());
+    }
+
+    private boolean markCompleted(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long current = bitmap.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (bitmap.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("不支持的摘要算法: " + algorithm, e);
+        }
+    }
+}
@@ -4,11 +4,14 @@ import org.apache.commons.lang3.StringUtils;
 import java.util.Base64;
 
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
 import javax.crypto.spec.SecretKeySpec;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
-import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 编码工具类
@@ -26,6 +29,18 @@ import java.security.SecureRandom;
 public class EncodeUtil {
 
     public static final String DEFAULT_KEY = "SEI";
+    /**
+     * 缓存的密码派生密钥数
+     */
+    public static final int AES_KEY_CACHE_SIZE = 256;
+    private static final Map<String, AesKey> AES_KEYS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("AES/ECB/PKCS5Padding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
     public static void main(String[] args) throws Exception {
         String content = "测试";
@@ -126,17 +141,7 @@ public class EncodeUtil {
      * @throws Exception
      */
     public static byte[] aesEncryptToBytes(String content, String encryptKey) throws Exception {
-        KeyGenerator kgen = KeyGenerator.getInstance("AES");
-
-        SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
-        secureRandom.setSeed(encryptKey.getBytes());
-
-        kgen.init(128, secureRandom);
-
-        Cipher cipher = Cipher.getInstance("AES");
-        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(kgen.generateKey().getEncoded(), "AES"));
-
-        return cipher.doFinal(content.getBytes("utf-8"));
+        return aesKey(encryptKey).encrypt(content.getBytes("utf-8"));
     }
 
     /**
@@ -160,14 +165,7 @@ public class EncodeUtil {
      * @throws Exception
      */
     public static String aesDecryptByBytes(byte[] encryptBytes, String decryptKey) throws Exception {
-        KeyGenerator kgen = KeyGenerator.getInstance("AES");
-        SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
-        secureRandom.setSeed(decryptKey.getBytes());
-        kgen.init(128, secureRandom);
-
-        Cipher cipher = Cipher.getInstance("AES");
-        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(kgen.generateKey().getEncoded(), "AES"));
-        byte[] decryptBytes = cipher.doFinal(encryptBytes);
+        byte[] decryptBytes = aesKey(decryptKey).decrypt(encryptBytes);
 
         return new String(decryptBytes);
     }
@@ -183,4 +181,94 @@ public class EncodeUtil {
     public static String aesDecrypt(String encryptStr, String decryptKey) throws Exception {
         return StringUtils.isBlank(encryptStr) ? null : aesDecryptByBytes(base64Decode(encryptStr), decryptKey);
     }
+
+    /**
+     * 获取由密码派生的AES密钥(已缓存)
+     * <p>
+     * 派生规则与原先以密码为种子的SHA1PRNG + KeyGenerator(128)一致, 但不依赖JDK提供者, 结果确定,
+     * 与历史密文兼容. 最多缓存{@link #AES_KEY_CACHE_SIZE}个密码的派生结果.
+     *
+     * @param password 密码
+     * @return AES密钥
+     */
+    public static AesKey aesKey(String password) {
+        AesKey key = AES_KEYS.get(password);
+        if (key == null) {
+            key = new AesKey(deriveLegacyAesKey(password));
+            if (AES_KEYS.size() >= AES_KEY_CACHE_SIZE) {
+                AES_KEYS.clear();
+            }
+            AES_KEYS.put(password, key);
+        }
+        return key;
+    }
+
+    /**
+     * 使用原始密钥创建AES密钥(不缓存)
+     *
+     * @param rawKey 16/24/32字节的密钥
+     * @return AES密钥
+     */
+    public static AesKey aesKey(byte[] rawKey) {
+        if (rawKey == null || (rawKey.length != 16 && rawKey.length != 24 && rawKey.length != 32)) {
+            throw new IllegalArgumentException("AES密钥长度必须为16、24或32字节");
+        }
+        return new AesKey(rawKey.clone());
+    }
+
+    /**
+     * 按原先的方式由密码派生128位AES密钥: 以密码为种子的SHA1PRNG生成的前16个字节.
+     * <p>
+     * SHA1PRNG设置种子后状态为SHA1(seed), 首次输出为SHA1(state), 故密钥为SHA1(SHA1(password))的前16字节.
+     *
+     * @param password 密码
+     * @return 16字节密钥
+     */
+    public static byte[] deriveLegacyAesKey(String password) {
+        byte[] state = HashUtil.sha1AsBytes(password.getBytes());
+        return Arrays.copyOf(HashUtil.sha1AsBytes(state), 16);
+    }
+
+    /**
+     * 预先派生的AES密钥(AES/ECB/PKCS5Padding), 各线程复用各自的{@link Cipher}, 线程安全
+     */
+    public static final class AesKey {
+        private final SecretKeySpec keySpec;
+
+        AesKey(byte[] key) {
+            this.keySpec = new SecretKeySpec(key, "AES");
+        }
+
+        /**
+         * 加密
+         */
+        public byte[] encrypt(byte[] content) throws GeneralSecurityException {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+            return cipher.doFinal(content);
+        }
+
+        /**
+         * 解密
+         */
+        public byte[] decrypt(byte[] encrypted) throws GeneralSecurityException {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, keySpec);
+            return cipher.doFinal(encrypted);
+        }
+
+        /**
+         * 以UTF-8加密字符串为base 64 code
+         */
+        public String encrypt(String content) throws GeneralSecurityException {
+            return base64Encode(encrypt(content.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        /**
+         * 将base 64 code解密为UTF-8字符串
+         */
+        public String decrypt(String encryptStr) throws GeneralSecurityException {
+            return new String(decrypt(Base64.getDecoder().decode(encryptStr)), StandardCharsets.UTF_8);
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package com.changhong.sei.util;
+
+import com.changhong.sei.annotation.AppModule;
+import org.reflections.Reflections;
+import org.reflections.scanners.Scanners;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.util.*;
+
+/**
+ * <strong>实现功能:</strong>.
+ * <p>枚举索引: 启动时扫描指定包下的全部枚举, 按所属应用模块(@AppModule)归类,
+ * 并预先解析其元数据(含@Remark), 避免部署后首批请求在反射上的延迟</p>
+ * <p>
+ * 应用模块取枚举所在包或最近的上级包上@AppModule的值, 均未标注时为空字符串.
+ * 实例创建后不可变, 线程安全.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class EnumIndex {
+    /**
+     * 未标注@AppModule的枚举所属的模块
+     */
+    public static final String NO_MODULE = "";
+
+    private final Map<String, List<Class<? extends Enum<?>>>> modules;
+    private final Map<String, Class<? extends Enum<?>>> byName;
+
+    private EnumIndex(Map<String, List<Class<? extends Enum<?>>>> modules, Map<String, Class<? extends Enum<?>>> byName) {
+        this.modules = modules;
+        this.byName = byName;
+    }
+
+    /**
+     * 扫描指定包(含子包)下的枚举并建立索引, 同时预先解析枚举元数据
+     *
+     * @param basePackages 包名
+     * @return 枚举索引
+     */
+    @SuppressWarnings("unchecked")
+    public static EnumIndex scan(String... basePackages) {
+        if (basePackages == null || basePackages.length == 0) {
+            throw new IllegalArgumentException("basePackages不能为空");
+        }
+        FilterBuilder filter = new FilterBuilder();
+        for (String basePackage : basePackages) {
+            filter.includePackage(basePackage);
+        }
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .forPackages(basePackages)
+                .filterInputsBy(filter)
+                .setScanners(Scanners.SubTypes));
+
+        List<Class<? extends Enum<?>>> enumClasses = new ArrayList<>();
+        for (Class<?> clazz : reflections.getSubTypesOf(Enum.class)) {
+            // 排除带方法体的枚举常量生成的匿名子类
+            if (clazz.isEnum()) {
+                enumClasses.add((Class<? extends Enum<?>>) clazz);
+            }
+        }
+        enumClasses.sort(Comparator.comparing(Class::getName));
+
+        Map<String, List<Class<? extends Enum<?>>>> modules = new LinkedHashMap<>();
+        Map<String, Class<? extends Enum<?>>> byName = new HashMap<>(enumClasses.size() * 4);
+        Map<String, String> packageModules = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (Class<? extends Enum<?>> enumClass : enumClasses) {
+            // 预先解析元数据, 之后EnumUtils直接读取缓存
+            EnumUtils.getEnumDataList(enumClass);
+
+            String module = resolveModule(enumClass, packageModules);
+            modules.computeIfAbsent(module, k -> new ArrayList<>()).add(enumClass);
+            byName.put(enumClass.getName(), enumClass);
+            // 简单类名重复时不建立简单类名索引
+            String simpleName = enumClass.getSimpleName();
+            if (!ambiguous.contains(simpleName) && byName.putIfAbsent(simpleName, enumClass) != null) {
+                byName.remove(simpleName);
+                ambiguous.add(simpleName);
+            }
+        }
+
+        Map<String, List<Class<? extends Enum<?>>>> readOnly = new LinkedHashMap<>(modules.size() * 2);
+        modules.forEach((module, classes) -> readOnly.put(module, Collections.unmodifiableList(classes)));
+        return new EnumIndex(Collections.unmodifiableMap(readOnly), byName);
+    }
+
+    /**
+     * @return 全部应用模块代码
+     */
+    public Set<String> getModules() {
+        return modules.keySet();
+    }
+
+    /**
+     * 获取应用模块下的全部枚举类
+     *
+     * @param module 应用模块代码
+     * @return 枚举类(按类名排序)
+     */
+    public List<Class<? extends Enum<?>>> getEnumClasses(String module) {
+        return modules.getOrDefault(module, Collections.emptyList());
+    }
+
+    /**
+     * 按类全名或简单类名(无重名时)获取枚举类
+     *
+     * @param name 类名
+     * @return 枚举类, 不存在时返回null
+     */
+    public Class<? extends Enum<?>> getEnumClass(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return 枚举类数量
+     */
+    public int size() {
+        int size = 0;
+        for (List<Class<? extends Enum<?>>> classes : modules.values()) {
+            size += classes.size();
+        }
+        return size;
+    }
+
+    /**
+     * 逐级向上查找包上的@AppModule
+     */
+    private static String resolveModule(Class<?> enumClass, Map<String, String> packageModules) {
+        String packageName = enumClass.getName().lastIndexOf('.') > 0
+                ? enumClass.getName().substring(0, enumClass.getName().lastIndexOf('.')) : "";
+        return resolvePackageModule(packageName, enumClass.getClassLoader(), packageModules);
+    }
+
+    private static String resolvePackageModule(String packageName, ClassLoader classLoader, Map<String, String> packageModules) {
+        String module = packageModules.get(packageName);
+        if (module != null) {
+            return module;
+        }
+        module = NO_MODULE;
+        try {
+            AppModule appModule = Class.forName(packageName + ".package-info", false, classLoader).getAnnotation(AppModule.class);
+            if (appModule != null) {
+                module = appModule.value();
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // 包上没有package-info
+        }
+        if (NO_MODULE.equals(module) && packageName.lastIndexOf('.') > 0) {
+            module = resolvePackageModule(packageName.substring(0, packageName.lastIndexOf('.')), classLoader, packageModules);
+        }
+        packageModules.put(packageName, module);
+        return module;
+    }
+}
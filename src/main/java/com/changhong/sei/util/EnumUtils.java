@@ -14,54 +14,102 @@ import java.util.*;
  */
 @SuppressWarnings("unchecked")
 public class EnumUtils {
-    private static final Map<Class<?>, List<EnumEntity>> enumDatasContainer = new HashMap<Class<?>, List<EnumEntity>>();
+    /**
+     * 按枚举类缓存的元数据, 线程安全, 每个枚举类只反射解析一次
+     */
+    private static final ClassValue<EnumMetadata> ENUM_METADATA = new ClassValue<EnumMetadata>() {
+        @Override
+        protected EnumMetadata computeValue(Class<?> type) {
+            return new EnumMetadata(type);
+        }
+    };
+
+    /**
+     * 启动时建立的枚举索引
+     */
+    private static volatile EnumIndex enumIndex;
+
+    /**
+     * 启动预热: 扫描指定包下的全部枚举, 预先解析元数据并建立索引.
+     * 建议在应用启动时以各应用模块(@AppModule)的根包调用.
+     *
+     * @param basePackages 包名
+     * @return 枚举索引
+     */
+    public static EnumIndex warmUp(String... basePackages) {
+        EnumIndex index = EnumIndex.scan(basePackages);
+        enumIndex = index;
+        return index;
+    }
+
+    /**
+     * @return 启动时建立的枚举索引, 未预热时返回null
+     */
+    public static EnumIndex getEnumIndex() {
+        return enumIndex;
+    }
+
+    /**
+     * 按枚举类名(全名或无重名时的简单类名)从枚举索引中返回对应的key-value Map构建对象
+     *
+     * @param enumClassName 枚举类名
+     * @return 返回枚举实体对象&lt;EnumEntity&gt;集合(只读), 索引中不存在时返回null
+     */
+    public static List<EnumEntity> getEnumDataList(String enumClassName) {
+        EnumIndex index = enumIndex;
+        if (index == null) {
+            throw new IllegalStateException("枚举索引未建立, 请先调用EnumUtils.warmUp");
+        }
+        Class<? extends Enum<?>> enumClass = index.getEnumClass(enumClassName);
+        return enumClass == null ? null : getEnumDataList(enumClass);
+    }
 
     /**
      * 基于Enum类返回对应的key-value Map构建对象
      *
      * @param enumClass 枚举类
-     * @return 返回枚举实体对象&lt;EnumEntity&gt;集合
+     * @return 返回枚举实体对象&lt;EnumEntity&gt;集合(只读)
      */
     public static List<EnumEntity> getEnumDataList(Class<? extends Enum> enumClass) {
-        List<EnumEntity> enumEntities = null;
-        if (enumClass != null) {
-            enumEntities = enumDatasContainer.get(enumClass);
-            if (enumEntities != null) {
-                return enumEntities;
-            }
-            enumEntities = new ArrayList<>();
-            Field[] fields = enumClass.getFields();
-            for (Field field : fields) {
-                String remark;
-                Remark entityComment = field.getAnnotation(Remark.class);
-                if (entityComment != null) {
-                    remark = entityComment.value();
-                } else {
-                    remark = field.getName();
-                }
-
-                if (enumClass == field.getType()) {
-                    String name = field.getName();
-                    Enum anEnum = Enum.valueOf(enumClass, name);
-                    enumEntities.add(new EnumEntity(anEnum.ordinal(), name, remark, anEnum));
-                }
-            }
-            enumDatasContainer.put(enumClass, enumEntities);
+        if (enumClass == null) {
+            return null;
         }
-        return enumEntities;
+        return ENUM_METADATA.get(enumClass).entities;
     }
 
     /**
      * 获取枚举值描述的键值对
      *
      * @param enumClass 枚举类
-     * @return 枚举类键值对
+     * @return 枚举类键值对(只读)
      */
     public static Map<String, String> getEnumMap(Class<? extends Enum> enumClass) {
-        List<EnumEntity> enumEntities = getEnumDataList(enumClass);
-        Map<String, String> map = new LinkedHashMap<>();
-        enumEntities.forEach(enumEntity -> map.put(enumEntity.getName(), enumEntity.getRemark()));
-        return map;
+        return ENUM_METADATA.get(enumClass).remarkMap;
+    }
+
+    /**
+     * 根据枚举下标获取枚举实体
+     *
+     * @param enumClass 枚举类
+     * @param ordinal   枚举下标
+     * @return 返回枚举实体, 下标无效时返回null
+     */
+    public static EnumEntity getEnumEntity(Class<? extends Enum<?>> enumClass, int ordinal) {
+        return entityOf(enumClass, ordinal);
+    }
+
+    /**
+     * 根据枚举名获取枚举实体
+     *
+     * @param enumClass 枚举类
+     * @param name      枚举名
+     * @return 返回枚举实体, 名称无效时返回null
+     */
+    public static EnumEntity getEnumEntity(Class<? extends Enum<?>> enumClass, String name) {
+        if (enumClass == null || name == null) {
+            return null;
+        }
+        return ENUM_METADATA.get(enumClass).byName.get(name);
     }
 
     /**
@@ -73,20 +121,8 @@ public class EnumUtils {
      * @return 返回枚举对象实例
      */
     public static <E extends Enum<E>> E getEnum(final Class<E> enumClass, final int ordinal) {
-        if (ordinal < 0) {
-            return null;
-        }
-        E anEnum = null;
-        List<EnumEntity> enumDataList = getEnumDataList(enumClass);
-        if (enumDataList != null && !enumDataList.isEmpty()) {
-            for (EnumEntity entity : enumDataList) {
-                if (ordinal == entity.getValue()) {
-                    anEnum = (E) entity.getAnEnum();
-                    break;
-                }
-            }
-        }
-        return anEnum;
+        EnumEntity entity = getEnumEntity(enumClass, ordinal);
+        return entity == null ? null : (E) entity.getAnEnum();
     }
 
     /**
@@ -116,19 +152,8 @@ public class EnumUtils {
      * @return 返回枚举下标对应的名称
      */
     public static String getEnumItemName(Class<? extends Enum> enumClass, int ordinal) {
-        String name = null;
-        if (ordinal >= 0) {
-            List<EnumEntity> enumDataList = getEnumDataList(enumClass);
-            if (enumDataList != null && !enumDataList.isEmpty()) {
-                for (EnumEntity entity : enumDataList) {
-                    if (ordinal == entity.getValue()) {
-                        name = entity.getName();
-                        break;
-                    }
-                }
-            }
-        }
-        return name;
+        EnumEntity entity = entityOf(enumClass, ordinal);
+        return entity == null ? null : entity.getName();
     }
 
     /**
@@ -140,19 +165,8 @@ public class EnumUtils {
      * @return 返回枚举下标对应的描述或名称
      */
     public static String getEnumItemRemark(Class<? extends Enum> enumClass, int ordinal) {
-        String remark = null;
-        if (ordinal >= 0) {
-            List<EnumEntity> enumDataList = getEnumDataList(enumClass);
-            if (enumDataList != null && !enumDataList.isEmpty()) {
-                for (EnumEntity entity : enumDataList) {
-                    if (ordinal == entity.getValue()) {
-                        remark = entity.getRemark();
-                        break;
-                    }
-                }
-            }
-        }
-        return remark;
+        EnumEntity entity = entityOf(enumClass, ordinal);
+        return entity == null ? null : entity.getRemark();
     }
 
     /**
@@ -167,6 +181,14 @@ public class EnumUtils {
         return getEnumItemRemark(enumClass, anEnum.ordinal());
     }
 
+    private static EnumEntity entityOf(Class<?> enumClass, int ordinal) {
+        if (enumClass == null) {
+            return null;
+        }
+        EnumEntity[] byOrdinal = ENUM_METADATA.get(enumClass).byOrdinal;
+        return ordinal >= 0 && ordinal < byOrdinal.length ? byOrdinal[ordinal] : null;
+    }
+
     static public class EnumEntity {
         private int value;
         private String name;
@@ -200,4 +222,48 @@ public class EnumUtils {
             this.remark = remark;
         }
     }
+
+    /**
+     * 枚举类元数据: 按下标的数组、按名称的哈希表及预先构建的只读集合
+     */
+    private static final class EnumMetadata {
+        private final List<EnumEntity> entities;
+        private final EnumEntity[] byOrdinal;
+        private final Map<String, EnumEntity> byName;
+        private final Map<String, String> remarkMap;
+
+        EnumMetadata(Class<?> enumClass) {
+            if (!enumClass.isEnum()) {
+                throw new IllegalArgumentException(enumClass.getName() + "不是枚举类");
+            }
+            Object[] constants = enumClass.getEnumConstants();
+            Map<String, Enum<?>> constantsByName = new HashMap<>(constants.length * 2);
+            for (Object constant : constants) {
+                Enum<?> anEnum = (Enum<?>) constant;
+                constantsByName.put(anEnum.name(), anEnum);
+            }
+            List<EnumEntity> list = new ArrayList<>(constants.length);
+            EnumEntity[] ordinals = new EnumEntity[constants.length];
+            Map<String, EnumEntity> names = new HashMap<>(constants.length * 2);
+            Map<String, String> remarks = new LinkedHashMap<>(constants.length * 2);
+            for (Field field : enumClass.getFields()) {
+                if (!field.isEnumConstant()) {
+                    continue;
+                }
+                String name = field.getName();
+                Remark entityComment = field.getAnnotation(Remark.class);
+                String remark = entityComment != null ? entityComment.value() : name;
+                Enum<?> anEnum = constantsByName.get(name);
+                EnumEntity entity = new EnumEntity(anEnum.ordinal(), name, remark, anEnum);
+                list.add(entity);
+                ordinals[anEnum.ordinal()] = entity;
+                names.put(name, entity);
+                remarks.put(name, remark);
+            }
+            this.entities = Collections.unmodifiableList(list);
+            this.byOrdinal = ordinals;
+            this.byName = Collections.unmodifiableMap(names);
+            this.remarkMap = Collections.unmodifiableMap(remarks);
+        }
+    }
 }
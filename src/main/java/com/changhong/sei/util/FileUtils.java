@@ -2,10 +2,22 @@ package com.changhong.sei.util;
 
 import com.changhong.sei.exception.ServiceException;
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
@@ -33,6 +45,12 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
     public static final String SLASH_TWO = "\\";
     public static final String PDF = "pdf";
     public static final String HTML = "html";
+    /**
+     * 单次内存映射的最大区域(1G)
+     */
+    public static final int MAX_MAP_REGION = 1 << 30;
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final int DATA_URI_PREFIX_LIMIT = 128;
 
     /**
      * 获取含扩展名的文件名（不包含path路径）
@@ -200,32 +218,43 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
 
     /**
      * 获取路径下的所有文件/文件夹
+     * <p>
+     * 与原实现一致跟随符号链接(指向祖先目录的循环链接被跳过).
+     * 结果全部保存在内存中, 文件数量很大时请使用{@link #walker(Path)}流式遍历
      *
      * @param directoryPath  需要遍历的文件夹路径
      * @param isAddDirectory 是否将子文件夹的路径也添加到list集合中
      */
     public static List<String> getAllFile(String directoryPath, boolean isAddDirectory) {
         List<String> list = new ArrayList<String>();
-        File baseFile = new File(directoryPath);
-        if (baseFile.isFile() || !baseFile.exists()) {
+        Path baseDir = Paths.get(directoryPath);
+        if (!Files.isDirectory(baseDir)) {
             return list;
         }
-        File[] files = baseFile.listFiles();
-        for (File file : files) {
-            if (file.isDirectory()) {
-                if (isAddDirectory) {
-                    list.add(file.getAbsolutePath());
-                }
-                list.addAll(getAllFile(file.getAbsolutePath(), isAddDirectory));
-            } else {
-                list.add(file.getAbsolutePath());
-            }
+        try {
+            walker(baseDir.toAbsolutePath()).includeDirectories(isAddDirectory).followLinks(true)
+                    .forEach(path -> list.add(path.toString()));
+        } catch (IOException e) {
+            throw new ServiceException("遍历目录异常: " + directoryPath, e);
         }
         return list;
     }
 
+    /**
+     * 创建目录遍历器, 支持惰性流、过滤、深度限制及并行遍历
+     *
+     * @param root 根目录
+     * @return 目录遍历器
+     * @see FileWalker
+     */
+    public static FileWalker walker(Path root) {
+        return new FileWalker(root);
+    }
+
     /**
      * 文件转为Base64字符串
+     * <p>
+     * 编码结果整体保存在内存中, 大文件请使用{@link #encodeBase64(Path, OutputStream)}直接写出
      *
      * @param file 文件
      * @return base64编码字符串
@@ -236,10 +265,10 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
             return null;
         }
 
-        String str;
-        byte[] b = Files.readAllBytes(Paths.get(file.getPath()));
-        str = Base64.encodeBase64String(b);
-        return str;
+        // 按编码后的长度预分配(不超过缓冲区大小, 避免文件大小异常时一次分配过多内存), 不再读入整个文件
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(STREAM_BUFFER_SIZE, (file.length() + 2) / 3 * 4));
+        encodeBase64(file.toPath(), out);
+        return out.toString(StandardCharsets.US_ASCII.name());
     }
 
     /**
@@ -253,27 +282,93 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
         if (inputStream == null) {
             return null;
         }
-        String str;
-        byte[] data;
-        // 读取图片字节数组
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
         try {
-            ByteArrayOutputStream swapStream = new ByteArrayOutputStream();
-            byte[] buff = new byte[inputStream.available()];
-            int rc;
-            while ((rc = inputStream.read(buff, 0, 100)) > 0) {
-                swapStream.write(buff, 0, rc);
-            }
-            data = swapStream.toByteArray();
+            encodeBase64(inputStream, out);
         } finally {
             try {
                 inputStream.close();
             } catch (IOException ignored) {
             }
         }
-        // 返回Base64编码过的字节数组字符串
-        str = Base64.encodeBase64String(data);
+        return out.toString(StandardCharsets.US_ASCII.name());
+    }
 
-        return str;
+    /**
+     * 流式Base64编码(不换行), 内存占用与数据大小无关
+     *
+     * @param in  输入流, 不会被关闭
+     * @param out 编码输出流, 不会被关闭
+     * @return 读取的原始字节数
+     */
+    public static long encodeBase64(InputStream in, OutputStream out) throws IOException {
+        long count;
+        try (OutputStream encoder = new Base64OutputStream(CloseShieldOutputStream.wrap(out), true, 0, null)) {
+            count = IOUtils.copyLarge(in, encoder, new byte[STREAM_BUFFER_SIZE]);
+        }
+        return count;
+    }
+
+    /**
+     * 流式将文件Base64编码(不换行)
+     *
+     * @param file 文件
+     * @param out  编码输出流, 不会被关闭
+     * @return 文件字节数
+     */
+    public static long encodeBase64(Path file, OutputStream out) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return encodeBase64(in, out);
+        }
+    }
+
+    /**
+     * 流式Base64解码, 忽略换行等空白字符, 支持"data:image/png;base64,"形式的前缀
+     *
+     * @param in  编码输入流, 不会被关闭
+     * @param out 输出流, 不会被关闭
+     * @return 解码后的字节数
+     */
+    public static long decodeBase64(InputStream in, OutputStream out) throws IOException {
+        return IOUtils.copyLarge(decodingStream(CloseShieldInputStream.wrap(in)), out, new byte[STREAM_BUFFER_SIZE]);
+    }
+
+    /**
+     * 流式Base64解码到文件
+     *
+     * @param in   编码输入流, 不会被关闭
+     * @param file 目标文件, 已存在时覆盖
+     * @return 文件字节数
+     */
+    public static long decodeBase64(InputStream in, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return decodeBase64(in, out);
+        }
+    }
+
+    /**
+     * 返回边读边解码的输入流, 支持"data:image/png;base64,"形式的前缀
+     *
+     * @param in 编码输入流, 随返回的流一起关闭
+     * @return 解码后的输入流
+     */
+    public static InputStream decodingStream(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, DATA_URI_PREFIX_LIMIT);
+        byte[] head = new byte[DATA_URI_PREFIX_LIMIT];
+        int len = IOUtils.read(pushback, head);
+        int start = 0;
+        if (len >= 5 && new String(head, 0, 5, StandardCharsets.US_ASCII).equalsIgnoreCase("data:")) {
+            for (int i = 5; i < len; i++) {
+                if (head[i] == ',') {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        if (len > start) {
+            pushback.unread(head, start, len - start);
+        }
+        return new Base64InputStream(pushback, false);
     }
 
     /**
@@ -335,6 +430,9 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
         return decode;
     }
 
+    /**
+     * 将输入流整体缓存到内存, 大数据请使用{@link #cloneInputStream(InputStream, int)}
+     */
     public static ByteArrayOutputStream cloneInputStream(InputStream input) {
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -359,6 +457,36 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
         }
     }
 
+    /**
+     * 缓存输入流以便多次读取, 超过阈值的部分转存到临时文件, 读取完毕后关闭输入流
+     *
+     * @param input           输入流
+     * @param memoryThreshold 内存中保存的最大字节数
+     * @return 可重复读取的缓冲, 使用完毕后需关闭以删除临时文件
+     */
+    public static SpillBuffer cloneInputStream(InputStream input, int memoryThreshold) throws IOException {
+        SpillBuffer buffer = new SpillBuffer(memoryThreshold);
+        try (InputStream in = input) {
+            IOUtils.copyLarge(in, buffer, new byte[STREAM_BUFFER_SIZE]);
+            buffer.finish();
+        } catch (IOException | RuntimeException e) {
+            buffer.close();
+            throw e;
+        }
+        return buffer;
+    }
+
+    /**
+     * 读取输入流的同时将数据写入缓冲, 读取完毕后可通过{@link SpillBuffer#openInputStream()}再次读取
+     *
+     * @param input 输入流, 随返回的流一起关闭
+     * @param copy  副本缓冲
+     * @return 输入流
+     */
+    public static InputStream tee(InputStream input, SpillBuffer copy) {
+        return new TeeInputStream(input, copy, false);
+    }
+
     /**
      * 拆分byte数组
      *
@@ -388,35 +516,129 @@ public final class FileUtils extends org.apache.commons.io.FileUtils {
      * @param chunkSize 每次读取数据流的大小
      */
     public static void splitChunks(final byte[] data, final long totalSize, final int chunkSize, byte[][] chunkData, Set<Integer> excludeChunks) {
-        //已经读取的数据的大小
-        int readSize = 0;
-        int size = totalSize > chunkSize ? chunkSize : data.length;
-        // 分块序号
-        int index = 0;
-        int len;
-        byte[] buffer = new byte[chunkSize];
-        try (InputStream stream = new ByteArrayInputStream(data)) {
-            while ((len = stream.read(buffer, 0, size)) > 0) {
-                readSize += len;
-                if (excludeChunks.contains(index)) {
-                    index++;
-                    buffer = new byte[size];
+        int length = (int) Math.min(totalSize, data.length);
+        int chunks = chunkCount(length, chunkSize);
+        for (int index = 0; index < chunks; index++) {
+            // 排除的分块直接跳过, 不复制也不分配
+            if (excludeChunks.contains(index)) {
+                continue;
+            }
+            int from = index * chunkSize;
+            chunkData[index] = Arrays.copyOfRange(data, from, Math.min(from + chunkSize, length));
+        }
+    }
+
+    /**
+     * 计算分块数
+     *
+     * @param totalSize 数据大小
+     * @param chunkSize 分块大小
+     * @return 分块数
+     */
+    public static int chunkCount(long totalSize, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize必须大于0");
+        }
+        long count = (totalSize + chunkSize - 1) / chunkSize;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("分块数超过上限, 请增大chunkSize");
+        }
+        return (int) count;
+    }
+
+    /**
+     * 以内存映射方式对文件分块, 各分块为映射区域的只读切片, 不复制数据
+     * <p>
+     * 按最大{@link #MAX_MAP_REGION}字节的区域映射, 完全被排除的区域不映射; 映射是惰性的,
+     * 被排除的分块不会被读取. 返回的缓冲区在被回收前一直占用映射, 不宜长期持有.
+     *
+     * @param file          文件
+     * @param chunkSize     分块大小
+     * @param excludeChunks 排除的分块序号(如已上传的分块), 可为null
+     * @return 按分块序号排列的只读缓冲区, 被排除的分块为null
+     */
+    public static ByteBuffer[] mapChunks(Path file, int chunkSize, Set<Integer> excludeChunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long totalSize = channel.size();
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount(totalSize, chunkSize)];
+            // 每个映射区域包含整数个分块
+            int chunksPerRegion = Math.max(1, MAX_MAP_REGION / chunkSize);
+            for (int first = 0; first < chunks.length; first += chunksPerRegion) {
+                int last = Math.min(first + chunksPerRegion, chunks.length);
+                if (allExcluded(excludeChunks, first, last)) {
                     continue;
                 }
-                chunkData[index++] = buffer;
+                long position = (long) first * chunkSize;
+                long size = Math.min((long) (last - first) * chunkSize, totalSize - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                for (int index = first; index < last; index++) {
+                    if (excludeChunks != null && excludeChunks.contains(index)) {
+                        continue;
+                    }
+                    int offset = (index - first) * chunkSize;
+                    ByteBuffer slice = region.duplicate();
+                    slice.position(offset).limit((int) Math.min(offset + (long) chunkSize, size));
+                    chunks[index] = slice.slice().asReadOnlyBuffer();
+                }
+            }
+            return chunks;
+        }
+    }
 
-                //如果数据流的总长度减去已经读取的数据流的长度值小于每次读取数据流的设定的大小，那么就重新为buffer字节数组设定大小
-                if ((totalSize - readSize) < size) {
-                    //这样可以避免最终得到的数据的结尾处多出多余的空值
-                    size = (int) totalSize - readSize;
-                    buffer = new byte[size];
-                } else {
-                    buffer = new byte[size];
+    /**
+     * 将文件的指定分块直接传输到目标通道(如Socket), 由操作系统完成拷贝(sendfile), 不经过堆内存
+     *
+     * @param file      文件
+     * @param chunkSize 分块大小
+     * @param index     分块序号
+     * @param target    目标通道
+     * @return 传输的字节数
+     */
+    public static long transferChunk(Path file, int chunkSize, int index, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = (long) index * chunkSize;
+            long totalSize = channel.size();
+            if (index < 0 || position >= totalSize) {
+                throw new IndexOutOfBoundsException("分块序号越界: " + index);
+            }
+            long count = Math.min(chunkSize, totalSize - position);
+            long transferred = 0;
+            while (transferred < count) {
+                long n = channel.transferTo(position + transferred, count - transferred, target);
+                if (n <= 0) {
+                    break;
                 }
+                transferred += n;
+            }
+            return transferred;
+        }
+    }
+
+    /**
+     * 创建分块合并器, 目标文件预先分配为totalSize大小
+     *
+     * @param target    目标文件, 必须不存在
+     * @param totalSize 文件大小
+     * @param chunkSize 分块大小
+     * @param algorithm 分块摘要算法(如SHA-256, MD5)
+     * @return 分块合并器
+     * @throws java.nio.file.FileAlreadyExistsException 目标文件已存在
+     * @see ChunkAssembler
+     */
+    public static ChunkAssembler assembleChunks(Path target, long totalSize, int chunkSize, String algorithm) throws IOException {
+        return new ChunkAssembler(target, totalSize, chunkSize, algorithm);
+    }
+
+    private static boolean allExcluded(Set<Integer> excludeChunks, int from, int to) {
+        if (excludeChunks == null || excludeChunks.size() < to - from) {
+            return false;
+        }
+        for (int index = from; index < to; index++) {
+            if (!excludeChunks.contains(index)) {
+                return false;
             }
-        } catch (IOException e) {
-            throw new ServiceException("数据流分块异常", e);
         }
+        return true;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,371 @@
+package com.changhong.sei.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 实现功能：目录遍历
+ * <p>
+ * 不将整棵目录树读入内存: {@link #stream()}按需逐个目录读取, {@link #forEach(Consumer)}基于{@link Files#walkFileTree},
+ * {@link #parallelForEach(Consumer)}在ForkJoin线程池中并行遍历各子目录.
+ * 支持最大深度、文件过滤、目录剪枝(被排除的目录不再进入), 不包含根目录本身.
+ * 跟随符号链接时, 指向自身祖先目录的链接(循环)被跳过.
+ * <pre>
+ * try (Stream&lt;Path&gt; files = FileUtils.walker(root).maxDepth(3)
+ *         .filter((path, attrs) -&gt; path.toString().endsWith(".log")).stream()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class FileWalker {
+    private final Path root;
+    private int maxDepth = Integer.MAX_VALUE;
+    private boolean includeDirectories;
+    private boolean followLinks;
+    private BiPredicate<Path, BasicFileAttributes> filter = (path, attrs) -> true;
+    private BiPredicate<Path, BasicFileAttributes> directoryFilter = (path, attrs) -> true;
+
+    FileWalker(Path root) {
+        this.root = Objects.requireNonNull(root);
+    }
+
+    /**
+     * 最大深度, 根目录下的文件深度为1
+     */
+    public FileWalker maxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth不能小于0");
+        }
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * 是否返回目录, 默认只返回文件
+     */
+    public FileWalker includeDirectories(boolean includeDirectories) {
+        this.includeDirectories = includeDirectories;
+        return this;
+    }
+
+    /**
+     * 是否跟随符号链接, 默认不跟随
+     */
+    public FileWalker followLinks(boolean followLinks) {
+        this.followLinks = followLinks;
+        return this;
+    }
+
+    /**
+     * 返回结果的过滤条件(对文件及includeDirectories时的目录生效)
+     */
+    public FileWalker filter(BiPredicate<Path, BasicFileAttributes> filter) {
+        this.filter = Objects.requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * 目录剪枝条件, 不满足的目录及其子目录不会被遍历
+     */
+    public FileWalker directoryFilter(BiPredicate<Path, BasicFileAttributes> directoryFilter) {
+        this.directoryFilter = Objects.requireNonNull(directoryFilter);
+        return this;
+    }
+
+    /**
+     * 惰性遍历, 按目录先序返回. 使用完毕后需关闭流以释放打开的目录
+     *
+     * @return 路径流, 读取目录出错时抛出{@link UncheckedIOException}
+     */
+    public Stream<Path> stream() {
+        LazyIterator iterator = new LazyIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL | Spliterator.DISTINCT), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 基于{@link Files#walkFileTree}顺序遍历
+     *
+     * @param action 处理逻辑
+     */
+    public void forEach(Consumer<Path> action) throws IOException {
+        Set<FileVisitOption> options = followLinks ? EnumSet.of(FileVisitOption.FOLLOW_LINKS) : EnumSet.noneOf(FileVisitOption.class);
+        Files.walkFileTree(root, options, maxDepth, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(root)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (!directoryFilter.test(dir, attrs)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (includeDirectories && filter.test(dir, attrs)) {
+                    action.accept(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // maxDepth为0时根目录以visitFile回调
+                if (file.equals(root)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                // 达到最大深度的目录也以visitFile回调
+                if (attrs.isDirectory()) {
+                    if (includeDirectories && directoryFilter.test(file, attrs) && filter.test(file, attrs)) {
+                        action.accept(file);
+                    }
+                } else if (filter.test(file, attrs)) {
+                    action.accept(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                if (exc instanceof FileSystemLoopException) {
+                    return FileVisitResult.CONTINUE;
+                }
+                throw exc;
+            }
+        });
+    }
+
+    /**
+     * 在公共ForkJoin线程池中并行遍历, 每个子目录为一个任务
+     *
+     * @param action 处理逻辑, 会被多个线程同时调用, 需线程安全
+     */
+    public void parallelForEach(Consumer<Path> action) throws IOException {
+        parallelForEach(action, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 在指定ForkJoin线程池中并行遍历, 每个子目录为一个任务
+     *
+     * @param action 处理逻辑, 会被多个线程同时调用, 需线程安全
+     * @param pool   线程池
+     */
+    public void parallelForEach(Consumer<Path> action, ForkJoinPool pool) throws IOException {
+        try {
+            pool.invoke(new DirectoryTask(root, 0, rootAncestor(), action));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private LinkOption[] linkOptions() {
+        return followLinks ? new LinkOption[0] : new LinkOption[]{LinkOption.NOFOLLOW_LINKS};
+    }
+
+    /**
+     * @return 跟随符号链接时根目录的祖先链, 否则返回null
+     */
+    private Ancestor rootAncestor() throws IOException {
+        return followLinks ? new Ancestor(root, Files.readAttributes(root, BasicFileAttributes.class).fileKey(), null) : null;
+    }
+
+    /**
+     * 判断目录是否为祖先目录之一(符号链接循环)
+     */
+    private static boolean isLoop(Path dir, BasicFileAttributes attrs, Ancestor ancestors) throws IOException {
+        Object key = attrs.fileKey();
+        for (Ancestor ancestor = ancestors; ancestor != null; ancestor = ancestor.parent) {
+            if (key != null && ancestor.key != null ? key.equals(ancestor.key) : Files.isSameFile(dir, ancestor.dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取目录项属性, 判断是否需要返回及是否需要进入
+     *
+     * @param ancestors 跟随符号链接时所在目录的祖先链, 用于跳过循环
+     * @return 需要进入的子目录属性, 否则返回null
+     */
+    private BasicFileAttributes visit(Path path, int depth, Ancestor ancestors, Consumer<Path> action) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, linkOptions());
+        } catch (NoSuchFileException e) {
+            // 遍历过程中被删除
+            return null;
+        }
+        if (attrs.isDirectory()) {
+            if (ancestors != null && isLoop(path, attrs, ancestors)) {
+                return null;
+            }
+            if (!directoryFilter.test(path, attrs)) {
+                return null;
+            }
+            if (includeDirectories && filter.test(path, attrs)) {
+                action.accept(path);
+            }
+            return depth < maxDepth ? attrs : null;
+        }
+        if (filter.test(path, attrs)) {
+            action.accept(path);
+        }
+        return null;
+    }
+
+    /**
+     * 跟随符号链接时当前目录到根目录的祖先链
+     */
+    private static final class Ancestor {
+        final Path dir;
+        final Object key;
+        final Ancestor parent;
+
+        Ancestor(Path dir, Object key, Ancestor parent) {
+            this.dir = dir;
+            this.key = key;
+            this.parent = parent;
+        }
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Path dir;
+        private final int depth;
+        private final transient Ancestor ancestors;
+        private final transient Consumer<Path> action;
+
+        DirectoryTask(Path dir, int depth, Ancestor ancestors, Consumer<Path> action) {
+            this.dir = dir;
+            this.depth = depth;
+            this.ancestors = ancestors;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= maxDepth) {
+                return;
+            }
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs = visit(entry, depth + 1, ancestors, action);
+                    if (attrs != null) {
+                        Ancestor chain = ancestors == null ? null : new Ancestor(entry, attrs.fileKey(), ancestors);
+                        DirectoryTask subtask = new DirectoryTask(entry, depth + 1, chain, action);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (DirectoryTask subtask : subtasks) {
+                subtask.join();
+            }
+        }
+    }
+
+    /**
+     * 以目录流栈实现的先序遍历, 同时只保持当前路径上的目录打开
+     */
+    private final class LazyIterator implements Iterator<Path> {
+        private final Deque<DirectoryStream<Path>> streams = new ArrayDeque<>();
+        private final Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+        private final Deque<Path> pending = new ArrayDeque<>(1);
+        private Ancestor ancestors;
+        private boolean started;
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                started = true;
+                if (maxDepth > 0) {
+                    try {
+                        ancestors = rootAncestor();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    open(root);
+                }
+            }
+            while (pending.isEmpty() && !iterators.isEmpty()) {
+                Iterator<Path> iterator = iterators.peek();
+                if (!iterator.hasNext()) {
+                    pop();
+                    continue;
+                }
+                Path entry;
+                try {
+                    entry = iterator.next();
+                } catch (DirectoryIteratorException e) {
+                    throw new UncheckedIOException(e.getCause());
+                }
+                try {
+                    BasicFileAttributes attrs = visit(entry, iterators.size(), ancestors, pending::add);
+                    if (attrs != null) {
+                        if (ancestors != null) {
+                            ancestors = new Ancestor(entry, attrs.fileKey(), ancestors);
+                        }
+                        open(entry);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        private void open(Path dir) {
+            try {
+                DirectoryStream<Path> stream = Files.newDirectoryStream(dir);
+                streams.push(stream);
+                iterators.push(stream.iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void pop() {
+            iterators.pop();
+            if (ancestors != null) {
+                ancestors = ancestors.parent;
+            }
+            try {
+                streams.pop().close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            while (!streams.isEmpty()) {
+                iterators.pop();
+                try {
+                    streams.pop().close();
+                } catch (IOException e) {
+                    // 关闭时忽略
+                }
+            }
+        }
+    }
+}
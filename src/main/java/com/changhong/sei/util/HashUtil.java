@@ -183,6 +183,35 @@ public class HashUtil {
         return toHexString(hmacSha256AsBytes(data, key));
     }
 
+    /**
+     * Do HMAC-SHA512.
+     *
+     * @return byte[] as result.
+     */
+    public static byte[] hmacSha512AsBytes(byte[] data, byte[] key) {
+        SecretKey skey = new SecretKeySpec(key, "HmacSHA512");
+        Mac mac;
+        try {
+            mac = Mac.getInstance("HmacSHA512");
+            mac.init(skey);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+        mac.update(data);
+        return mac.doFinal();
+    }
+
+    /**
+     * 预先构建HMAC密钥, 各线程复用已初始化的{@link Mac}, 避免每次签名都查找算法和初始化密钥
+     *
+     * @param algorithm HMAC算法, 如HmacSHA256, HmacSHA512
+     * @param key       密钥
+     * @return HMAC密钥
+     */
+    public static HmacKey prepareHmac(String algorithm, byte[] key) {
+        return new HmacKey(algorithm, key);
+    }
+
     /**
      * Do HMAC-SHA1.
      *
@@ -245,4 +274,63 @@ public class HashUtil {
         }
         return sb.toString();
     }
+
+    /**
+     * 预先构建的HMAC密钥, 线程安全
+     */
+    public static final class HmacKey {
+        private final ThreadLocal<Mac> macs;
+        private final int length;
+
+        HmacKey(String algorithm, byte[] key) {
+            SecretKey secretKey = new SecretKeySpec(key, algorithm);
+            Mac prototype = newMac(secretKey);
+            this.length = prototype.getMacLength();
+            this.macs = ThreadLocal.withInitial(() -> newMac(secretKey));
+        }
+
+        /**
+         * 计算HMAC
+         *
+         * @param data   数据
+         * @param offset 起始位置
+         * @param len    长度
+         * @return HMAC
+         */
+        public byte[] sign(byte[] data, int offset, int len) {
+            Mac mac = macs.get();
+            mac.update(data, offset, len);
+            return mac.doFinal();
+        }
+
+        /**
+         * 校验HMAC, 比较耗时与内容无关
+         *
+         * @param data      数据
+         * @param offset    起始位置
+         * @param len       长度
+         * @param signature 待校验的HMAC
+         * @return 是否一致
+         */
+        public boolean verify(byte[] data, int offset, int len, byte[] signature) {
+            return MessageDigest.isEqual(sign(data, offset, len), signature);
+        }
+
+        /**
+         * @return HMAC字节数
+         */
+        public int getMacLength() {
+            return length;
+        }
+
+        private static Mac newMac(SecretKey key) {
+            try {
+                Mac mac = Mac.getInstance(key.getAlgorithm());
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,247 @@
+package com.changhong.sei.util;
+
+import com.changhong.sei.enums.UserAuthorityPolicy;
+import com.changhong.sei.enums.UserType;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 实现功能：JWT消息体(payload)
+ * <p>
+ * 字段与docs/JwtTokenUtil.md中的ECMP令牌规则一致, 其余声明保存在{@link #getOthers()}中并原样写回;
+ * 其余声明不能使用标准字段的名称(如exp、userId), 否则生成令牌时抛出{@link IllegalArgumentException}.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public class JwtClaims implements Serializable {
+    private static final long serialVersionUID = -3216829476178853102L;
+
+    /**
+     * 标准字段的声明名称
+     */
+    static final Set<String> RESERVED_NAMES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "sub", "ip", "userName", "userId", "randomKey", "authorityPolicy", "appId", "userType",
+            "exp", "iat", "tenant", "account", "email")));
+
+    /**
+     * 登录账号
+     */
+    private String sub;
+    /**
+     * 客户端IP
+     */
+    private String ip;
+    /**
+     * 登录用户名
+     */
+    private String userName;
+    /**
+     * 登录用户ID
+     */
+    private String userId;
+    /**
+     * 随机值(会话ID)
+     */
+    private String randomKey;
+    /**
+     * 登录用户权限策略
+     */
+    private UserAuthorityPolicy authorityPolicy;
+    /**
+     * 应用标识
+     */
+    private String appId;
+    /**
+     * 登录用户类型
+     */
+    private UserType userType;
+    /**
+     * token过期时间(秒)
+     */
+    private long exp;
+    /**
+     * token生成时间(秒)
+     */
+    private long iat;
+    /**
+     * 登录用户租户代码
+     */
+    private String tenant;
+    /**
+     * 登录账号
+     */
+    private String account;
+    /**
+     * 登录用户email
+     */
+    private String email;
+    /**
+     * 其他声明
+     */
+    private Map<String, Object> others = new LinkedHashMap<>();
+
+    public String getSub() {
+        return sub;
+    }
+
+    public void setSub(String sub) {
+        this.sub = sub;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public void setIp(String ip) {
+        this.ip = ip;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getRandomKey() {
+        return randomKey;
+    }
+
+    public void setRandomKey(String randomKey) {
+        this.randomKey = randomKey;
+    }
+
+    public UserAuthorityPolicy getAuthorityPolicy() {
+        return authorityPolicy;
+    }
+
+    public void setAuthorityPolicy(UserAuthorityPolicy authorityPolicy) {
+        this.authorityPolicy = authorityPolicy;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public UserType getUserType() {
+        return userType;
+    }
+
+    public void setUserType(UserType userType) {
+        this.userType = userType;
+    }
+
+    public long getExp() {
+        return exp;
+    }
+
+    public void setExp(long exp) {
+        this.exp = exp;
+    }
+
+    public long getIat() {
+        return iat;
+    }
+
+    public void setIat(long iat) {
+        this.iat = iat;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Map<String, Object> getOthers() {
+        return others;
+    }
+
+    /**
+     * @throws IllegalArgumentException 含有标准字段的声明名称
+     */
+    public void setOthers(Map<String, Object> others) {
+        if (others != null) {
+            for (String name : others.keySet()) {
+                checkName(name);
+            }
+        }
+        this.others = others == null ? new LinkedHashMap<>() : others;
+    }
+
+    /**
+     * 校验其余声明的名称不与标准字段冲突
+     */
+    static void checkName(String name) {
+        if (name == null || RESERVED_NAMES.contains(name)) {
+            throw new IllegalArgumentException("声明名称不能为空或与标准字段重名: " + name);
+        }
+    }
+
+    /**
+     * 复制一份, 避免缓存中的实例被调用方修改
+     */
+    JwtClaims copy() {
+        JwtClaims copy = new JwtClaims();
+        copy.sub = sub;
+        copy.ip = ip;
+        copy.userName = userName;
+        copy.userId = userId;
+        copy.randomKey = randomKey;
+        copy.authorityPolicy = authorityPolicy;
+        copy.appId = appId;
+        copy.userType = userType;
+        copy.exp = exp;
+        copy.iat = iat;
+        copy.tenant = tenant;
+        copy.account = account;
+        copy.email = email;
+        copy.others = new LinkedHashMap<>(others);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtClaims{sub='" + sub + "', userId='" + userId + "', tenant='" + tenant
+                + "', authorityPolicy=" + authorityPolicy + ", userType=" + userType
+                + ", exp=" + exp + ", iat=" + iat + '}';
+    }
+}
@@ -0,0 +1,513 @@
+package com.changhong.sei.util;
+
+import com.changhong.sei.enums.UserAuthorityPolicy;
+import com.changhong.sei.enums.UserType;
+import com.changhong.sei.exception.JwtException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实现功能：JWT令牌签发与校验
+ * <p>
+ * 令牌格式见docs/JwtTokenUtil.md: 头信息固定为{"alg":"HS512"}, 各段以base64url(无填充)编码.
+ * 签名密钥为密钥字符串的UTF-8字节(与jjwt的signWith(HS512, Base64(key))一致), 构造时预先初始化.
+ * <p>
+ * 解析时直接在令牌字节上按'.'定位各段, 不拆分子串; 校验通过的令牌按签名缓存, 相同令牌再次出现时跳过HMAC计算
+ * (仍会校验令牌全文一致及过期时间). 实例线程安全, 应按密钥复用.
+ * <pre>
+ * JwtTokenUtil jwt = new JwtTokenUtil("SecretKey_ECMP");
+ * String token = jwt.generateToken(claims, 10 * 3600);
+ * JwtClaims parsed = jwt.parseToken(token);
+ * </pre>
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class JwtTokenUtil {
+    private static final String HEADER = "{\"alg\":\"HS512\"}";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String ENCODED_HEADER = ENCODER.encodeToString(HEADER.getBytes(StandardCharsets.UTF_8));
+    /**
+     * 默认缓存的已校验令牌数
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private final HashUtil.HmacKey key;
+    private final int cacheSize;
+    private final Map<String, Verified> verified;
+
+    /**
+     * @param secret 签名密钥
+     */
+    public JwtTokenUtil(String secret) {
+        this(secret, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param secret    签名密钥
+     * @param cacheSize 缓存的已校验令牌数, 为0时不缓存
+     */
+    public JwtTokenUtil(String secret, int cacheSize) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("secret不能为空");
+        }
+        this.key = HashUtil.prepareHmac("HmacSHA512", secret.getBytes(StandardCharsets.UTF_8));
+        this.cacheSize = Math.max(0, cacheSize);
+        this.verified = new ConcurrentHashMap<>(Math.min(this.cacheSize, 1024) * 2);
+    }
+
+    /**
+     * 签发令牌, 以当前时间为iat, 有效期为ttlSeconds
+     *
+     * @param claims     消息体, iat和exp会被改写
+     * @param ttlSeconds 有效期(秒)
+     * @return 令牌
+     */
+    public String generateToken(JwtClaims claims, long ttlSeconds) {
+        long now = SystemClock.INSTANCE.currentTimeMillis() / 1000;
+        claims.setIat(now);
+        claims.setExp(now + ttlSeconds);
+        return generateToken(claims);
+    }
+
+    /**
+     * 按消息体中的iat和exp签发令牌
+     *
+     * @param claims 消息体
+     * @return 令牌
+     * @throws IllegalArgumentException 其余声明与标准字段重名
+     */
+    public String generateToken(JwtClaims claims) {
+        String payload = ENCODER.encodeToString(toJson(claims).getBytes(StandardCharsets.UTF_8));
+        byte[] unsigned = (ENCODED_HEADER + '.' + payload).getBytes(StandardCharsets.US_ASCII);
+        return ENCODED_HEADER + '.' + payload + '.' + ENCODER.encodeToString(key.sign(unsigned, 0, unsigned.length));
+    }
+
+    /**
+     * 解析并校验令牌(签名及过期时间)
+     *
+     * @param token 令牌, 可带"Bearer "前缀
+     * @return 消息体
+     * @throws JwtException 令牌无效或已过期
+     */
+    public JwtClaims parseToken(String token) {
+        if (token == null) {
+            throw new JwtException("token为空");
+        }
+        if (token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+        int dot1 = token.indexOf('.');
+        int dot2 = dot1 < 0 ? -1 : token.indexOf('.', dot1 + 1);
+        if (dot1 <= 0 || dot2 <= dot1 + 1 || dot2 == token.length() - 1 || token.indexOf('.', dot2 + 1) >= 0) {
+            throw new JwtException("token格式不正确");
+        }
+        long now = SystemClock.INSTANCE.currentTimeMillis() / 1000;
+
+        String signature = token.substring(dot2 + 1);
+        Verified cached = verified.get(signature);
+        if (cached != null && cached.token.equals(token)) {
+            checkExpiration(cached.claims, now);
+            return cached.claims.copy();
+        }
+
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = decode(bytes, dot2 + 1, bytes.length - dot2 - 1);
+        if (!key.verify(bytes, 0, dot2, expected)) {
+            throw new JwtException("token签名校验失败");
+        }
+        checkHeader(decode(bytes, 0, dot1));
+        JwtClaims claims = parseClaims(new String(decode(bytes, dot1 + 1, dot2 - dot1 - 1), StandardCharsets.UTF_8));
+        checkExpiration(claims, now);
+        cache(signature, token, claims, now);
+        return claims.copy();
+    }
+
+    /**
+     * 校验令牌: 签名有效、未过期, 且令牌中的randomKey与请求头中的一致
+     *
+     * @param token     令牌
+     * @param randomKey 请求头中的随机值(会话ID), 为null时不比较
+     * @return 是否有效
+     */
+    public boolean validateToken(String token, String randomKey) {
+        try {
+            JwtClaims claims = parseToken(token);
+            return randomKey == null || randomKey.equals(claims.getRandomKey());
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 清空已校验令牌缓存(如用户注销后)
+     */
+    public void clearCache() {
+        verified.clear();
+    }
+
+    private void cache(String signature, String token, JwtClaims claims, long now) {
+        if (cacheSize == 0) {
+            return;
+        }
+        if (verified.size() >= cacheSize) {
+            // 先清理已过期的令牌, 仍然已满时整体清空
+            Iterator<Verified> iterator = verified.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().claims.getExp() <= now) {
+                    iterator.remove();
+                }
+            }
+            if (verified.size() >= cacheSize) {
+                verified.clear();
+            }
+        }
+        verified.put(signature, new Verified(token, claims));
+    }
+
+    private static void checkExpiration(JwtClaims claims, long now) {
+        if (claims.getExp() > 0 && claims.getExp() <= now) {
+            throw new JwtException(JwtException.EXPIRED, "token已过期");
+        }
+    }
+
+    private static void checkHeader(byte[] header) {
+        Map<String, Object> values = new JsonReader(new String(header, StandardCharsets.UTF_8)).readObject();
+        if (!"HS512".equals(values.get("alg"))) {
+            throw new JwtException("不支持的签名算法: " + values.get("alg"));
+        }
+    }
+
+    private static byte[] decode(byte[] bytes, int offset, int length) {
+        try {
+            ByteBuffer decoded = DECODER.decode(ByteBuffer.wrap(bytes, offset, length));
+            return decoded.hasArray() && decoded.arrayOffset() == 0 && decoded.remaining() == decoded.array().length
+                    ? decoded.array() : Arrays.copyOfRange(decoded.array(), decoded.arrayOffset(), decoded.arrayOffset() + decoded.remaining());
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("token编码不正确", e);
+        }
+    }
+
+    static String toJson(JwtClaims claims) {
+        StringBuilder json = new StringBuilder(512).append('{');
+        appendString(json, "sub", claims.getSub());
+        appendString(json, "ip", claims.getIp());
+        appendString(json, "userName", claims.getUserName());
+        appendString(json, "userId", claims.getUserId());
+        appendString(json, "randomKey", claims.getRandomKey());
+        appendString(json, "authorityPolicy", claims.getAuthorityPolicy() == null ? null : claims.getAuthorityPolicy().name());
+        appendString(json, "appId", claims.getAppId());
+        appendString(json, "userType", claims.getUserType() == null ? null : claims.getUserType().name());
+        appendName(json, "exp").append(claims.getExp());
+        appendName(json, "iat").append(claims.getIat());
+        appendString(json, "tenant", claims.getTenant());
+        appendString(json, "account", claims.getAccount());
+        appendString(json, "email", claims.getEmail());
+        for (Map.Entry<String, Object> entry : claims.getOthers().entrySet()) {
+            // getOthers()可直接修改, 写出时再次校验, 避免覆盖标准字段
+            JwtClaims.checkName(entry.getKey());
+            Object value = entry.getValue();
+            if (value == null || value instanceof Boolean || value instanceof Number) {
+                appendName(json, entry.getKey()).append(value);
+            } else {
+                appendString(json, entry.getKey(), value.toString());
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    static JwtClaims parseClaims(String json) {
+        JwtClaims claims = new JwtClaims();
+        for (Map.Entry<String, Object> entry : new JsonReader(json).readObject().entrySet()) {
+            Object value = entry.getValue();
+            switch (entry.getKey()) {
+                case "sub":
+                    claims.setSub(asString(value));
+                    break;
+                case "ip":
+                    claims.setIp(asString(value));
+                    break;
+                case "userName":
+                    claims.setUserName(asString(value));
+                    break;
+                case "userId":
+                    claims.setUserId(asString(value));
+                    break;
+                case "randomKey":
+                    claims.setRandomKey(asString(value));
+                    break;
+                case "authorityPolicy":
+                    claims.setAuthorityPolicy(value == null ? null : asEnum(UserAuthorityPolicy.class, asString(value)));
+                    break;
+                case "appId":
+                    claims.setAppId(asString(value));
+                    break;
+                case "userType":
+                    claims.setUserType(value == null ? null : asEnum(UserType.class, asString(value)));
+                    break;
+                case "exp":
+                    claims.setExp(asLong(value));
+                    break;
+                case "iat":
+                    claims.setIat(asLong(value));
+                    break;
+                case "tenant":
+                    claims.setTenant(asString(value));
+                    break;
+                case "account":
+                    claims.setAccount(asString(value));
+                    break;
+                case "email":
+                    claims.setEmail(asString(value));
+                    break;
+                default:
+                    claims.getOthers().put(entry.getKey(), value);
+            }
+        }
+        return claims;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static long asLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return value == null ? 0 : Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            throw new JwtException("token时间格式不正确: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E asEnum(Class<E> enumClass, String name) {
+        try {
+            return Enum.valueOf(enumClass, name);
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("token中" + enumClass.getSimpleName() + "取值不正确: " + name);
+        }
+    }
+
+    private static StringBuilder appendName(StringBuilder json, String name) {
+        if (json.length() > 1) {
+            json.append(',');
+        }
+        return appendQuoted(json, name).append(':');
+    }
+
+    private static void appendString(StringBuilder json, String name, String value) {
+        appendName(json, name);
+        if (value == null) {
+            json.append("null");
+        } else {
+            appendQuoted(json, value);
+        }
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    private static final class Verified {
+        private final String token;
+        private final JwtClaims claims;
+
+        Verified(String token, JwtClaims claims) {
+            this.token = token;
+            this.claims = claims;
+        }
+    }
+
+    /**
+     * 只支持单层对象(字符串、数字、布尔、null)的JSON读取
+     */
+    private static final class JsonReader {
+        private final String json;
+        private int pos;
+
+        JsonReader(String json) {
+            this.json = json;
+        }
+
+        Map<String, Object> readObject() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                values.put(name, readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw error();
+                }
+            }
+            skipWhitespace();
+            if (pos != json.length()) {
+                throw error();
+            }
+            return values;
+        }
+
+        private Object readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (json.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (json.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (json.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            int start = pos;
+            while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String number = json.substring(start, pos);
+            try {
+                if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+                    return Double.parseDouble(number);
+                }
+                return Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                throw error();
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = null;
+            int start = pos;
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb == null ? json.substring(start, pos - 1) : sb.toString();
+                }
+                if (c != '\\') {
+                    if (sb != null) {
+                        sb.append(c);
+                    }
+                    continue;
+                }
+                if (sb == null) {
+                    sb = new StringBuilder(json.substring(start, pos - 1));
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > json.length()) {
+                            throw error();
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error();
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(escaped);
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw error();
+            }
+        }
+
+        private char peek() {
+            if (pos >= json.length()) {
+                throw error();
+            }
+            return json.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private JwtException error() {
+            return new JwtException("token消息体格式不正确");
+        }
+    }
+}
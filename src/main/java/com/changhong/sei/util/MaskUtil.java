@@ -1,79 +1,73 @@
 package com.changhong.sei.util;
 
-import org.apache.commons.lang3.StringUtils;
+import com.changhong.sei.enums.MaskType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
 
 /**
  * 实现功能：敏感数据掩码显示
+ * <p>
+ * 各类型的掩码规则预先按{@link MaskType}建立, 掩码结果直接追加到调用方传入的{@link StringBuilder}, 批量处理时可复用同一缓冲.
+ * {@link #maskText(CharSequence)}及{@link #maskingWriter(Writer)}一次扫描即可识别并掩码自由文本中的手机号、
+ * 固定电话、身份证号、银行卡号及邮箱, 适用于日志及导出内容.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2020-03-26 15:05
  */
 public class MaskUtil {
+    private static final char PAD = '*';
+    private static final String ALL_MASK = "******";
+    /**
+     * 流式掩码时单个候选片段的最大长度, 超过时不再等待片段结束
+     */
+    private static final int MAX_TOKEN_LENGTH = 256;
+    private static final Map<MaskType, Rule> RULES = new EnumMap<>(MaskType.class);
+
+    static {
+        RULES.put(MaskType.MOBILE, MaskUtil::appendMobile);
+        RULES.put(MaskType.TELEPHONE, MaskUtil::appendTelephone);
+        RULES.put(MaskType.ID_CARD, MaskUtil::appendIdCard);
+        RULES.put(MaskType.BANK_CARD, MaskUtil::appendBankCard);
+        RULES.put(MaskType.EMAIL, MaskUtil::appendEmail);
+        RULES.put(MaskType.NAME, MaskUtil::appendName);
+        RULES.put(MaskType.ALL, MaskUtil::appendAll);
+    }
+
     /**
      * 手机号显示首3末4位，中间用*号隐藏代替，如：188****5593
      */
     public static String maskMobile(String mobile) {
-        if (StringUtils.isBlank(mobile) || mobile.length() <= 8) {
-            return mobile;
-        }
-
-        return wordMask(mobile, 3, 4, "*");
+        return mask(MaskType.MOBILE, mobile);
     }
 
     /**
      * 电话号码显示区号及末4位，中间用*号隐藏代替，如：055****6666
      */
     public static String maskTelephone(String telephone) {
-        if (StringUtils.isBlank(telephone)) {
-            return telephone;
-        }
-        String result;
-        if (telephone.length() > 8) {
-            if (telephone.contains("-")) {
-                String[] temp = telephone.split("-");
-                result = temp[0] + "****" + temp[1].substring(temp[1].length() - 4, temp[1].length());
-            } else {
-                result = telephone.substring(0, 3) + "****" + telephone.substring(telephone.length() - 4, telephone.length());
-            }
-        } else {
-            result = "****" + telephone.substring(telephone.length() - 4, telephone.length());
-        }
-
-        return result;
+        return mask(MaskType.TELEPHONE, telephone);
     }
 
     /**
      * 身份证号显示首6末4位，中间用4个*号隐藏代替，如：340121****3754
      */
     public static String maskIDCard(String idCard) {
-        if (StringUtils.isBlank(idCard)) {
-            return idCard;
-        }
-
-        return wordMask(idCard, 3, 4, "*");
+        return mask(MaskType.ID_CARD, idCard);
     }
 
     /**
      * 银行卡显示首6末4位，中间用4个*号隐藏代替，如：622202****4123
      */
     public static String maskBankCard(String cardNo) {
-        if (StringUtils.isBlank(cardNo) || cardNo.length() < 10) {
-            return cardNo;
-        }
-
-        return wordMask(cardNo, 6, 4, "*");
+        return mask(MaskType.BANK_CARD, cardNo);
     }
 
     /**
      * 邮箱像是前两位及最后一位字符，及@后邮箱域名信息，如：ch****y@163.com
      */
     public static String maskEmail(String email) {
-        if (StringUtils.isBlank(email)) {
-            return email;
-        }
-        String[] temp = email.split("@");
-
-        return wordMask(temp[0], 2, 1, "*") + "@" + temp[1];
+        return mask(MaskType.EMAIL, email);
     }
 
     /**
@@ -86,32 +80,112 @@ public class MaskUtil {
      * 大于6字，如：用于掩码测试的字符串（用于掩****字符串）
      */
     public static String maskName(String name) {
-        int lenth = StringUtils.length(name);
-        switch (lenth) {
-            case 0:
-            case 1:
-                return name;
-            case 2:
-                return "*" + name.substring(1, 2);
-            case 3:
-            case 4:
-                return wordMask(name, 1, 1, "*");
-            case 5:
-            case 6:
-                return wordMask(name, 2, 2, "*");
-            default:
-                return wordMask(name, 3, 3, "*");
-        }
+        return mask(MaskType.NAME, name);
     }
 
     /**
      * 全隐藏，如： ***
      */
     public static String maskAll(String str) {
-        if (StringUtils.isBlank(str)) {
-            return str;
+        return mask(MaskType.ALL, str);
+    }
+
+    /**
+     * 按类型掩码
+     *
+     * @param type  敏感数据类型
+     * @param value 原值
+     * @return 掩码后的值, 原值为null时返回null
+     */
+    public static String mask(MaskType type, String value) {
+        if (value == null) {
+            return null;
+        }
+        return mask(type, value, new StringBuilder(value.length() + 4)).toString();
+    }
+
+    /**
+     * 按类型掩码并追加到缓冲
+     *
+     * @param type  敏感数据类型
+     * @param value 原值, 不能为null
+     * @param out   输出缓冲
+     * @return 输出缓冲
+     */
+    public static StringBuilder mask(MaskType type, CharSequence value, StringBuilder out) {
+        RULES.get(type).apply(value, 0, value.length(), out);
+        return out;
+    }
+
+    /**
+     * 批量按类型掩码, 复用同一缓冲
+     *
+     * @param type   敏感数据类型
+     * @param values 原值
+     * @return 掩码后的值, 与原值顺序一致
+     */
+    public static List<String> mask(MaskType type, Collection<String> values) {
+        Rule rule = RULES.get(type);
+        List<String> result = new ArrayList<>(values.size());
+        StringBuilder out = new StringBuilder(32);
+        for (String value : values) {
+            if (value == null) {
+                result.add(null);
+                continue;
+            }
+            out.setLength(0);
+            rule.apply(value, 0, value.length(), out);
+            result.add(out.toString());
+        }
+        return result;
+    }
+
+    /**
+     * 掩码自由文本中的手机号、固定电话、身份证号、银行卡号及邮箱
+     *
+     * @param text 文本
+     * @return 掩码后的文本
+     */
+    public static String maskText(CharSequence text) {
+        if (text == null) {
+            return null;
         }
-        return "******";
+        return maskText(text, new StringBuilder(text.length())).toString();
+    }
+
+    /**
+     * 掩码自由文本并追加到缓冲
+     *
+     * @param text 文本
+     * @param out  输出缓冲
+     * @return 输出缓冲
+     */
+    public static StringBuilder maskText(CharSequence text, StringBuilder out) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isTokenChar(text.charAt(i))) {
+                out.append(text.charAt(i++));
+                continue;
+            }
+            int end = i + 1;
+            while (end < length && isTokenChar(text.charAt(end))) {
+                end++;
+            }
+            maskToken(text, i, end, out);
+            i = end;
+        }
+        return out;
+    }
+
+    /**
+     * 包装输出流, 写入的文本经掩码后输出; 关闭或flush时输出尚未结束的片段
+     *
+     * @param out 输出流
+     * @return 掩码输出流
+     */
+    public static Writer maskingWriter(Writer out) {
+        return new MaskingWriter(out);
     }
 
     /**
@@ -123,15 +197,343 @@ public class MaskUtil {
      * @param pad         填充字符
      */
     public static String wordMask(String word, int startLength, int endLength, String pad) {
+        StringBuilder out = new StringBuilder(word.length());
+        if (pad == null || pad.length() == 0) {
+            pad = " ";
+        }
         if (startLength + endLength > word.length()) {
-            return StringUtils.leftPad("", word.length() - 1, pad);
+            appendPad(out, word.length() - 1, pad);
+            return out.toString();
+        }
+        out.append(word, 0, startLength);
+        appendPad(out, word.length() - startLength - endLength, pad);
+        return out.append(word, word.length() - endLength, word.length()).toString();
+    }
+
+    /**
+     * 保留首尾, 中间以*填充
+     */
+    private static void appendMasked(CharSequence s, int from, int to, int startLength, int endLength, StringBuilder out) {
+        int length = to - from;
+        if (startLength + endLength > length) {
+            for (int i = 1; i < length; i++) {
+                out.append(PAD);
+            }
+            return;
+        }
+        out.append(s, from, from + startLength);
+        for (int i = startLength + endLength; i < length; i++) {
+            out.append(PAD);
+        }
+        out.append(s, to - endLength, to);
+    }
+
+    private static void appendPad(StringBuilder out, int count, String pad) {
+        if (pad.length() == 1) {
+            char c = pad.charAt(0);
+            for (int i = 0; i < count; i++) {
+                out.append(c);
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            out.append(pad.charAt(i % pad.length()));
+        }
+    }
+
+    private static void appendMobile(CharSequence s, int from, int to, StringBuilder out) {
+        if (isBlank(s, from, to) || to - from <= 8) {
+            out.append(s, from, to);
+            return;
+        }
+        appendMasked(s, from, to, 3, 4, out);
+    }
+
+    private static void appendTelephone(CharSequence s, int from, int to, StringBuilder out) {
+        if (isBlank(s, from, to)) {
+            out.append(s, from, to);
+            return;
+        }
+        int dash = indexOf(s, '-', from, to);
+        if (to - from > 8) {
+            if (dash >= 0) {
+                // 区号及号码最后4位
+                int next = indexOf(s, '-', dash + 1, to);
+                int numberEnd = next < 0 ? to : next;
+                out.append(s, from, dash).append("****").append(s, Math.max(dash + 1, numberEnd - 4), numberEnd);
+            } else {
+                out.append(s, from, from + 3).append("****").append(s, to - 4, to);
+            }
+        } else {
+            out.append("****").append(s, Math.max(from, to - 4), to);
+        }
+    }
+
+    private static void appendIdCard(CharSequence s, int from, int to, StringBuilder out) {
+        if (isBlank(s, from, to)) {
+            out.append(s, from, to);
+            return;
+        }
+        appendMasked(s, from, to, 3, 4, out);
+    }
+
+    private static void appendBankCard(CharSequence s, int from, int to, StringBuilder out) {
+        if (isBlank(s, from, to) || to - from < 10) {
+            out.append(s, from, to);
+            return;
+        }
+        appendMasked(s, from, to, 6, 4, out);
+    }
+
+    private static void appendEmail(CharSequence s, int from, int to, StringBuilder out) {
+        if (isBlank(s, from, to)) {
+            out.append(s, from, to);
+            return;
+        }
+        int at = indexOf(s, '@', from, to);
+        if (at < 0) {
+            appendMasked(s, from, to, 2, 1, out);
+            return;
+        }
+        appendMasked(s, from, at, 2, 1, out);
+        out.append(s, at, to);
+    }
+
+    private static void appendName(CharSequence s, int from, int to, StringBuilder out) {
+        switch (to - from) {
+            case 0:
+            case 1:
+                out.append(s, from, to);
+                break;
+            case 2:
+                out.append(PAD).append(s.charAt(from + 1));
+                break;
+            case 3:
+            case 4:
+                appendMasked(s, from, to, 1, 1, out);
+                break;
+            case 5:
+            case 6:
+                appendMasked(s, from, to, 2, 2, out);
+                break;
+            default:
+                appendMasked(s, from, to, 3, 3, out);
+        }
+    }
+
+    private static void appendAll(CharSequence s, int from, int to, StringBuilder out) {
+        if (isBlank(s, from, to)) {
+            out.append(s, from, to);
+            return;
+        }
+        out.append(ALL_MASK);
+    }
+
+    /**
+     * 处理由字母、数字及邮箱字符组成的片段
+     */
+    private static void maskToken(CharSequence s, int from, int to, StringBuilder out) {
+        int at = indexOf(s, '@', from, to);
+        if (at > from && maskEmailToken(s, from, at, to, out)) {
+            return;
+        }
+        int i = from;
+        while (i < to) {
+            char c = s.charAt(i);
+            // 只处理前面不紧跟字母数字的数字串
+            if (!isDigit(c) || (i > from && isAlphanumeric(s.charAt(i - 1)))) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            int end = digitsEnd(s, i, to);
+            int digits = end - i;
+            if (digits == 17 && end < to && (s.charAt(end) == 'X' || s.charAt(end) == 'x')) {
+                end++;
+            }
+            // 固定电话: 0开头的3-4位区号-7-8位号码
+            if ((digits == 3 || digits == 4) && s.charAt(i) == '0' && end + 1 < to && s.charAt(end) == '-') {
+                int numberEnd = digitsEnd(s, end + 1, to);
+                int numberLength = numberEnd - end - 1;
+                if ((numberLength == 7 || numberLength == 8) && (numberEnd == to || !isAlphanumeric(s.charAt(numberEnd)))) {
+                    appendTelephone(s, i, numberEnd, out);
+                    i = numberEnd;
+                    continue;
+                }
+            }
+            if (end < to && isAlphanumeric(s.charAt(end))) {
+                // 数字串后紧跟字母, 不是独立的号码
+                out.append(s, i, end);
+                i = end;
+                continue;
+            }
+            MaskType type = classifyNumber(s, i, end);
+            if (type == null) {
+                out.append(s, i, end);
+            } else {
+                RULES.get(type).apply(s, i, end, out);
+            }
+            i = end;
+        }
+    }
+
+    private static boolean maskEmailToken(CharSequence s, int from, int at, int to, StringBuilder out) {
+        int domainEnd = to;
+        // 去掉句末的标点
+        while (domainEnd > at + 1 && (s.charAt(domainEnd - 1) == '.' || s.charAt(domainEnd - 1) == '-')) {
+            domainEnd--;
+        }
+        boolean dot = false;
+        for (int i = at + 1; i < domainEnd; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                dot = true;
+            } else if (!isAlphanumeric(c) && c != '-') {
+                return false;
+            }
+        }
+        if (!dot || s.charAt(at + 1) == '.') {
+            return false;
+        }
+        appendMasked(s, from, at, 2, 1, out);
+        out.append(s, at, to);
+        return true;
+    }
+
+    /**
+     * 按长度及格式判断独立数字串的类型
+     */
+    private static MaskType classifyNumber(CharSequence s, int from, int to) {
+        int length = to - from;
+        if (length == 11 && s.charAt(from) == '1') {
+            return MaskType.MOBILE;
+        }
+        if (length == 15) {
+            return MaskType.ID_CARD;
+        }
+        if (length == 18 && isBirthDate(s, from + 6)) {
+            return MaskType.ID_CARD;
         }
+        if (length >= 16 && length <= 19 && isDigit(s.charAt(to - 1))) {
+            return MaskType.BANK_CARD;
+        }
+        return null;
+    }
+
+    /**
+     * 身份证号第7-14位的出生日期yyyyMMdd
+     */
+    private static boolean isBirthDate(CharSequence s, int from) {
+        int year = digit(s, from) * 1000 + digit(s, from + 1) * 100 + digit(s, from + 2) * 10 + digit(s, from + 3);
+        int month = digit(s, from + 4) * 10 + digit(s, from + 5);
+        int day = digit(s, from + 6) * 10 + digit(s, from + 7);
+        return year >= 1800 && year <= 2099 && month >= 1 && month <= 12 && day >= 1 && day <= 31;
+    }
 
-        String startStr = word.substring(0, startLength);
+    private static int digit(CharSequence s, int index) {
+        return s.charAt(index) - '0';
+    }
 
-        String endStr = word.substring(word.length() - endLength, word.length());
+    private static int digitsEnd(CharSequence s, int from, int to) {
+        int end = from;
+        while (end < to && isDigit(s.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
 
-        return startStr + StringUtils.leftPad("", word.length() - startLength - endLength, pad) + endStr;
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isTokenChar(char c) {
+        return isAlphanumeric(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-' || c == '@';
+    }
+
+    @FunctionalInterface
+    private interface Rule {
+        void apply(CharSequence s, int from, int to, StringBuilder out);
+    }
+
+    /**
+     * 按片段缓冲的掩码输出流, 非线程安全
+     */
+    private static final class MaskingWriter extends Writer {
+        private final Writer out;
+        private final StringBuilder token = new StringBuilder(64);
+        private final StringBuilder buffer = new StringBuilder(256);
+
+        MaskingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                char c = cbuf[i];
+                if (isTokenChar(c)) {
+                    token.append(c);
+                    if (token.length() >= MAX_TOKEN_LENGTH) {
+                        drainToken();
+                    }
+                } else {
+                    drainToken();
+                    buffer.append(c);
+                }
+                if (buffer.length() >= 4096) {
+                    flushBuffer();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drainToken();
+            flushBuffer();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            out.close();
+        }
+
+        private void drainToken() {
+            if (token.length() > 0) {
+                maskToken(token, 0, token.length(), buffer);
+                token.setLength(0);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            if (buffer.length() > 0) {
+                out.append(buffer);
+                buffer.setLength(0);
+            }
+        }
     }
 
     public static void main(String[] args) {
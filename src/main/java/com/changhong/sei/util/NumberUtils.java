@@ -1,5 +1,6 @@
 package com.changhong.sei.util;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 
 /**
@@ -71,4 +72,158 @@ public class NumberUtils {
         return b1.add(b2);
     }
 
+    /**
+     * 10的0-18次幂
+     */
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+            100000000L, 1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+            100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L};
+
+    /**
+     * 将十进制字符串解析为定点数(unscaledValue), 不创建对象
+     * <p>
+     * 支持前后空白、正负号和整数部分的千分位逗号(如"-1,234.565", 首组1-3位, 其后每组3位); 超出scale的小数位按银行家舍入(ROUND_HALF_EVEN),
+     * 与new BigDecimal(text).setScale(scale, ROUND_HALF_EVEN).unscaledValue()一致
+     * @param text 字符串
+     * @param start 起始位置(含)
+     * @param end 结束位置(不含)
+     * @param scale 小数位数(0-18)
+     * @return 定点数
+     * @throws NumberFormatException 格式错误或超出long范围
+     */
+    public static long parseScaledLong(CharSequence text, int start, int end, int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("The scale must be between 0 and " + (POWERS_OF_TEN.length - 1));
+        }
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        // 按负数累加, 使Long.MIN_VALUE也能解析
+        long value = 0;
+        int digits = 0;
+        int fraction = -1;
+        // 当前千分位分组的整数位数, 未出现逗号时为-1
+        int groupDigits = -1;
+        int integerDigits = 0;
+        // 超出scale的第一位小数, 及其后是否还有非0数字
+        int roundDigit = -1;
+        boolean sticky = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                digits++;
+                if (fraction < 0) {
+                    integerDigits++;
+                    if (groupDigits >= 0 && ++groupDigits > 3) {
+                        throw numberFormatException(text, start, end);
+                    }
+                }
+                if (fraction < scale) {
+                    if (value < (Long.MIN_VALUE + digit) / 10) {
+                        throw numberFormatException(text, start, end);
+                    }
+                    value = value * 10 - digit;
+                    if (fraction >= 0) {
+                        fraction++;
+                    }
+                } else if (roundDigit < 0) {
+                    roundDigit = digit;
+                } else if (c != '0') {
+                    sticky = true;
+                }
+            } else if (c == '.' && fraction < 0) {
+                if (groupDigits >= 0 && groupDigits != 3) {
+                    throw numberFormatException(text, start, end);
+                }
+                fraction = 0;
+            } else if (c == ',' && fraction < 0 && (groupDigits < 0 ? integerDigits >= 1 && integerDigits <= 3 : groupDigits == 3)) {
+                // 千分位: 首组1-3位, 其后每组3位
+                groupDigits = 0;
+            } else {
+                throw numberFormatException(text, start, end);
+            }
+        }
+        if (digits == 0 || (fraction < 0 && groupDigits >= 0 && groupDigits != 3)) {
+            throw numberFormatException(text, start, end);
+        }
+        int missing = scale - Math.max(fraction, 0);
+        if (missing > 0) {
+            if (value < Long.MIN_VALUE / POWERS_OF_TEN[missing]) {
+                throw numberFormatException(text, start, end);
+            }
+            value *= POWERS_OF_TEN[missing];
+        }
+        if (roundDigit > 5 || (roundDigit == 5 && (sticky || (value & 1) == 1))) {
+            if (value == Long.MIN_VALUE) {
+                throw numberFormatException(text, start, end);
+            }
+            value--;
+        }
+        if (negative) {
+            return value;
+        }
+        if (value == Long.MIN_VALUE) {
+            throw numberFormatException(text, start, end);
+        }
+        return -value;
+    }
+
+    /**
+     * 将定点数按固定小数位数输出(如12345, 2 -&gt; "123.45"; -5, 2 -&gt; "-0.05"), 不创建对象
+     * @param value 定点数
+     * @param scale 小数位数(0-18)
+     * @param out 输出
+     * @throws IOException 输出失败
+     */
+    public static void appendScaledLong(long value, int scale, Appendable out) throws IOException {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("The scale must be between 0 and " + (POWERS_OF_TEN.length - 1));
+        }
+        // 按负数计算, 避免Long.MIN_VALUE取反溢出
+        long negative = value < 0 ? value : -value;
+        if (value < 0) {
+            out.append('-');
+        }
+        // 位数, long最多19位
+        int length = 1;
+        while (length < POWERS_OF_TEN.length && negative <= -POWERS_OF_TEN[length]) {
+            length++;
+        }
+        length = Math.max(length, scale + 1);
+        for (int i = length - 1; i >= 0; i--) {
+            if (i == scale - 1) {
+                out.append('.');
+            }
+            out.append((char) ('0' - negative / POWERS_OF_TEN[i] % 10));
+        }
+    }
+
+    /**
+     * 将定点数按固定小数位数输出
+     * @see #appendScaledLong(long, int, Appendable)
+     */
+    public static StringBuilder appendScaledLong(long value, int scale, StringBuilder out) {
+        try {
+            appendScaledLong(value, scale, (Appendable) out);
+        } catch (IOException e) {
+            // StringBuilder不会抛出IOException
+            throw new IllegalStateException(e);
+        }
+        return out;
+    }
+
+    private static NumberFormatException numberFormatException(CharSequence text, int start, int end) {
+        return new NumberFormatException("For input string: \"" + text.subSequence(start, end) + "\"");
+    }
+
 }
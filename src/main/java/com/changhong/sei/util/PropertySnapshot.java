@@ -0,0 +1,179 @@
+package com.changhong.sei.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * <strong>实现功能:</strong>.
+ * <p>不可变的属性快照</p>
+ * 创建时即解析出各属性的int/long/boolean值, 读取时不再解析字符串; 读取时值为空白的属性视为不存在.
+ * 快照一经创建不再改变, 可在任意线程中无锁读取.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class PropertySnapshot {
+    public static final PropertySnapshot EMPTY = new PropertySnapshot(Collections.emptyMap());
+
+    private final Map<String, Value> values;
+    private final Map<String, String> strings;
+
+    PropertySnapshot(Map<String, String> properties) {
+        Map<String, Value> values = new HashMap<>(Math.max(16, properties.size() * 2));
+        Map<String, String> strings = new HashMap<>(Math.max(16, properties.size() * 2));
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            strings.put(entry.getKey(), value);
+            if (!value.trim().isEmpty()) {
+                values.put(entry.getKey(), new Value(value));
+            }
+        }
+        this.values = values;
+        this.strings = Collections.unmodifiableMap(strings);
+    }
+
+    /**
+     * 由{@link Properties}创建快照
+     */
+    public static PropertySnapshot of(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            map.put(name, properties.getProperty(name));
+        }
+        return new PropertySnapshot(map);
+    }
+
+    public String getProperty(String key) {
+        Value value = values.get(key);
+        return value == null ? null : value.string;
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        Value value = values.get(key);
+        return value == null ? defaultValue : value.string;
+    }
+
+    public String getRequiredProperty(String key) {
+        return required(key).string;
+    }
+
+    public Integer getInt(String key) {
+        Value value = values.get(key);
+        return value == null ? null : value.intValue();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Value value = values.get(key);
+        return value == null ? defaultValue : value.intValue();
+    }
+
+    public int getRequiredInt(String key) {
+        return required(key).intValue();
+    }
+
+    public Long getLong(String key) {
+        Value value = values.get(key);
+        return value == null ? null : value.longValue();
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Value value = values.get(key);
+        return value == null ? defaultValue : value.longValue();
+    }
+
+    public Boolean getBoolean(String key) {
+        Value value = values.get(key);
+        return value == null ? null : value.booleanValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Value value = values.get(key);
+        return value == null ? defaultValue : value.booleanValue;
+    }
+
+    public boolean getRequiredBoolean(String key) {
+        return required(key).booleanValue;
+    }
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public Set<String> keySet() {
+        return strings.keySet();
+    }
+
+    /**
+     * @return 只读的属性集合
+     */
+    public Map<String, String> asMap() {
+        return strings;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    public boolean isEmpty() {
+        return strings.isEmpty();
+    }
+
+    /**
+     * @return 新的{@link Properties}副本
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.putAll(strings);
+        return properties;
+    }
+
+    private Value required(String key) {
+        Value value = values.get(key);
+        if (value == null) {
+            throw new IllegalStateException("required property is blank by key=" + key);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySnapshot" + strings;
+    }
+
+    /**
+     * 预先解析的属性值; 无法解析为数字时在读取时按原先的方式抛出{@link NumberFormatException}
+     */
+    private static final class Value {
+        final String string;
+        final boolean booleanValue;
+        final Long longValue;
+        final Integer intValue;
+
+        Value(String string) {
+            this.string = string;
+            this.booleanValue = Boolean.parseBoolean(string);
+            Long parsed;
+            try {
+                parsed = Long.parseLong(string);
+            } catch (NumberFormatException e) {
+                parsed = null;
+            }
+            this.longValue = parsed;
+            this.intValue = parsed != null && parsed == parsed.intValue() ? parsed.intValue() : null;
+        }
+
+        int intValue() {
+            return intValue != null ? intValue : Integer.parseInt(string);
+        }
+
+        long longValue() {
+            return longValue != null ? longValue : Long.parseLong(string);
+        }
+    }
+}
@@ -1,25 +1,49 @@
 package com.changhong.sei.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <strong>实现功能:</strong>.
  * <p>属性文件操作工具类</p>
+ * 属性保存在不可变的{@link PropertySnapshot}中, 读取时通过volatile引用无锁访问, 数值在装载时已解析;
+ * 装载、修改属性时生成新的快照整体替换. 调用{@link #watch(Path...)}后, 被监听的文件变化时自动重新装载全部来源,
+ * 并通知{@link ReloadListener}, 无需重启.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.1 2017/03/06 21:33
  */
 public class PropertyUtils {
+    private static final Logger LOG = LoggerFactory.getLogger(PropertyUtils.class);
+    /**
+     * 文件变化后等待的时间, 合并编辑器保存文件时产生的多个事件
+     */
+    private static final long WATCH_DEBOUNCE_MILLIS = 200;
+
     private static PropertyUtils instance = new PropertyUtils();
-    private boolean isSearchSystemProperty = false;
-    private Properties properties;
+    private volatile boolean isSearchSystemProperty = false;
+    private volatile PropertySnapshot snapshot = PropertySnapshot.EMPTY;
+    /**
+     * 装载来源: 类路径资源名与文件, 按装载顺序, 后装载的覆盖先装载的
+     */
+    private final List<Object> sources = new ArrayList<>();
+    /**
+     * 通过setProperty设置的属性, 重新装载后仍然生效
+     */
+    private final Map<String, String> overrides = new LinkedHashMap<>();
+    private final List<ReloadListener> listeners = new CopyOnWriteArrayList<>();
+    private WatchService watchService;
 
     private PropertyUtils() {
-        properties = new Properties();
     }
 
     public static PropertyUtils getInstance() {
@@ -30,127 +54,307 @@ public class PropertyUtils {
         if (resourceNames == null || resourceNames.length == 0) {
             resourceNames = new String[]{"config.xml", "config.properties"};
         }
+        synchronized (this) {
+            Properties properties = snapshot.toProperties();
+            try {
+                for (String resourceName : resourceNames) {
+                    loadResource(resourceName, properties);
+                }
+            } catch (IOException ioe) {
+                LOG.warn("Properties file loading failed: " + Arrays.toString(resourceNames), ioe);
+            }
+            sources.addAll(Arrays.asList(resourceNames));
+            properties.putAll(overrides);
+            swap(PropertySnapshot.of(properties));
+        }
+    }
+
+    /**
+     * 装载属性文件(.xml按XML格式, 其余按properties格式)
+     *
+     * @param files 属性文件
+     * @throws IOException 读取失败时抛出, 此时当前属性不变
+     */
+    public void loadAllPropertiesFromFiles(Path... files) throws IOException {
+        synchronized (this) {
+            Properties properties = snapshot.toProperties();
+            for (Path file : files) {
+                loadFile(file, properties);
+            }
+            for (Path file : files) {
+                sources.add(file.toAbsolutePath().normalize());
+            }
+            properties.putAll(overrides);
+            swap(PropertySnapshot.of(properties));
+        }
+    }
+
+    /**
+     * 按装载顺序重新读取全部来源并整体替换当前快照; 读取失败时保留当前快照
+     *
+     * @throws IOException 读取失败
+     */
+    public void reload() throws IOException {
+        synchronized (this) {
+            Properties properties = new Properties();
+            for (Object source : sources) {
+                if (source instanceof Path) {
+                    loadFile((Path) source, properties);
+                } else {
+                    loadResource((String) source, properties);
+                }
+            }
+            properties.putAll(overrides);
+            swap(PropertySnapshot.of(properties));
+        }
+    }
+
+    /**
+     * 监听属性文件, 文件变化时在后台线程中{@link #reload()}; 未装载过的文件会先装载
+     *
+     * @param files 属性文件
+     * @throws IOException 注册监听失败
+     */
+    public void watch(Path... files) throws IOException {
+        synchronized (this) {
+            List<Path> newFiles = new ArrayList<>();
+            for (Path file : files) {
+                Path path = file.toAbsolutePath().normalize();
+                if (!sources.contains(path)) {
+                    newFiles.add(path);
+                }
+            }
+            if (!newFiles.isEmpty()) {
+                loadAllPropertiesFromFiles(newFiles.toArray(new Path[0]));
+            }
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                Thread watchThread = new Thread(this::watchLoop, "sei-property-watcher");
+                watchThread.setDaemon(true);
+                watchThread.start();
+            }
+            for (Path file : files) {
+                file.toAbsolutePath().normalize().getParent().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    /**
+     * 停止监听属性文件
+     */
+    public void stopWatching() {
+        synchronized (this) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    LOG.warn("close property watcher failed.", e);
+                }
+                watchService = null;
+            }
+        }
+    }
+
+    public void addReloadListener(ReloadListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeReloadListener(ReloadListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 获取当前快照; 热点代码可持有快照连续读取多个属性, 得到一致的结果
+     *
+     * @return 当前快照
+     */
+    public PropertySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
         try {
-            for (String resourceName : resourceNames) {
-                Enumeration urls = PropertyUtils.class.getClassLoader().getResources(resourceName);
-                while (urls.hasMoreElements()) {
-                    URL url = (URL) urls.nextElement();
-                    InputStream input = null;
-                    try {
-                        URLConnection con = url.openConnection();
-                        con.setUseCaches(false);
-                        input = con.getInputStream();
-                        if (resourceName.endsWith(".xml")) {
-                            properties.loadFromXML(input);
-                        } else {
-                            properties.load(input);
-                        }
-                    } finally {
-                        if (input != null) {
-                            input.close();
-                        }
-                    }
+            while (true) {
+                WatchKey key = service.take();
+                Path dir = (Path) key.watchable();
+                boolean changed = isSourceChanged(dir, key);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                // 合并短时间内的后续事件
+                while ((key = service.poll(WATCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                try {
+                    reload();
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("reload properties failed, keep the previous snapshot.", e);
                 }
             }
-        } catch (IOException ioe) {
-            if (properties == null)
-                throw new RuntimeException("Properties file loading failed: " + Arrays.toString(resourceNames));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 已停止监听
+        }
+    }
+
+    private boolean isSourceChanged(Path dir, WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else {
+                Path file = dir.resolve((Path) event.context());
+                synchronized (this) {
+                    changed |= sources.contains(file);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 在同步块内调用
+     */
+    private void swap(PropertySnapshot current) {
+        PropertySnapshot previous = snapshot;
+        snapshot = current;
+        for (ReloadListener listener : listeners) {
+            try {
+                listener.onReload(previous, current);
+            } catch (RuntimeException e) {
+                LOG.warn("property reload listener failed: " + listener, e);
+            }
+        }
+    }
+
+    private static void loadResource(String resourceName, Properties properties) throws IOException {
+        Enumeration<URL> urls = PropertyUtils.class.getClassLoader().getResources(resourceName);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            URLConnection con = url.openConnection();
+            con.setUseCaches(false);
+            try (InputStream input = con.getInputStream()) {
+                load(resourceName, input, properties);
+            }
+        }
+    }
+
+    private static void loadFile(Path file, Properties properties) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            load(file.getFileName().toString(), input, properties);
+        }
+    }
+
+    private static void load(String name, InputStream input, Properties properties) throws IOException {
+        if (name.endsWith(".xml")) {
+            properties.loadFromXML(input);
+        } else {
+            properties.load(input);
         }
     }
 
     private String _getProperty(String key, String defaultValue) {
-        String value = null;
         if (isSearchSystemProperty) {
-            value = System.getProperty(key);
-        }
-        if (value == null || "".equals(value.trim())) {
-            value = properties.getProperty(key);
+            String value = System.getProperty(key);
+            if (value != null && !"".equals(value.trim())) {
+                return value;
+            }
         }
-        return value == null || "".equals(value.trim()) ? defaultValue : value;
+        return snapshot.getProperty(key, defaultValue);
     }
 
     private String _getProperty(String key) {
-        checkPropertyLoading();
-        return getProperty(key, null);
+        return _getProperty(key, null);
     }
 
     private String _getRequiredProperty(String key) {
-        String value = getProperty(key);
-        if (value == null || "".equals(value.trim())) {
+        String value = _getProperty(key);
+        if (value == null) {
             throw new IllegalStateException("required property is blank by key=" + key);
         }
         return value;
     }
 
-    private Integer _getInt(String key) {
-        if (getProperty(key) == null) {
+    /**
+     * 系统属性优先时, 系统属性存在则需要解析; 否则使用快照中已解析的值
+     */
+    private String systemProperty(String key) {
+        if (!isSearchSystemProperty) {
             return null;
         }
-        return Integer.parseInt(getRequiredProperty(key));
+        String value = System.getProperty(key);
+        return value == null || "".equals(value.trim()) ? null : value;
+    }
+
+    private Integer _getInt(String key) {
+        String value = systemProperty(key);
+        return value != null ? Integer.valueOf(value) : snapshot.getInt(key);
     }
 
     private int _getInt(String key, int defaultValue) {
-        if (getProperty(key) == null) {
-            return defaultValue;
-        }
-        return Integer.parseInt(getRequiredProperty(key));
+        String value = systemProperty(key);
+        return value != null ? Integer.parseInt(value) : snapshot.getInt(key, defaultValue);
     }
 
     private int _getRequiredInt(String key) {
-        return Integer.parseInt(getRequiredProperty(key));
+        String value = systemProperty(key);
+        return value != null ? Integer.parseInt(value) : snapshot.getRequiredInt(key);
+    }
+
+    private long _getLong(String key, long defaultValue) {
+        String value = systemProperty(key);
+        return value != null ? Long.parseLong(value) : snapshot.getLong(key, defaultValue);
     }
 
     private Boolean _getBoolean(String key) {
-        if (getProperty(key) == null) {
-            return null;
-        }
-        return Boolean.parseBoolean(getRequiredProperty(key));
+        String value = systemProperty(key);
+        return value != null ? Boolean.valueOf(value) : snapshot.getBoolean(key);
     }
 
     private boolean _getBoolean(String key, boolean defaultValue) {
-        if (getProperty(key) == null) {
-            return defaultValue;
-        }
-        return Boolean.parseBoolean(getRequiredProperty(key));
+        String value = systemProperty(key);
+        return value != null ? Boolean.parseBoolean(value) : snapshot.getBoolean(key, defaultValue);
     }
 
     private boolean _getRequiredBoolean(String key) {
-        return Boolean.parseBoolean(getRequiredProperty(key));
+        String value = systemProperty(key);
+        return value != null ? Boolean.parseBoolean(value) : snapshot.getRequiredBoolean(key);
     }
 
-    private Properties _setProperty(String key, String value) {
-        checkPropertyLoading();
+    private synchronized Properties _setProperty(String key, String value) {
+        Properties properties = snapshot.toProperties();
         properties.setProperty(key, value);
+        overrides.put(key, value);
+        swap(PropertySnapshot.of(properties));
         return properties;
     }
 
-    private void _clear() {
-        checkPropertyLoading();
-        properties.clear();
+    private synchronized void _clear() {
+        sources.clear();
+        overrides.clear();
+        swap(PropertySnapshot.EMPTY);
     }
 
     private Set<Map.Entry<Object, Object>> _entrySet() {
-        checkPropertyLoading();
-        return properties.entrySet();
+        return snapshot.toProperties().entrySet();
     }
 
     private Enumeration<?> _propertyNames() {
-        checkPropertyLoading();
-        return properties.propertyNames();
-    }
-
-    private void checkPropertyLoading() {
-        if (properties == null)
-            throw new RuntimeException("Before use, you must load the properties file by calling loadAllPropertiesFromClassLoader (string) method.");
+        return snapshot.toProperties().propertyNames();
     }
 
     /**
-     * properties不为null表示已装载
+     * 是否已装载属性
      *
      * @return 返回true表示已装载，反之未装载。
      */
     public boolean isLoadProperty() {
-        return properties != null && properties.size() > 0;
+        return !snapshot.isEmpty();
     }
 
     public boolean isSearchSystemProperty() {
@@ -161,6 +365,18 @@ public class PropertyUtils {
         isSearchSystemProperty = searchSystemProperty;
     }
 
+    /**
+     * 属性重新装载的监听器, 在替换快照的线程中调用
+     */
+    @FunctionalInterface
+    public interface ReloadListener {
+        /**
+         * @param previous 替换前的快照
+         * @param current  当前快照
+         */
+        void onReload(PropertySnapshot previous, PropertySnapshot current);
+    }
+
     //**********************************************************************************
 
     public static String getProperty(String key, String defaultValue) {
@@ -187,6 +403,10 @@ public class PropertyUtils {
         return PropertyUtils.getInstance()._getRequiredInt(key);
     }
 
+    public static long getLong(String key, long defaultValue) {
+        return PropertyUtils.getInstance()._getLong(key, defaultValue);
+    }
+
     public static Boolean getBoolean(String key) {
         return PropertyUtils.getInstance()._getBoolean(key);
     }
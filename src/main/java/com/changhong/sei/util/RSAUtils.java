@@ -12,6 +12,7 @@ import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.RSAPrivateKeySpec;
 import java.security.spec.RSAPublicKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
@@ -196,11 +197,16 @@ public class RSAUtils {
         int keyLen = key.getModulus().bitLength() / 8;
         byte[] bytes = data.getBytes();
         byte[] bcd = ascii2Bcd(bytes, bytes.length);
-        //如果密文长度大于模长则要分组解密
+        //如果密文长度大于模长则要分组解密, 各分组直接引用原数组, 不复制
         StringBuilder ming = new StringBuilder();
-        byte[][] arrays = splitArray(bcd, keyLen);
-        for (byte[] arr : arrays) {
-            ming.append(new String(cipher.doFinal(arr)));
+        for (ByteSlice block : ByteSlice.wrap(bcd).split(keyLen)) {
+            if (block.length() < keyLen) {
+                // 不足模长的分组按原方式补0
+                byte[] arr = Arrays.copyOf(block.toByteArray(), keyLen);
+                ming.append(new String(cipher.doFinal(arr)));
+            } else {
+                ming.append(new String(cipher.doFinal(block.array(), block.offset(), block.length())));
+            }
         }
         return ming.toString();
     }
@@ -271,30 +277,6 @@ public class RSAUtils {
         return strings;
     }
 
-    /**
-     * 拆分数组
-     */
-    private static byte[][] splitArray(byte[] data, int len) {
-        int x = data.length / len;
-        int y = data.length % len;
-        int z = 0;
-        if (y != 0) {
-            z = 1;
-        }
-        byte[][] arrays = new byte[x + z][];
-        byte[] arr;
-        for (int i = 0; i < x + z; i++) {
-            arr = new byte[len];
-            if (i == x + z - 1 && y != 0) {
-                System.arraycopy(data, i * len, arr, 0, y);
-            } else {
-                System.arraycopy(data, i * len, arr, 0, len);
-            }
-            arrays[i] = arr;
-        }
-        return arrays;
-    }
-
     /**
      * 将PublicKey实例转成base64编码后的公钥字符串
      *
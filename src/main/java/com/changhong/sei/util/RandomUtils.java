@@ -1,55 +1,50 @@
 package com.changhong.sei.util;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 /**
  * 实现功能：随机数(串)工具类
+ * <p>
+ * 静态方法基于{@link ThreadLocalRandom}, 线程间无竞争; 需要可重现的数据时使用{@link #seeded(long)}
+ * 创建基于{@link SplittableRandom}的生成器, 相同种子生成相同序列, 并行批量生成的结果也与线程调度无关.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2020-01-07 13:30
  */
 public final class RandomUtils {
 
+    private static final char[] CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    /**
+     * 并行批量生成时每块的元素数, 块的划分与并行度无关以保证结果可重现
+     */
+    private static final int PARALLEL_BLOCK_SIZE = 4096;
+    private static final Generator THREAD_LOCAL = new Generator(null);
+
+    /**
+     * @throws IllegalArgumentException minValue大于maxValue
+     */
     public static long getInteger(long minValue, long maxValue) {
-        return (long) (Math.random() * (maxValue - minValue + 1)) + minValue;
+        return THREAD_LOCAL.getInteger(minValue, maxValue);
     }
 
     public static String getDouble(int exponent, int precision) {
-        StringBuilder sb = new StringBuilder();
-        sb.append((Math.random() < 0.5 ? "+" : "-"));
-        sb.append((int) (Math.random() * 10)).append(".");
-        precision = (int) (Math.random() * precision);
-        for (int i = 0; i < precision; i++) {
-            sb.append((int) (Math.random() * 10));
-        }
-        sb.append("e").append(Math.random() < 0.5 ? "+" : "-").append((int) (Math.random() * (exponent + 1)));
-        return sb.toString();
+        return THREAD_LOCAL.getDouble(exponent, precision);
     }
 
     // a.b; .b; a.
     public static String getDecimal(int p, int s) {
-        StringBuilder sb = new StringBuilder(Math.random() < 0.5 ? "+" : "-");
-        while (true) {
-            int size1 = (int) (Math.random() * (p - s + 1));
-            int size2 = (int) (Math.random() * (s + 1));
-            for (int i = 0; i < size1; i++) {
-                sb.append((int) (Math.random() * 10));
-            }
-            sb.append(".");
-            for (int i = 0; i < size2; i++) {
-                sb.append((int) (Math.random() * 10));
-            }
-            if (!sb.toString().matches("[+-.]+")) {
-                break;
-            }
-            sb.delete(0, sb.length());
-            sb.append(Math.random() < 0.5 ? "+" : "-");
-        }
-        return sb.toString();
+        return THREAD_LOCAL.getDecimal(p, s);
     }
 
+    /**
+     * @throws IllegalArgumentException 开始时间晚于结束时间
+     */
     public static long getDate(long beginDateMillisecond, long endDateMillisecond) {
-        return (long) (Math.random() * (endDateMillisecond - beginDateMillisecond + 1) + beginDateMillisecond);
+        return THREAD_LOCAL.getDate(beginDateMillisecond, endDateMillisecond);
     }
 
     /**
@@ -66,26 +61,282 @@ public final class RandomUtils {
         return new Date(getDate(beginDate.getTime(), endDate.getTime()));
     }
 
-    private static char[] chars = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
-
     public static String getString(int length) {
-        int randomLength = (int) (Math.random() * (length + 1));
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < randomLength; i++) {
-            sb.append(chars[(int) (Math.random() * 62)]);
-        }
-        return sb.toString();
+        return THREAD_LOCAL.getString(length);
     }
 
     public static char getChar() {
-        return chars[(int) (Math.random() * 62)];
+        return THREAD_LOCAL.getChar();
     }
 
     public static boolean getBoolean() {
-        return Math.random() < 0.5;
+        return THREAD_LOCAL.getBoolean();
     }
 
     public static double getNumeric(double minValue, double maxValue) {
-        return Math.random() * (maxValue - minValue + 1) + minValue;
+        return THREAD_LOCAL.getNumeric(minValue, maxValue);
+    }
+
+    /**
+     * 以随机long填充数组
+     */
+    public static long[] fill(long[] array) {
+        return THREAD_LOCAL.fill(array);
+    }
+
+    /**
+     * 以[minValue, maxValue]范围内的随机数填充数组
+     */
+    public static long[] fill(long[] array, long minValue, long maxValue) {
+        return THREAD_LOCAL.fill(array, minValue, maxValue);
+    }
+
+    /**
+     * 以[0, 1)范围内的随机数填充数组
+     */
+    public static double[] fill(double[] array) {
+        return THREAD_LOCAL.fill(array);
+    }
+
+    /**
+     * 批量生成随机字符串
+     *
+     * @param n      个数
+     * @param length 每个字符串的长度(固定)
+     * @return 随机字符串
+     */
+    public static String[] randomStrings(int n, int length) {
+        return THREAD_LOCAL.randomStrings(n, length);
+    }
+
+    /**
+     * 创建可重现的随机数生成器
+     *
+     * @param seed 种子
+     * @return 随机数生成器(非线程安全, 并行使用时请{@link Generator#split()})
+     */
+    public static Generator seeded(long seed) {
+        return new Generator(new SplittableRandom(seed));
+    }
+
+    /**
+     * 随机数生成器
+     * <p>
+     * 由{@link #seeded(long)}创建的实例基于{@link SplittableRandom}, 非线程安全, 可{@link #split()}出独立的实例交给其他线程;
+     * 其parallel*方法按固定大小分块, 各块依次拆分出独立的生成器后并行填充, 结果与单线程执行一致且可重现.
+     */
+    public static final class Generator {
+        /**
+         * 为null时使用{@link ThreadLocalRandom}
+         */
+        private final SplittableRandom random;
+
+        private Generator(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /**
+         * 拆分出一个独立的生成器, 可交给其他线程使用
+         */
+        public Generator split() {
+            return new Generator(random == null ? new SplittableRandom(ThreadLocalRandom.current().nextLong()) : random.split());
+        }
+
+        /**
+         * @return [minValue, maxValue]范围内的随机数
+         * @throws IllegalArgumentException minValue大于maxValue
+         */
+        public long getInteger(long minValue, long maxValue) {
+            if (minValue > maxValue) {
+                throw new IllegalArgumentException("minValue(" + minValue + ") is greater than maxValue(" + maxValue + ").");
+            }
+            long bound = maxValue - minValue + 1;
+            if (bound > 0) {
+                return minValue + nextLong(bound);
+            }
+            // 区间跨度超出long范围, 每次命中的概率不低于1/2
+            long r;
+            do {
+                r = nextLong();
+            } while (r < minValue || r > maxValue);
+            return r;
+        }
+
+        public String getDouble(int exponent, int precision) {
+            int digits = nextInt(precision);
+            StringBuilder sb = new StringBuilder(digits + 16);
+            sb.append(nextBoolean() ? '+' : '-');
+            sb.append((char) ('0' + nextInt(10))).append('.');
+            for (int i = 0; i < digits; i++) {
+                sb.append((char) ('0' + nextInt(10)));
+            }
+            sb.append('e').append(nextBoolean() ? '+' : '-').append(nextInt(exponent + 1));
+            return sb.toString();
+        }
+
+        // a.b; .b; a.
+        public String getDecimal(int p, int s) {
+            if (p <= 0 && s <= 0) {
+                throw new IllegalArgumentException("p和s不能同时为0");
+            }
+            char sign = nextBoolean() ? '+' : '-';
+            int size1;
+            int size2;
+            // 整数部分和小数部分不能同时为空
+            do {
+                size1 = nextInt(p - s + 1);
+                size2 = nextInt(s + 1);
+            } while (size1 + size2 == 0);
+            char[] chars = new char[size1 + size2 + 2];
+            chars[0] = sign;
+            for (int i = 1; i <= size1; i++) {
+                chars[i] = (char) ('0' + nextInt(10));
+            }
+            chars[size1 + 1] = '.';
+            for (int i = size1 + 2; i < chars.length; i++) {
+                chars[i] = (char) ('0' + nextInt(10));
+            }
+            return new String(chars);
+        }
+
+        public long getDate(long beginDateMillisecond, long endDateMillisecond) {
+            return getInteger(beginDateMillisecond, endDateMillisecond);
+        }
+
+        /**
+         * @return 长度为[0, length]的随机字符串
+         */
+        public String getString(int length) {
+            return fixedString(nextInt(length + 1));
+        }
+
+        public char getChar() {
+            return CHARS[nextInt(CHARS.length)];
+        }
+
+        public boolean getBoolean() {
+            return nextBoolean();
+        }
+
+        public double getNumeric(double minValue, double maxValue) {
+            return nextDouble() * (maxValue - minValue + 1) + minValue;
+        }
+
+        /**
+         * 以随机long填充数组
+         */
+        public long[] fill(long[] array) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = nextLong();
+            }
+            return array;
+        }
+
+        /**
+         * 以[minValue, maxValue]范围内的随机数填充数组
+         */
+        public long[] fill(long[] array, long minValue, long maxValue) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = getInteger(minValue, maxValue);
+            }
+            return array;
+        }
+
+        /**
+         * 以[0, 1)范围内的随机数填充数组
+         */
+        public double[] fill(double[] array) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = nextDouble();
+            }
+            return array;
+        }
+
+        /**
+         * 批量生成随机字符串
+         *
+         * @param n      个数
+         * @param length 每个字符串的长度(固定)
+         * @return 随机字符串
+         */
+        public String[] randomStrings(int n, int length) {
+            String[] strings = new String[n];
+            for (int i = 0; i < n; i++) {
+                strings[i] = fixedString(length);
+            }
+            return strings;
+        }
+
+        /**
+         * 并行以随机long填充数组
+         */
+        public long[] parallelFill(long[] array) {
+            Generator[] blocks = splitBlocks(array.length);
+            IntStream.range(0, blocks.length).parallel().forEach(block -> {
+                Generator generator = blocks[block];
+                int to = Math.min(array.length, (block + 1) * PARALLEL_BLOCK_SIZE);
+                for (int i = block * PARALLEL_BLOCK_SIZE; i < to; i++) {
+                    array[i] = generator.nextLong();
+                }
+            });
+            return array;
+        }
+
+        /**
+         * 并行批量生成随机字符串
+         *
+         * @param n      个数
+         * @param length 每个字符串的长度(固定)
+         * @return 随机字符串
+         */
+        public String[] parallelRandomStrings(int n, int length) {
+            String[] strings = new String[n];
+            Generator[] blocks = splitBlocks(n);
+            IntStream.range(0, blocks.length).parallel().forEach(block -> {
+                Generator generator = blocks[block];
+                int to = Math.min(n, (block + 1) * PARALLEL_BLOCK_SIZE);
+                for (int i = block * PARALLEL_BLOCK_SIZE; i < to; i++) {
+                    strings[i] = generator.fixedString(length);
+                }
+            });
+            return strings;
+        }
+
+        private Generator[] splitBlocks(int size) {
+            Generator[] blocks = new Generator[(size + PARALLEL_BLOCK_SIZE - 1) / PARALLEL_BLOCK_SIZE];
+            Arrays.setAll(blocks, i -> split());
+            return blocks;
+        }
+
+        private String fixedString(int length) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = CHARS[nextInt(CHARS.length)];
+            }
+            return new String(chars);
+        }
+
+        private int nextInt(int bound) {
+            if (bound <= 0) {
+                return 0;
+            }
+            return random == null ? ThreadLocalRandom.current().nextInt(bound) : random.nextInt(bound);
+        }
+
+        private long nextLong(long bound) {
+            return random == null ? ThreadLocalRandom.current().nextLong(bound) : random.nextLong(bound);
+        }
+
+        private long nextLong() {
+            return random == null ? ThreadLocalRandom.current().nextLong() : random.nextLong();
+        }
+
+        private double nextDouble() {
+            return random == null ? ThreadLocalRandom.current().nextDouble() : random.nextDouble();
+        }
+
+        private boolean nextBoolean() {
+            return random == null ? ThreadLocalRandom.current().nextBoolean() : random.nextBoolean();
+        }
     }
 }
@@ -21,9 +21,7 @@ public class ReflectUtils {
      * @return 属性值
      */
     public static void setProperty(Object object, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
-        Field field = object.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        field.set(object, value);
+        getAccessor(object, fieldName).set(object, value);
     }
 
     /**
@@ -34,8 +32,19 @@ public class ReflectUtils {
      * @return 属性值
      */
     public static Object getProperty(Object object, String fieldName) throws NoSuchFieldException, IllegalAccessException {
-        Field field = object.getClass().getDeclaredField(fieldName);
-        field.setAccessible(true);
-        return field.get(object);
+        return getAccessor(object, fieldName).get(object);
+    }
+
+    /**
+     * 获取对象所属类自身声明的属性访问器(经ReflectionUtils按类缓存)
+     */
+    private static ReflectionUtils.FieldAccessor getAccessor(Object object, String fieldName) throws NoSuchFieldException {
+        Class<?> clazz = object.getClass();
+        ReflectionUtils.FieldAccessor accessor = ReflectionUtils.getFieldAccessor(clazz, fieldName);
+        // 仅查找当前类声明的属性, 与Class.getDeclaredField保持一致
+        if (accessor == null || accessor.getField().getDeclaringClass() != clazz) {
+            throw new NoSuchFieldException(fieldName);
+        }
+        return accessor;
     }
 }
@@ -2,19 +2,42 @@ package com.changhong.sei.util;
 
 import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 /**
  * 反射的Utils函数集合. 提供访问私有变量,获取泛型类型Class,提取集合中元素的属性等Utils函数.
  */
 public final class ReflectionUtils {
 
+    /**
+     * 按类缓存已解析的属性及方法访问器，类卸载时随之回收
+     */
+    private static final ClassValue<ClassAccessors> ACCESSORS = new ClassValue<ClassAccessors>() {
+        @Override
+        protected ClassAccessors computeValue(Class<?> type) {
+            return new ClassAccessors(type);
+        }
+    };
+
+    /**
+     * 已编译的属性路径缓存
+     */
+    private static final ConcurrentMap<String, PropertyPath> PROPERTY_PATHS = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_PATHS = 4096;
+
     private ReflectionUtils() {
     }
 
@@ -22,42 +45,14 @@ public final class ReflectionUtils {
      * 直接读取对象属性值,无视private/protected修饰符,不经过getter函数.
      */
     public static Object getFieldValue(final Object object, final String fieldName) {
-        Field field = getDeclaredField(object, fieldName);
-
-        if (field == null) {
-            throw new IllegalArgumentException("Could not find field [" + fieldName + "] on target [" + object + "]");
-        }
-
-        makeAccessible(field);
-
-        Object result = null;
-        try {
-            result = field.get(object);
-        } catch (IllegalAccessException e) {
-            System.err.println("不可能抛出的异常" + e.getMessage());
-            e.printStackTrace();
-        }
-        return result;
+        return requireFieldAccessor(object, fieldName).get(object);
     }
 
     /**
      * 直接设置对象属性值,无视private/protected修饰符,不经过setter函数.
      */
     public static void setFieldValue(final Object object, final String fieldName, final Object value) {
-        Field field = getDeclaredField(object, fieldName);
-
-        if (field == null) {
-            throw new IllegalArgumentException("Could not find field [" + fieldName + "] on target [" + object + "]");
-        }
-
-        makeAccessible(field);
-
-        try {
-            field.set(object, value);
-        } catch (IllegalAccessException e) {
-            System.err.println("不可能抛出的异常:" + e.getMessage());
-            e.printStackTrace();
-        }
+        requireFieldAccessor(object, fieldName).set(object, value);
     }
 
     /**
@@ -65,23 +60,64 @@ public final class ReflectionUtils {
      */
     public static Object invokeMethod(Object object, String methodName, Class<?>[] parameterTypes,
                                       Object[] parameters) throws InvocationTargetException {
+        if (Objects.isNull(object)) {
+            throw new IllegalArgumentException("object不能为空");
+        }
+        MethodInvoker invoker = getMethodInvoker(object.getClass(), methodName, parameterTypes);
 
-        Method method = getDeclaredMethod(object, methodName, parameterTypes);
-
-        if (method == null) {
+        if (invoker == null) {
             throw new IllegalArgumentException("Could not find method [" + methodName + "] on target [" + object + "]");
         }
 
-        method.setAccessible(true);
+        return invoker.invoke(object, parameters);
+    }
+
+    /**
+     * 获取类(含父类)中指定属性的访问器.
+     * 访问器按类缓存,每个属性只解析一次,之后的读写开销接近直接访问.
+     *
+     * @param clazz     类
+     * @param fieldName 属性名
+     * @return 属性访问器, 找不到时返回null
+     */
+    public static FieldAccessor getFieldAccessor(final Class<?> clazz, final String fieldName) {
+        if (Objects.isNull(clazz)) {
+            throw new IllegalArgumentException("clazz不能为空");
+        }
+        if (Objects.isNull(fieldName)) {
+            throw new IllegalArgumentException("fieldName不能为空");
+        }
+        return ACCESSORS.get(clazz).field(fieldName);
+    }
 
-        try {
-            return method.invoke(object, parameters);
-        } catch (IllegalAccessException e) {
-            System.err.println("invokeMethod:" + e.getMessage());
-            e.printStackTrace();
+    /**
+     * 获取类(含父类)中指定方法的调用器.
+     * 调用器按类缓存,每个方法只解析一次.
+     *
+     * @param clazz          类
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @return 方法调用器, 找不到时返回null
+     */
+    public static MethodInvoker getMethodInvoker(final Class<?> clazz, final String methodName, final Class<?>... parameterTypes) {
+        if (Objects.isNull(clazz)) {
+            throw new IllegalArgumentException("clazz不能为空");
+        }
+        if (Objects.isNull(methodName)) {
+            throw new IllegalArgumentException("methodName不能为空");
         }
+        return ACCESSORS.get(clazz).method(methodName, parameterTypes);
+    }
 
-        return null;
+    private static FieldAccessor requireFieldAccessor(final Object object, final String fieldName) {
+        if (Objects.isNull(object)) {
+            throw new IllegalArgumentException("object不能为空");
+        }
+        FieldAccessor accessor = getFieldAccessor(object.getClass(), fieldName);
+        if (accessor == null) {
+            throw new IllegalArgumentException("Could not find field [" + fieldName + "] on target [" + object + "]");
+        }
+        return accessor;
     }
 
     /**
@@ -136,7 +172,14 @@ public final class ReflectionUtils {
      * 循环向上转型, 获取对象的 DeclaredMethod
      */
     public static Method getDeclaredMethod(Object object, String methodName, Class<?>[] parameterTypes) {
-        for (Class<?> superClass = object.getClass(); superClass != Object.class; superClass = superClass.getSuperclass()) {
+        return getDeclaredMethod(object.getClass(), methodName, parameterTypes);
+    }
+
+    /**
+     * 循环向上转型, 获取类的 DeclaredMethod
+     */
+    public static Method getDeclaredMethod(Class<?> clazz, String methodName, Class<?>[] parameterTypes) {
+        for (Class<?> superClass = clazz; superClass != Object.class; superClass = superClass.getSuperclass()) {
             try {
                 return superClass.getDeclaredMethod(methodName, parameterTypes);
             } catch (NoSuchMethodException e) {
@@ -199,16 +242,18 @@ public final class ReflectionUtils {
 
     /**
      * 提取集合中的对象的属性,组合成List.
+     * <p>
+     * 经commons-beanutils取值, 异常(NestedNullException、NoSuchMethodException等)与原有行为一致;
+     * 集合较大时可使用{@link #projectProperty(Collection, String)}.
      *
      * @param collection   来源集合.
      * @param propertyName 要提取的属性名.
      */
     public static List<Object> fetchElementPropertyToList(final Collection<Object> collection, final String propertyName) throws Exception {
-        List<Object> list = new ArrayList<>();
+        List<Object> list = new ArrayList<>(collection.size());
         for (Object obj : collection) {
             list.add(PropertyUtils.getProperty(obj, propertyName));
         }
-
         return list;
     }
 
@@ -224,4 +269,466 @@ public final class ReflectionUtils {
         List<Object> list = fetchElementPropertyToList(collection, propertyName);
         return StringUtils.join(list.toArray(), separator);
     }
+
+    /**
+     * 编译属性路径. 路径只解析一次,各元素类的getter按类缓存,适用于对集合批量提取属性.
+     * 支持"a.b.c"形式的嵌套属性及Map取值;含索引"a[0]"或映射"a(key)"的路径委托给commons-beanutils.
+     *
+     * @param propertyPath 属性路径
+     * @return 已编译的属性路径
+     */
+    public static PropertyPath compilePropertyPath(final String propertyPath) {
+        if (StringUtils.isBlank(propertyPath)) {
+            throw new IllegalArgumentException("propertyPath不能为空");
+        }
+        PropertyPath path = PROPERTY_PATHS.get(propertyPath);
+        if (path == null) {
+            if (PROPERTY_PATHS.size() >= MAX_CACHED_PATHS) {
+                return new PropertyPath(propertyPath);
+            }
+            path = PROPERTY_PATHS.computeIfAbsent(propertyPath, PropertyPath::new);
+        }
+        return path;
+    }
+
+    /**
+     * 提取集合中的对象的属性,组合成List.
+     * 路径中间值为null时,该元素的结果为null.
+     *
+     * @param collection   来源集合.
+     * @param propertyPath 要提取的属性路径.
+     */
+    public static List<Object> projectProperty(final Collection<?> collection, final String propertyPath) {
+        return projectProperty(collection, propertyPath, Object.class);
+    }
+
+    /**
+     * 提取集合中的对象的属性,组合成指定类型的List.
+     *
+     * @param collection   来源集合.
+     * @param propertyPath 要提取的属性路径.
+     * @param type         属性类型.
+     */
+    public static <R> List<R> projectProperty(final Collection<?> collection, final String propertyPath, final Class<R> type) {
+        if (Objects.isNull(collection) || collection.isEmpty()) {
+            return new ArrayList<>();
+        }
+        PropertyPath path = compilePropertyPath(propertyPath);
+        List<R> list = new ArrayList<>(collection.size());
+        for (Object obj : collection) {
+            list.add(type.cast(path.get(obj)));
+        }
+        return list;
+    }
+
+    /**
+     * 并行提取集合中的对象的属性,组合成List(保持集合原有顺序),适用于大集合.
+     *
+     * @param collection   来源集合.
+     * @param propertyPath 要提取的属性路径.
+     */
+    public static List<Object> parallelProjectProperty(final Collection<?> collection, final String propertyPath) {
+        if (Objects.isNull(collection) || collection.isEmpty()) {
+            return new ArrayList<>();
+        }
+        PropertyPath path = compilePropertyPath(propertyPath);
+        return collection.parallelStream().map(path::get).collect(Collectors.toList());
+    }
+
+    /**
+     * 提取集合中的对象的数值属性,组合成long数组. 属性值为null时记为0.
+     *
+     * @param collection   来源集合.
+     * @param propertyPath 要提取的属性路径.
+     * @param parallel     是否并行提取.
+     */
+    public static long[] projectPropertyToLongArray(final Collection<?> collection, final String propertyPath, final boolean parallel) {
+        if (Objects.isNull(collection) || collection.isEmpty()) {
+            return new long[0];
+        }
+        PropertyPath path = compilePropertyPath(propertyPath);
+        return (parallel ? collection.parallelStream() : collection.stream())
+                .mapToLong(obj -> toNumber(path, obj).longValue()).toArray();
+    }
+
+    /**
+     * 提取集合中的对象的数值属性,组合成int数组. 属性值为null时记为0.
+     *
+     * @param collection   来源集合.
+     * @param propertyPath 要提取的属性路径.
+     * @param parallel     是否并行提取.
+     */
+    public static int[] projectPropertyToIntArray(final Collection<?> collection, final String propertyPath, final boolean parallel) {
+        if (Objects.isNull(collection) || collection.isEmpty()) {
+            return new int[0];
+        }
+        PropertyPath path = compilePropertyPath(propertyPath);
+        return (parallel ? collection.parallelStream() : collection.stream())
+                .mapToInt(obj -> toNumber(path, obj).intValue()).toArray();
+    }
+
+    /**
+     * 提取集合中的对象的数值属性,组合成double数组. 属性值为null时记为0.
+     *
+     * @param collection   来源集合.
+     * @param propertyPath 要提取的属性路径.
+     * @param parallel     是否并行提取.
+     */
+    public static double[] projectPropertyToDoubleArray(final Collection<?> collection, final String propertyPath, final boolean parallel) {
+        if (Objects.isNull(collection) || collection.isEmpty()) {
+            return new double[0];
+        }
+        PropertyPath path = compilePropertyPath(propertyPath);
+        return (parallel ? collection.parallelStream() : collection.stream())
+                .mapToDouble(obj -> toNumber(path, obj).doubleValue()).toArray();
+    }
+
+    private static Number toNumber(PropertyPath path, Object obj) {
+        Object value = path.get(obj);
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value instanceof Character) {
+            return (int) (Character) value;
+        }
+        throw new IllegalArgumentException("Property [" + path.getPath() + "] is not a number: " + value);
+    }
+
+    /**
+     * 已编译的属性路径. 线程安全,可复用.
+     */
+    public static final class PropertyPath {
+        private final String path;
+        private final String[] segments;
+        /**
+         * 含索引/映射语法时委托给commons-beanutils
+         */
+        private final boolean delegate;
+
+        private PropertyPath(String path) {
+            this.path = path;
+            this.delegate = StringUtils.containsAny(path, '[', '(');
+            this.segments = delegate ? null : StringUtils.split(path, '.');
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * 读取对象的属性值
+         *
+         * @param bean 对象
+         * @return 属性值, 路径中间值为null时返回null
+         */
+        public Object get(Object bean) {
+            if (bean == null) {
+                throw new IllegalArgumentException("No bean specified");
+            }
+            if (delegate) {
+                try {
+                    return PropertyUtils.getProperty(bean, path);
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException("读取属性[" + path + "]失败", e.getTargetException());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("读取属性[" + path + "]失败", e);
+                }
+            }
+            Object value = bean;
+            for (String segment : segments) {
+                if (value == null) {
+                    return null;
+                }
+                if (value instanceof Map) {
+                    value = ((Map<?, ?>) value).get(segment);
+                } else {
+                    value = ACCESSORS.get(value.getClass()).getter(segment).get(value);
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 属性读取器. 基于JavaBean规范的getter方法.
+     */
+    private static final class PropertyGetter {
+        private final String name;
+        private final Class<?> beanClass;
+        private final MethodHandle handle;
+
+        PropertyGetter(Class<?> beanClass, String name) {
+            this.name = name;
+            this.beanClass = beanClass;
+            Method readMethod = null;
+            try {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+                    if (name.equals(descriptor.getName())) {
+                        readMethod = descriptor.getReadMethod();
+                        break;
+                    }
+                }
+            } catch (IntrospectionException e) {
+                throw new IllegalArgumentException("无法解析类: " + beanClass.getName(), e);
+            }
+            if (readMethod == null) {
+                this.handle = null;
+                return;
+            }
+            try {
+                readMethod.setAccessible(true);
+            } catch (RuntimeException e) {
+                // 模块不开放时,仅能访问公开方法
+            }
+            MethodHandle mh;
+            try {
+                mh = MethodHandles.lookup().unreflect(readMethod).asType(FieldAccessor.GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                mh = null;
+            }
+            this.handle = mh;
+        }
+
+        Object get(Object bean) {
+            if (handle == null) {
+                throw new IllegalArgumentException("Unknown property '" + name + "' on class '" + beanClass + "'");
+            }
+            try {
+                return handle.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("读取属性[" + name + "]失败", e);
+            }
+        }
+    }
+
+    /**
+     * 属性访问器. 解析时一次性完成setAccessible并生成MethodHandle,此后读写不再查找和校验.
+     */
+    public static final class FieldAccessor {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        private final Field field;
+        private final MethodHandle getter;
+        /**
+         * final属性无法生成setter句柄,此时为null,退回Field.set
+         */
+        private final MethodHandle setter;
+
+        private FieldAccessor(Field field) {
+            this.field = field;
+            makeAccessible(field);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            boolean isStatic = Modifier.isStatic(field.getModifiers());
+            try {
+                MethodHandle mh = lookup.unreflectGetter(field);
+                if (isStatic) {
+                    mh = MethodHandles.dropArguments(mh, 0, Object.class);
+                }
+                this.getter = mh.asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("无法访问属性: " + field, e);
+            }
+            MethodHandle mh;
+            try {
+                mh = lookup.unreflectSetter(field);
+                if (isStatic) {
+                    mh = MethodHandles.dropArguments(mh, 0, Object.class);
+                }
+                mh = mh.asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                mh = null;
+            }
+            this.setter = mh;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public Class<?> getType() {
+            return field.getType();
+        }
+
+        /**
+         * 读取属性值
+         */
+        public Object get(Object target) {
+            try {
+                return getter.invokeExact(target);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("Can not get " + field + " on target [" + target + "]", e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 设置属性值
+         */
+        public void set(Object target, Object value) {
+            if (setter == null) {
+                try {
+                    field.set(target, value);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("无法设置属性: " + field, e);
+                }
+                return;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (ClassCastException e) {
+                throw new IllegalArgumentException("Can not set " + field + " to value [" + value + "]", e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 方法调用器. 解析时一次性完成setAccessible并生成MethodHandle.
+     */
+    public static final class MethodInvoker {
+        private final Method method;
+        private final MethodHandle handle;
+        private final int parameterCount;
+
+        private MethodInvoker(Method method) {
+            this.method = method;
+            this.parameterCount = method.getParameterCount();
+            method.setAccessible(true);
+            try {
+                MethodHandle mh = MethodHandles.lookup().unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    mh = MethodHandles.dropArguments(mh, 0, Object.class);
+                }
+                if (method.isVarArgs()) {
+                    mh = mh.asFixedArity();
+                }
+                this.handle = mh.asSpreader(Object[].class, parameterCount)
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("无法访问方法: " + method, e);
+            }
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * 调用方法, 与Method.invoke一致, 方法内抛出的异常包装为InvocationTargetException
+         */
+        public Object invoke(Object target, Object... parameters) throws InvocationTargetException {
+            if (Objects.isNull(parameters)) {
+                parameters = ArrayUtils.EMPTY_OBJECT_ARRAY;
+            }
+            if (parameters.length != parameterCount) {
+                throw new IllegalArgumentException("wrong number of arguments for " + method);
+            }
+            if (Objects.isNull(target) && !Modifier.isStatic(method.getModifiers())) {
+                throw new NullPointerException("target不能为空");
+            }
+            if (Objects.nonNull(target) && !method.getDeclaringClass().isInstance(target)) {
+                throw new IllegalArgumentException("object is not an instance of declaring class");
+            }
+            Class<?>[] types = method.getParameterTypes();
+            for (int i = 0; i < parameterCount; i++) {
+                Object param = parameters[i];
+                if (param == null ? types[i].isPrimitive() : !ClassUtils.isAssignable(param.getClass(), types[i], true)) {
+                    throw new IllegalArgumentException("argument type mismatch for " + method);
+                }
+            }
+            try {
+                return handle.invokeExact(target, parameters);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    /**
+     * 单个类的访问器缓存. 未找到的属性/方法同样缓存, 避免重复向上查找.
+     */
+    private static final class ClassAccessors {
+        private static final Object NOT_FOUND = new Object();
+
+        private final Class<?> type;
+        private final ConcurrentMap<String, Object> fields = new ConcurrentHashMap<>();
+        private final ConcurrentMap<MethodKey, Object> methods = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, PropertyGetter> getters = new ConcurrentHashMap<>();
+
+        ClassAccessors(Class<?> type) {
+            this.type = type;
+        }
+
+        FieldAccessor field(String fieldName) {
+            Object accessor = fields.get(fieldName);
+            if (accessor == null) {
+                accessor = fields.computeIfAbsent(fieldName, name -> {
+                    Field field = getDeclaredField(type, name);
+                    return field == null ? NOT_FOUND : new FieldAccessor(field);
+                });
+            }
+            return accessor == NOT_FOUND ? null : (FieldAccessor) accessor;
+        }
+
+        MethodInvoker method(String methodName, Class<?>[] parameterTypes) {
+            MethodKey key = new MethodKey(methodName, parameterTypes);
+            Object invoker = methods.get(key);
+            if (invoker == null) {
+                invoker = methods.computeIfAbsent(key, k -> {
+                    Method method = getDeclaredMethod(type, k.name, k.parameterTypes);
+                    return method == null ? NOT_FOUND : new MethodInvoker(method);
+                });
+            }
+            return invoker == NOT_FOUND ? null : (MethodInvoker) invoker;
+        }
+
+        PropertyGetter getter(String propertyName) {
+            PropertyGetter getter = getters.get(propertyName);
+            if (getter == null) {
+                getter = getters.computeIfAbsent(propertyName, name -> new PropertyGetter(type, name));
+            }
+            return getter;
+        }
+    }
+
+    private static final class MethodKey {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hash;
+
+        MethodKey(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = Objects.isNull(parameterTypes) ? ArrayUtils.EMPTY_CLASS_ARRAY : parameterTypes;
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(this.parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey that = (MethodKey) o;
+            return name.equals(that.name) && Arrays.equals(parameterTypes, that.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
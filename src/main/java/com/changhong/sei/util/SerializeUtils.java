@@ -1,8 +1,9 @@
 package com.changhong.sei.util;
 
+import com.changhong.sei.util.serializer.Serializer;
+import com.changhong.sei.util.serializer.Serializers;
 import org.apache.commons.codec.binary.Base64;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
@@ -10,9 +11,17 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * <strong>实现功能:</strong>.
@@ -23,6 +32,17 @@ import java.util.*;
  */
 @SuppressWarnings("unchecked")
 public class SerializeUtils {
+    /**
+     * 是否为Bean属性读写生成字节码访问器
+     */
+    private static volatile boolean generatedAccessors = false;
+
+    /**
+     * 按类缓存的Bean属性读写计划, 两种访问器方式分别缓存, 切换后对所有类立即生效
+     */
+    private static final ClassValue<Object> BEAN_PLANS = planCache(false);
+    private static final ClassValue<Object> GENERATED_BEAN_PLANS = planCache(true);
+
     /**
      * 对象序列化成字符串
      *
@@ -101,8 +121,37 @@ public class SerializeUtils {
         }
     }
 
+    /**
+     * 使用指定的序列化器将对象序列化为二进制
+     *
+     * @param object     对象
+     * @param serializer 序列化器, 如{@link Serializers#binary()}
+     * @return 返回二进制
+     */
+    public static byte[] serialize(Object object, Serializer serializer) {
+        if (object == null) {
+            return null;
+        }
+        return serializer.serialize(object);
+    }
+
+    /**
+     * 使用指定的序列化器将二进制反序列化为对象
+     *
+     * @param bytes      二进制数据
+     * @param serializer 序列化器, 须与序列化时一致
+     * @return 返回对象
+     */
+    public static <T> T unserialize(byte[] bytes, Serializer serializer) {
+        if (bytes == null) {
+            return null;
+        }
+        return serializer.deserialize(bytes);
+    }
+
     /**
      * 将一个 JavaBean 对象转化为一个  Map
+     * 类的属性读写计划在首次使用时解析并按类缓存,之后的转换不再进行内省.
      *
      * @param bean 要转化的JavaBean 对象
      * @return 转化出来的  Map 对象
@@ -110,31 +159,29 @@ public class SerializeUtils {
      * @throws IllegalAccessException                      如果实例化 JavaBean 失败
      * @throws java.lang.reflect.InvocationTargetException 如果调用属性的 setter 方法失败
      */
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public static Map<String, Object> convertBean(Object bean) throws IntrospectionException, IllegalAccessException, InvocationTargetException {
-        Map<String, Object> returnMap = new HashMap<String, Object>();
-        BeanInfo beanInfo = Introspector.getBeanInfo(bean.getClass());
-
-        PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-        for (PropertyDescriptor descriptor : propertyDescriptors) {
-            String propertyName = descriptor.getName();
-            if (!"class".equals(propertyName)) {
-                Method readMethod = descriptor.getReadMethod();
-                Object result = readMethod.invoke(bean, new Object[0]);
-                if (result != null) {
-                    if (result instanceof Collection) {
-                        List list = new ArrayList();
-                        Collection collection = (Collection) result;
-                        for (Object obj : collection) {
-                            list.add(convertBean(obj));
-                        }
-                        returnMap.put(propertyName, list);
-                    } else {
-                        returnMap.put(propertyName, result);
-                    }
-                } else {
-                    returnMap.put(propertyName, result);
+        BeanPlan plan = getBeanPlan(bean.getClass());
+        String[] names = plan.readNames;
+        Reader[] readers = plan.readers;
+        Map<String, Object> returnMap = new HashMap<>(plan.mapCapacity);
+        for (int i = 0; i < names.length; i++) {
+            Object result;
+            try {
+                result = readers[i].read(bean);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+            if (result instanceof Collection) {
+                Collection<?> collection = (Collection<?>) result;
+                List<Object> list = new ArrayList<>(collection.size());
+                for (Object obj : collection) {
+                    list.add(convertBean(obj));
                 }
+                returnMap.put(names[i], list);
+            } else {
+                returnMap.put(names[i], result);
             }
         }
         return returnMap;
@@ -142,6 +189,7 @@ public class SerializeUtils {
 
     /**
      * 将一个 Map 对象转化为一个 JavaBean
+     * 类的属性读写计划在首次使用时解析并按类缓存,之后的转换不再进行内省.
      *
      * @param type 要转化的类型
      * @param map  包含属性值的 map
@@ -152,28 +200,225 @@ public class SerializeUtils {
      * @throws InstantiationException                      如果实例化 JavaBean 失败
      * @throws java.lang.reflect.InvocationTargetException 如果调用属性的 setter 方法失败
      */
-    @SuppressWarnings("rawtypes")
     public static <T> T convertMap(Class<T> type, Map<String, Object> map) throws IntrospectionException, IllegalAccessException, InstantiationException, InvocationTargetException {
-        // 获取类属性
-        BeanInfo beanInfo = Introspector.getBeanInfo(type);
+        BeanPlan plan = getBeanPlan(type);
         // 创建 JavaBean 对象
-        T object = type.newInstance();
+        T object = plan.newInstance(type);
 
         // 给 JavaBean 对象的属性赋值
-        PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-        for (PropertyDescriptor descriptor : propertyDescriptors) {
-            String propertyName = descriptor.getName();
-            if (map.containsKey(propertyName)) {
-                Object[] args = new Object[1];
-                args[0] = map.get(propertyName);
+        String[] names = plan.writeNames;
+        Writer[] writers = plan.writers;
+        for (int i = 0; i < names.length; i++) {
+            if (map.containsKey(names[i])) {
                 // try 起来，这样当一个属性赋值失败的时候就不会影响其他属性赋值。
                 try {
-                    descriptor.getWriteMethod().invoke(object, args);
-                } catch (Exception e) {
+                    writers[i].write(object, map.get(names[i]));
+                } catch (Error e) {
+                    throw e;
+                } catch (Throwable e) {
                     e.printStackTrace();
                 }
             }
         }
         return object;
     }
+
+    /**
+     * 设置是否为Bean属性读写生成字节码访问器(基于LambdaMetafactory).
+     * 开启后,对公开类的公开getter/setter生成直接调用的访问器类,其余仍使用MethodHandle.
+     * 两种方式的读写计划分别缓存, 切换后对已解析过的类同样生效.
+     *
+     * @param enabled 是否开启
+     */
+    public static void setGeneratedAccessors(boolean enabled) {
+        generatedAccessors = enabled;
+    }
+
+    private static ClassValue<Object> planCache(boolean generated) {
+        return new ClassValue<Object>() {
+            @Override
+            protected Object computeValue(Class<?> type) {
+                try {
+                    return new BeanPlan(type, generated);
+                } catch (IntrospectionException e) {
+                    // 解析失败时交由调用方抛出, 并移除缓存以便下次重试
+                    return e;
+                }
+            }
+        };
+    }
+
+    private static BeanPlan getBeanPlan(Class<?> type) throws IntrospectionException {
+        ClassValue<Object> plans = generatedAccessors ? GENERATED_BEAN_PLANS : BEAN_PLANS;
+        Object plan = plans.get(type);
+        if (plan instanceof IntrospectionException) {
+            plans.remove(type);
+            throw (IntrospectionException) plan;
+        }
+        return (BeanPlan) plan;
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        Object read(Object bean) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(Object bean, Object value) throws Throwable;
+    }
+
+    /**
+     * 单个类的属性读写计划
+     */
+    private static final class BeanPlan {
+        private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        private final String[] readNames;
+        private final Reader[] readers;
+        private final String[] writeNames;
+        private final Writer[] writers;
+        /**
+         * 转换为Map时的初始容量, 保证不发生扩容
+         */
+        private final int mapCapacity;
+        private final MethodHandle constructor;
+
+        BeanPlan(Class<?> type, boolean generated) throws IntrospectionException {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            boolean canGenerate = generated && isVisible(type);
+            List<String> readNameList = new ArrayList<>();
+            List<Reader> readerList = new ArrayList<>();
+            List<String> writeNameList = new ArrayList<>();
+            List<Writer> writerList = new ArrayList<>();
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                String propertyName = descriptor.getName();
+                Method readMethod = descriptor.getReadMethod();
+                if (readMethod != null && !"class".equals(propertyName)) {
+                    Reader reader = canGenerate ? generateReader(lookup, readMethod) : null;
+                    if (reader == null) {
+                        MethodHandle mh = unreflect(lookup, readMethod).asType(READER_TYPE);
+                        reader = bean -> mh.invokeExact(bean);
+                    }
+                    readNameList.add(propertyName);
+                    readerList.add(reader);
+                }
+                Method writeMethod = descriptor.getWriteMethod();
+                if (writeMethod != null) {
+                    Writer writer = canGenerate ? generateWriter(lookup, writeMethod) : null;
+                    if (writer == null) {
+                        MethodHandle mh = unreflect(lookup, writeMethod).asType(WRITER_TYPE);
+                        writer = (bean, value) -> {
+                            mh.invokeExact(bean, value);
+                        };
+                    }
+                    writeNameList.add(propertyName);
+                    writerList.add(writer);
+                }
+            }
+            this.readNames = readNameList.toArray(new String[0]);
+            this.readers = readerList.toArray(new Reader[0]);
+            this.writeNames = writeNameList.toArray(new String[0]);
+            this.writers = writerList.toArray(new Writer[0]);
+            this.mapCapacity = (int) (readNames.length / 0.75f) + 1;
+
+            MethodHandle ctor = null;
+            if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+                try {
+                    Constructor<?> c = type.getDeclaredConstructor();
+                    if (Modifier.isPublic(c.getModifiers()) && Modifier.isPublic(type.getModifiers())) {
+                        ctor = lookup.unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+                    }
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    // 由Class.newInstance抛出对应异常
+                }
+            }
+            this.constructor = ctor;
+        }
+
+        @SuppressWarnings("deprecation")
+        <T> T newInstance(Class<T> type) throws InstantiationException, IllegalAccessException, InvocationTargetException {
+            if (constructor == null) {
+                return type.newInstance();
+            }
+            try {
+                return type.cast(constructor.invokeExact());
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        private static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method) throws IntrospectionException {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                // 模块不开放时,仅能访问公开方法
+            }
+            try {
+                return lookup.unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new IntrospectionException("无法访问方法: " + method);
+            }
+        }
+
+        /**
+         * 类须能被本工具类的类加载器解析, 否则生成的访问器在链接时找不到目标类
+         */
+        private static boolean isVisible(Class<?> type) {
+            if (!Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+            try {
+                return Class.forName(type.getName(), false, SerializeUtils.class.getClassLoader()) == type;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Reader generateReader(MethodHandles.Lookup lookup, Method method) {
+            if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                return null;
+            }
+            try {
+                MethodHandle target = lookup.unreflect(method);
+                MethodType instantiated = MethodType.methodType(wrap(method.getReturnType()), method.getDeclaringClass());
+                Function<Object, Object> function = (Function<Object, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                        target, instantiated).getTarget().invoke();
+                return function::apply;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Writer generateWriter(MethodHandles.Lookup lookup, Method method) {
+            if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())
+                    || method.getReturnType() != void.class) {
+                return null;
+            }
+            try {
+                MethodHandle target = lookup.unreflect(method);
+                MethodType instantiated = MethodType.methodType(void.class, method.getDeclaringClass(), wrap(method.getParameterTypes()[0]));
+                BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class), MethodType.methodType(void.class, Object.class, Object.class),
+                        target, instantiated).getTarget().invoke();
+                return consumer::accept;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+
+        private static Class<?> wrap(Class<?> type) {
+            return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+        }
+    }
 }
@@ -1,10 +1,18 @@
 package com.changhong.sei.util;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * 实现功能: LIST的集合运算工具类
+ * <p>
+ * 除对象集合运算外，还提供：
+ * 1.基本类型（long[]/int[]）的集合运算，使用开放寻址哈希表，避免装箱；
+ * 2.基于并行流的集合运算，适用于百万级以上的大集合；
+ * 3.基于有序迭代器的归并运算，两侧数据均无需全部加载到内存.
+ * <p>
+ * 所有运算结果均去重，并保持元素在第一个集合中首次出现的顺序（并集为先first后second）.
  *
  * @author 王锦光 wangjg
  * @version 2020-03-01 10:54
@@ -21,9 +29,8 @@ public class SetOperationUtil {
         if (Objects.isNull(first) || Objects.isNull(second)) {
             return new ArrayList<>();
         }
-        Set<T> firstSet = new LinkedHashSet<>(first);
-        Set<T> secondSet = new LinkedHashSet<>(second);
-        return firstSet.stream().filter(secondSet::contains).distinct().collect(Collectors.toList());
+        Set<T> secondSet = new HashSet<>(second);
+        return filterDistinct(first, secondSet::contains);
     }
 
     /**
@@ -37,9 +44,8 @@ public class SetOperationUtil {
         if (Objects.isNull(first) || Objects.isNull(second)) {
             return new ArrayList<>();
         }
-        Set<T> firstSet = new LinkedHashSet<>(first);
-        Set<T> secondSet = new LinkedHashSet<>(second);
-        return firstSet.stream().filter(item -> !secondSet.contains(item)).distinct().collect(Collectors.toList());
+        Set<T> secondSet = new HashSet<>(second);
+        return filterDistinct(first, item -> !secondSet.contains(item));
     }
 
     /**
@@ -53,9 +59,535 @@ public class SetOperationUtil {
         if (Objects.isNull(first) || Objects.isNull(second)) {
             return new ArrayList<>();
         }
-        Set<T> unionSet = new LinkedHashSet<>();
+        Set<T> unionSet = new LinkedHashSet<>(capacity(first.size() + second.size()));
         unionSet.addAll(first);
         unionSet.addAll(second);
         return new ArrayList<>(unionSet);
     }
+
+    /**
+     * 并行获取两个集合的交集，适用于大集合（建议first为ArrayList等可随机访问的集合）
+     * @param first 第一个集合
+     * @param second 第二个集合
+     * @param <T> 类型
+     * @return 交集
+     */
+    public static <T> List<T> parallelIntersection(List<T> first, List<T> second){
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new ArrayList<>();
+        }
+        Set<T> secondSet = new HashSet<>(second);
+        // HashSet构建完成后只读，可安全地被多个线程并发访问
+        List<T> filtered = first.parallelStream().filter(secondSet::contains).collect(Collectors.toList());
+        return filterDistinct(filtered, item -> true);
+    }
+
+    /**
+     * 并行获取两个集合的差集（first-second），适用于大集合（建议first为ArrayList等可随机访问的集合）
+     * @param first 第一个集合
+     * @param second 第二个集合
+     * @param <T> 类型
+     * @return 差集
+     */
+    public static <T> List<T> parallelDifference(List<T> first, List<T> second){
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new ArrayList<>();
+        }
+        Set<T> secondSet = new HashSet<>(second);
+        List<T> filtered = first.parallelStream().filter(item -> !secondSet.contains(item)).collect(Collectors.toList());
+        return filterDistinct(filtered, item -> true);
+    }
+
+    /**
+     * 获取两个long数组的交集
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 交集
+     */
+    public static long[] intersection(long[] first, long[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new long[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        LongHashSet seen = new LongHashSet(Math.min(first.length, second.length));
+        long[] result = new long[Math.min(first.length, secondSet.size())];
+        int size = 0;
+        for (long item : first) {
+            if (secondSet.contains(item) && seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 获取两个long数组的差集（first-second）
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 差集
+     */
+    public static long[] difference(long[] first, long[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new long[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        LongHashSet seen = new LongHashSet(first.length);
+        long[] result = new long[first.length];
+        int size = 0;
+        for (long item : first) {
+            if (!secondSet.contains(item) && seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 获取两个long数组的并集（去重）
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 并集
+     */
+    public static long[] union(long[] first, long[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new long[0];
+        }
+        LongHashSet seen = new LongHashSet(first.length + second.length);
+        long[] result = new long[first.length + second.length];
+        int size = 0;
+        for (long item : first) {
+            if (seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        for (long item : second) {
+            if (seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 并行获取两个long数组的交集
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 交集
+     */
+    public static long[] parallelIntersection(long[] first, long[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new long[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        return distinct(Arrays.stream(first).parallel().filter(secondSet::contains).toArray());
+    }
+
+    /**
+     * 并行获取两个long数组的差集（first-second）
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 差集
+     */
+    public static long[] parallelDifference(long[] first, long[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new long[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        return distinct(Arrays.stream(first).parallel().filter(item -> !secondSet.contains(item)).toArray());
+    }
+
+    /**
+     * 获取两个int数组的交集
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 交集
+     */
+    public static int[] intersection(int[] first, int[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new int[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        LongHashSet seen = new LongHashSet(Math.min(first.length, second.length));
+        int[] result = new int[Math.min(first.length, secondSet.size())];
+        int size = 0;
+        for (int item : first) {
+            if (secondSet.contains(item) && seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 获取两个int数组的差集（first-second）
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 差集
+     */
+    public static int[] difference(int[] first, int[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new int[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        LongHashSet seen = new LongHashSet(first.length);
+        int[] result = new int[first.length];
+        int size = 0;
+        for (int item : first) {
+            if (!secondSet.contains(item) && seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 获取两个int数组的并集（去重）
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 并集
+     */
+    public static int[] union(int[] first, int[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new int[0];
+        }
+        LongHashSet seen = new LongHashSet(first.length + second.length);
+        int[] result = new int[first.length + second.length];
+        int size = 0;
+        for (int item : first) {
+            if (seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        for (int item : second) {
+            if (seen.add(item)) {
+                result[size++] = item;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 并行获取两个int数组的交集
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 交集
+     */
+    public static int[] parallelIntersection(int[] first, int[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new int[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        return distinct(Arrays.stream(first).parallel().filter(secondSet::contains).toArray());
+    }
+
+    /**
+     * 并行获取两个int数组的差集（first-second）
+     * @param first 第一个数组
+     * @param second 第二个数组
+     * @return 差集
+     */
+    public static int[] parallelDifference(int[] first, int[] second) {
+        if (Objects.isNull(first) || Objects.isNull(second)) {
+            return new int[0];
+        }
+        LongHashSet secondSet = LongHashSet.of(second);
+        return distinct(Arrays.stream(first).parallel().filter(item -> !secondSet.contains(item)).toArray());
+    }
+
+    /**
+     * 流式获取两个有序迭代器的交集（归并方式，两侧均不会被全部加载到内存）
+     * @param first 第一个迭代器，须按comparator升序排列
+     * @param second 第二个迭代器，须按comparator升序排列
+     * @param comparator 排序比较器
+     * @param <T> 类型
+     * @return 交集迭代器（去重、升序）
+     */
+    public static <T> Iterator<T> intersection(Iterator<T> first, Iterator<T> second, Comparator<? super T> comparator) {
+        return new SortedMergeIterator<>(first, second, comparator, SortedMergeIterator.INTERSECTION);
+    }
+
+    /**
+     * 流式获取两个有序迭代器的差集（first-second，归并方式，两侧均不会被全部加载到内存）
+     * @param first 第一个迭代器，须按comparator升序排列
+     * @param second 第二个迭代器，须按comparator升序排列
+     * @param comparator 排序比较器
+     * @param <T> 类型
+     * @return 差集迭代器（去重、升序）
+     */
+    public static <T> Iterator<T> difference(Iterator<T> first, Iterator<T> second, Comparator<? super T> comparator) {
+        return new SortedMergeIterator<>(first, second, comparator, SortedMergeIterator.DIFFERENCE);
+    }
+
+    /**
+     * 流式获取两个有序迭代器的并集（归并方式，两侧均不会被全部加载到内存）
+     * @param first 第一个迭代器，须按comparator升序排列
+     * @param second 第二个迭代器，须按comparator升序排列
+     * @param comparator 排序比较器
+     * @param <T> 类型
+     * @return 并集迭代器（去重、升序）
+     */
+    public static <T> Iterator<T> union(Iterator<T> first, Iterator<T> second, Comparator<? super T> comparator) {
+        return new SortedMergeIterator<>(first, second, comparator, SortedMergeIterator.UNION);
+    }
+
+    /**
+     * 按条件过滤并去重，保持元素首次出现的顺序
+     */
+    private static <T> List<T> filterDistinct(List<T> source, Predicate<T> predicate) {
+        Set<T> seen = new HashSet<>(capacity(source.size()));
+        List<T> result = new ArrayList<>();
+        for (T item : source) {
+            if (predicate.test(item) && seen.add(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private static long[] distinct(long[] source) {
+        LongHashSet seen = new LongHashSet(source.length);
+        int size = 0;
+        for (long item : source) {
+            if (seen.add(item)) {
+                source[size++] = item;
+            }
+        }
+        return size == source.length ? source : Arrays.copyOf(source, size);
+    }
+
+    private static int[] distinct(int[] source) {
+        LongHashSet seen = new LongHashSet(source.length);
+        int size = 0;
+        for (int item : source) {
+            if (seen.add(item)) {
+                source[size++] = item;
+            }
+        }
+        return size == source.length ? source : Arrays.copyOf(source, size);
+    }
+
+    /**
+     * 计算HashMap/HashSet的初始容量，避免扩容
+     */
+    private static int capacity(int expectedSize) {
+        return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75f + 1.0f);
+    }
+
+    /**
+     * 基于开放寻址（线性探测）的long哈希集合，无装箱、无Entry对象.
+     * 构建完成后只读访问是线程安全的.
+     */
+    private static final class LongHashSet {
+        private static final long EMPTY = 0L;
+
+        private long[] table;
+        private int mask;
+        private int size;
+        /**
+         * 0值作为空槽标记，单独记录
+         */
+        private boolean containsEmpty;
+
+        LongHashSet(int expectedSize) {
+            // 负载因子不超过0.5
+            int cap = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+            table = new long[Math.max(cap, 4)];
+            mask = table.length - 1;
+        }
+
+        static LongHashSet of(long[] values) {
+            LongHashSet set = new LongHashSet(values.length);
+            for (long value : values) {
+                set.add(value);
+            }
+            return set;
+        }
+
+        static LongHashSet of(int[] values) {
+            LongHashSet set = new LongHashSet(values.length);
+            for (int value : values) {
+                set.add(value);
+            }
+            return set;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long key) {
+            if (key == EMPTY) {
+                return containsEmpty;
+            }
+            int index = hash(key) & mask;
+            long current;
+            while ((current = table[index]) != EMPTY) {
+                if (current == key) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        boolean add(long key) {
+            if (key == EMPTY) {
+                if (containsEmpty) {
+                    return false;
+                }
+                containsEmpty = true;
+                size++;
+                return true;
+            }
+            int index = hash(key) & mask;
+            long current;
+            while ((current = table[index]) != EMPTY) {
+                if (current == key) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            table[index] = key;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private void rehash() {
+            long[] old = table;
+            table = new long[old.length << 1];
+            mask = table.length - 1;
+            for (long key : old) {
+                if (key != EMPTY) {
+                    int index = hash(key) & mask;
+                    while (table[index] != EMPTY) {
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = key;
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * 两个有序迭代器的归并迭代器
+     */
+    private static final class SortedMergeIterator<T> implements Iterator<T> {
+        static final int INTERSECTION = 0;
+        static final int DIFFERENCE = 1;
+        static final int UNION = 2;
+
+        private final Iterator<T> first;
+        private final Iterator<T> second;
+        private final Comparator<? super T> comparator;
+        private final int mode;
+
+        private T firstHead;
+        private boolean hasFirst;
+        private T secondHead;
+        private boolean hasSecond;
+
+        private T last;
+        private boolean hasLast;
+        private T next;
+        private boolean hasNext;
+
+        SortedMergeIterator(Iterator<T> first, Iterator<T> second, Comparator<? super T> comparator, int mode) {
+            this.first = Objects.isNull(first) ? Collections.emptyIterator() : first;
+            this.second = Objects.isNull(second) ? Collections.emptyIterator() : second;
+            this.comparator = Objects.requireNonNull(comparator, "comparator");
+            this.mode = mode;
+            advanceFirst();
+            advanceSecond();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!hasNext && canAdvance()) {
+                advance();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            T result = next;
+            next = null;
+            return result;
+        }
+
+        private boolean canAdvance() {
+            switch (mode) {
+                case INTERSECTION:
+                    return hasFirst && hasSecond;
+                case DIFFERENCE:
+                    return hasFirst;
+                default:
+                    return hasFirst || hasSecond;
+            }
+        }
+
+        /**
+         * 推进一步归并，如产生结果则置hasNext
+         */
+        private void advance() {
+            T candidate;
+            boolean emit;
+            if (!hasSecond) {
+                candidate = firstHead;
+                advanceFirst();
+                emit = mode != INTERSECTION;
+            } else if (!hasFirst) {
+                candidate = secondHead;
+                advanceSecond();
+                emit = true;
+            } else {
+                int cmp = comparator.compare(firstHead, secondHead);
+                if (cmp < 0) {
+                    candidate = firstHead;
+                    advanceFirst();
+                    emit = mode != INTERSECTION;
+                } else if (cmp > 0) {
+                    candidate = secondHead;
+                    advanceSecond();
+                    emit = mode == UNION;
+                } else {
+                    candidate = firstHead;
+                    advanceFirst();
+                    emit = mode != DIFFERENCE;
+                    if (mode == DIFFERENCE) {
+                        // 差集中被排除的元素，其后续重复值同样需要排除
+                        last = candidate;
+                        hasLast = true;
+                    }
+                }
+            }
+            if (emit && !(hasLast && comparator.compare(last, candidate) == 0)) {
+                last = candidate;
+                hasLast = true;
+                next = candidate;
+                hasNext = true;
+            }
+        }
+
+        private void advanceFirst() {
+            hasFirst = first.hasNext();
+            firstHead = hasFirst ? first.next() : null;
+        }
+
+        private void advanceSecond() {
+            hasSecond = second.hasNext();
+            secondHead = hasSecond ? second.next() : null;
+        }
+    }
 }
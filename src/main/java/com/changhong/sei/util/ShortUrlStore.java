@@ -0,0 +1,234 @@
+package com.changhong.sei.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 实现功能：进程内短码存储
+ * <p>
+ * 以开放寻址(线性探测)表同时维护 短码-&gt;长链接 与 长链接-&gt;短码 两个索引, 查询无锁;
+ * 生成短码时串行写入, 短码冲突(已被其他长链接占用)时以递增的重试序号重新生成, 同一长链接重复生成得到同一短码.
+ * <pre>
+ * ShortUrlStore store = ShortUrlUtils.store();
+ * String code = store.mint("https://example.com/a/very/long/url");
+ * String url = store.resolve(code);
+ * </pre>
+ * 可通过{@link #load(String, String)}在启动时装载已持久化的映射.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ShortUrlStore {
+    /**
+     * 单个长链接最多的重试次数
+     */
+    private static final int MAX_ATTEMPTS = 64;
+    private static final int MIN_CAPACITY = 16;
+
+    private final int codeLength;
+    private final Object writeLock = new Object();
+    private volatile Table table;
+
+    ShortUrlStore(int codeLength, int expectedSize) {
+        if (codeLength <= 0 || codeLength > 20) {
+            throw new IllegalArgumentException("短码长度必须在1-20之间");
+        }
+        this.codeLength = codeLength;
+        this.table = new Table(tableSizeFor(Math.max(MIN_CAPACITY, expectedSize * 2)));
+    }
+
+    /**
+     * 为长链接生成短码, 已生成过的直接返回原短码
+     *
+     * @param url 长链接
+     * @return 短码
+     * @throws IllegalStateException 重试{@value #MAX_ATTEMPTS}次后仍冲突
+     */
+    public String mint(String url) {
+        if (url == null) {
+            throw new IllegalArgumentException("url is null.");
+        }
+        Entry entry = table.findByUrl(url);
+        if (entry != null) {
+            return entry.code;
+        }
+        synchronized (writeLock) {
+            Table current = table;
+            entry = current.findByUrl(url);
+            if (entry != null) {
+                return entry.code;
+            }
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                String code = ShortUrlUtils.shortCode(url, codeLength, attempt);
+                if (current.findByCode(code) == null) {
+                    insert(new Entry(code, url));
+                    return code;
+                }
+            }
+        }
+        throw new IllegalStateException("短码冲突次数过多: " + url);
+    }
+
+    /**
+     * 装载已有的映射(如从数据库恢复)
+     *
+     * @param code 短码
+     * @param url  长链接
+     * @return 是否装载成功, 短码或长链接已存在时返回false
+     */
+    public boolean load(String code, String url) {
+        if (code == null || url == null) {
+            throw new IllegalArgumentException("code and url must not be null.");
+        }
+        synchronized (writeLock) {
+            Table current = table;
+            if (current.findByCode(code) != null || current.findByUrl(url) != null) {
+                return false;
+            }
+            insert(new Entry(code, url));
+            return true;
+        }
+    }
+
+    /**
+     * 解析短码
+     *
+     * @param code 短码
+     * @return 长链接, 不存在时返回null
+     */
+    public String resolve(String code) {
+        if (code == null) {
+            return null;
+        }
+        Entry entry = table.findByCode(code);
+        return entry == null ? null : entry.url;
+    }
+
+    /**
+     * 查询长链接已生成的短码
+     *
+     * @param url 长链接
+     * @return 短码, 未生成时返回null
+     */
+    public String getCode(String url) {
+        if (url == null) {
+            return null;
+        }
+        Entry entry = table.findByUrl(url);
+        return entry == null ? null : entry.code;
+    }
+
+    /**
+     * @return 映射数
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * @return 短码长度
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * 在写锁内调用; 负载超过一半时扩容为两倍, 新表填充完成后再发布, 查询线程不会看到不完整的表
+     */
+    private void insert(Entry entry) {
+        Table current = table;
+        if ((current.size + 1) * 2 > current.capacity) {
+            Table grown = new Table(current.capacity * 2);
+            for (int i = 0; i < current.capacity; i++) {
+                Entry e = current.byCode.get(i);
+                if (e != null) {
+                    grown.put(e);
+                }
+            }
+            grown.put(entry);
+            table = grown;
+        } else {
+            current.put(entry);
+        }
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(n - 1) << 1;
+        return size <= 0 ? 1 << 30 : size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        final String code;
+        final String url;
+        final int codeHash;
+        final int urlHash;
+
+        Entry(String code, String url) {
+            this.code = code;
+            this.url = url;
+            this.codeHash = spread(code.hashCode());
+            this.urlHash = spread(url.hashCode());
+        }
+    }
+
+    private static final class Table {
+        final int capacity;
+        final int mask;
+        final AtomicReferenceArray<Entry> byCode;
+        final AtomicReferenceArray<Entry> byUrl;
+        volatile int size;
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.byCode = new AtomicReferenceArray<>(capacity);
+            this.byUrl = new AtomicReferenceArray<>(capacity);
+        }
+
+        Entry findByCode(String code) {
+            int hash = spread(code.hashCode());
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Entry e = byCode.get(i);
+                if (e == null) {
+                    return null;
+                }
+                if (e.codeHash == hash && e.code.equals(code)) {
+                    return e;
+                }
+            }
+        }
+
+        Entry findByUrl(String url) {
+            int hash = spread(url.hashCode());
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Entry e = byUrl.get(i);
+                if (e == null) {
+                    return null;
+                }
+                if (e.urlHash == hash && e.url.equals(url)) {
+                    return e;
+                }
+            }
+        }
+
+        /**
+         * 仅由持有写锁的线程调用, 条目只增不删, 探测链不会断开
+         */
+        void put(Entry entry) {
+            int i = entry.codeHash & mask;
+            while (byCode.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            byCode.set(i, entry);
+            i = entry.urlHash & mask;
+            while (byUrl.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            byUrl.set(i, entry);
+            size++;
+        }
+    }
+}
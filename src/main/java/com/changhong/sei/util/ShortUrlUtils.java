@@ -2,94 +2,163 @@ package com.changhong.sei.util;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * 实现功能：短连接
+ * <p>
+ * {@link #shortCode(String, int)}直接对摘要按位编码, 覆盖全部62个字符; {@link #store()}提供进程内的短码生成与解析.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2020-01-08 00:49
  */
 public class ShortUrlUtils {
-    //十六进制下数字到字符的映射数组
-    private final static String[] hexDigits = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "A", "B", "C", "D", "E", "F"};
+    // 可以自定义生成 MD5 加密字符传前的混合 KEY
+    private static final String KEY = "sei_";
+    private static final byte[] KEY_BYTES = KEY.getBytes(StandardCharsets.UTF_8);
+    // 要使用生成 URL 的字符
+    private static final char[] CHARS = ("abcdefghijklmnopqrstuvwxyz0123456789"
+            + "ABCDEFGHIJKLMNOPQRSTUVWXYZ").toCharArray();
+    /**
+     * 短码默认长度
+     */
+    public static final int DEFAULT_CODE_LENGTH = 6;
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
     /**
      * MD5生成 ，其实这个算法主要是把长字符串变小
      * 这个算法是不可逆的，所以别想着去直接反转短地址
+     * <p>
+     * 保持原有结果不变(只会用到字母表中的部分字符), 新业务请使用{@link #shortCode(String, int)}
      */
     public static String[] getShortUrl(String url) {
-        // 可以自定义生成 MD5 加密字符传前的混合 KEY
-        String key = "sei_";
-        // 要使用生成 URL 的字符
-        String[] chars = new String[]{"a", "b", "c", "d", "e", "f", "g", "h",
-                "i", "j", "k", "l", "m", "n", "o", "p", "q", "r", "s", "t",
-                "u", "v", "w", "x", "y", "z", "0", "1", "2", "3", "4", "5",
-                "6", "7", "8", "9", "A", "B", "C", "D", "E", "F", "G", "H",
-                "I", "J", "K", "L", "M", "N", "O", "P", "Q", "R", "S", "T",
-                "U", "V", "W", "X", "Y", "Z"
-
-        };
-
         String[] resUrl = new String[4];
-        try {
-            // 对传入网址进行 MD5 加密 创建具有指定算法名称的信息摘要
-            MessageDigest md5 = MessageDigest.getInstance("MD5");
-            //使用指定的字节数组对摘要进行最后更新，然后完成摘要计算
-            byte[] results = md5.digest((key + url).getBytes());
-            //将得到的字节数组变成字符串返回
-            String hex = byteArrayToHexString(results);
-
-            for (int i = 0; i < 4; i++) {
-                // 把加密字符按照 8 位一组 16 进制与 0x3FFFFFFF 进行位与运算
-                String sTempSubString = hex.substring(i * 8, i * 8 + 8);
-
-                // 这里需要使用 long 型来转换，因为 Inteper .parseInt() 只能处理 31 位 , 首位为符号位 , 如果不用
-                // long ，则会越界
-                long lHexLong = 0x3FFFFFFF & Long.parseLong(sTempSubString, 16);
-                StringBuilder outChars = new StringBuilder();
-                for (int j = 0; j < 6; j++) {
-                    // 把得到的值与 0x0000003D 进行位与运算，取得字符数组 chars 索引
-                    long index = 0x0000003D & lHexLong;
-                    // 把取得的字符相加
-                    outChars.append(chars[(int) index]);
-                    // 每次循环按位右移 5 位
-                    lHexLong = lHexLong >> 5;
-                }
-                // 把字符串存入对应索引的输出数组
-                resUrl[i] = outChars.toString();
+        // 对传入网址进行 MD5 加密
+        byte[] results = MD5.get().digest((KEY + url).getBytes());
+        char[] outChars = new char[6];
+        for (int i = 0; i < 4; i++) {
+            // 按4字节一组(即原先8位16进制)取大端整数, 与 0x3FFFFFFF 进行位与运算
+            long lHexLong = 0x3FFFFFFF & readInt(results, i * 4);
+            for (int j = 0; j < 6; j++) {
+                // 把得到的值与 0x0000003D 进行位与运算，取得字符数组 chars 索引
+                outChars[j] = CHARS[(int) (0x0000003D & lHexLong)];
+                // 每次循环按位右移 5 位
+                lHexLong = lHexLong >> 5;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            // 把字符串存入对应索引的输出数组
+            resUrl[i] = new String(outChars);
         }
         return resUrl;
     }
 
     /**
-     * 轮换字节数组为十六进制字符串
+     * 生成短码: 对MD5摘要按位每次取6位, 小于62时映射为字符, 否则丢弃后继续取, 各字符在字母表中均匀分布
+     *
+     * @param url    长链接
+     * @param length 短码长度(1-20)
+     * @return 短码
+     */
+    public static String shortCode(String url, int length) {
+        return shortCode(url, length, 0);
+    }
+
+    /**
+     * 生成短码, 冲突时以不同的attempt重新生成
      *
-     * @param b 字节数组
-     * @return 十六进制字符串
+     * @param url     长链接
+     * @param length  短码长度(1-20)
+     * @param attempt 重试序号, 0表示首次
+     * @return 短码
+     * @throws IllegalArgumentException url为null或长度不合法
      */
-    private static String byteArrayToHexString(byte[] b) {
-        StringBuilder resultSb = new StringBuilder();
-        for (byte value : b) {
-            resultSb.append(byteToHexString(value));
+    public static String shortCode(String url, int length, int attempt) {
+        if (url == null) {
+            throw new IllegalArgumentException("url is null.");
+        }
+        if (length <= 0 || length > 20) {
+            throw new IllegalArgumentException("短码长度必须在1-20之间");
+        }
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        MessageDigest md5 = MD5.get();
+        // 摘要按线程复用, 先清除之前调用可能残留的输入
+        md5.reset();
+        md5.update(KEY_BYTES);
+        md5.update(urlBytes);
+        if (attempt > 0) {
+            md5.update((byte) '#');
+            md5.update(Integer.toString(attempt).getBytes(StandardCharsets.UTF_8));
         }
-        return resultSb.toString();
+        byte[] digest = md5.digest();
+        char[] code = new char[length];
+        int count = encode(digest, code);
+        while (count < length) {
+            // 摘要的位数不够时(被丢弃的取值过多), 对摘要再求摘要继续取
+            digest = md5.digest(digest);
+            char[] rest = new char[length - count];
+            int n = encode(digest, rest);
+            System.arraycopy(rest, 0, code, count, n);
+            count += n;
+        }
+        return new String(code);
+    }
+
+    /**
+     * 创建进程内短码存储, 短码长度为{@link #DEFAULT_CODE_LENGTH}
+     */
+    public static ShortUrlStore store() {
+        return new ShortUrlStore(DEFAULT_CODE_LENGTH, 0);
+    }
+
+    /**
+     * 创建进程内短码存储
+     *
+     * @param codeLength   短码长度(1-20)
+     * @param expectedSize 预计的映射数, 用于预分配容量
+     */
+    public static ShortUrlStore store(int codeLength, int expectedSize) {
+        return new ShortUrlStore(codeLength, expectedSize);
     }
 
     /**
-     * 将一个字节转化成十六进制形式的字符串
+     * 将字节按位编码为字母表字符, 每次取6位
+     *
+     * @param bytes 字节
+     * @param out   输出字符
+     * @return 输出的字符数
      */
-    private static String byteToHexString(byte b) {
-        int n = b;
-        if (n < 0) {
-            n = 256 + n;
+    static int encode(byte[] bytes, char[] out) {
+        int count = 0;
+        long buffer = 0;
+        int bits = 0;
+        int index = 0;
+        while (count < out.length) {
+            if (bits < 6) {
+                if (index == bytes.length) {
+                    break;
+                }
+                buffer = (buffer << 8) | (bytes[index++] & 0xFF);
+                bits += 8;
+            }
+            int value = (int) (buffer >>> (bits - 6)) & 0x3F;
+            bits -= 6;
+            if (value < CHARS.length) {
+                out[count++] = CHARS[value];
+            }
         }
-        int d1 = n / 16;
-        int d2 = n % 16;
-        return hexDigits[d1] + hexDigits[d2];
+        return count;
+    }
+
+    private static long readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFFL) << 24) | ((bytes[offset + 1] & 0xFFL) << 16)
+                | ((bytes[offset + 2] & 0xFFL) << 8) | (bytes[offset + 3] & 0xFFL);
     }
 
     public static String getShortUrlStr(String url) {
@@ -1,10 +1,23 @@
 package com.changhong.sei.util;
 
-import java.nio.charset.StandardCharsets;
+import com.changhong.sei.util.sm.SM3Utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
- * 实现功能：
+ * 实现功能：签名
+ * <p>
+ * {@link #signer(Algorithm)}获取签名器, 通过{@link Builder}将各部分直接写入线程复用的摘要中, 无需先拼接字符串:
+ * <pre>
+ * boolean valid = Signature.signer(Signature.Algorithm.SHA256).builder()
+ *         .append(key).append(userLoginID).append(stamp)
+ *         .verify(token);
+ * </pre>
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2019-07-05 15:20
@@ -28,12 +41,404 @@ public class Signature {
         if (str == null) {
             return null;
         }
+        return SHA1.builder().append(str).sign();
+    }
+
+    /**
+     * 按原先的SHA1方式对各部分依次签名, 等同于sign(part1 + part2 + ...), 但不拼接字符串
+     *
+     * @param parts 各部分, null按"null"处理(与字符串拼接一致)
+     * @return 小写十六进制签名
+     */
+    public static String sign(String... parts) {
+        Builder builder = SHA1.builder();
+        for (String part : parts) {
+            builder.append(part);
+        }
+        return builder.sign();
+    }
+
+    /**
+     * 校验按原先的SHA1方式生成的签名, 比较耗时与内容无关
+     *
+     * @param signature 十六进制签名
+     * @param parts     各部分
+     * @return 是否一致
+     */
+    public static boolean verify(String signature, String... parts) {
+        Builder builder = SHA1.builder();
+        for (String part : parts) {
+            builder.append(part);
+        }
+        return builder.verify(signature);
+    }
+
+    /**
+     * 获取签名器; 摘要算法的签名器全局共享, 可每次调用获取而无需自行缓存
+     *
+     * @param algorithm 摘要算法, HMAC算法请使用{@link #signer(Algorithm, byte[])}
+     * @return 签名器
+     */
+    public static Signer signer(Algorithm algorithm) {
+        Signer signer = SIGNERS.get(algorithm);
+        if (signer == null) {
+            throw new IllegalArgumentException("HMAC密钥不能为空");
+        }
+        return signer;
+    }
+
+    /**
+     * 获取签名器
+     *
+     * @param algorithm 算法
+     * @param key       HMAC密钥, 非HMAC算法时忽略
+     * @return 签名器
+     */
+    public static Signer signer(Algorithm algorithm, byte[] key) {
+        if (algorithm.hmac && (key == null || key.length == 0)) {
+            throw new IllegalArgumentException("HMAC密钥不能为空");
+        }
+        return new Signer(algorithm, algorithm.hmac ? key.clone() : null);
+    }
+
+    /**
+     * 签名算法
+     */
+    public enum Algorithm {
+        /**
+         * SHA1(原有方式)
+         */
+        SHA1("SHA1", false),
+        /**
+         * SHA-256
+         */
+        SHA256("SHA-256", false),
+        /**
+         * HMAC-SHA256
+         */
+        HMAC_SHA256("HmacSHA256", true),
+        /**
+         * 国密SM3
+         */
+        SM3("SM3", false);
+
+        private final String jcaName;
+        private final boolean hmac;
+
+        Algorithm(String jcaName, boolean hmac) {
+            this.jcaName = jcaName;
+            this.hmac = hmac;
+        }
+    }
+
+    /**
+     * 签名器, 线程安全; 每个线程复用各自的摘要实例
+     */
+    public static final class Signer {
+        private final Algorithm algorithm;
+        private final ThreadLocal<Builder> builders;
+
+        Signer(Algorithm algorithm, byte[] key) {
+            this.algorithm = algorithm;
+            Builder first = new Builder(newEngine(algorithm, key));
+            // 创建时即校验算法与密钥可用, 首个实例留给当前线程
+            this.builders = ThreadLocal.withInitial(() -> new Builder(newEngine(algorithm, key)));
+            this.builders.set(first);
+        }
+
+        /**
+         * 开始一次签名; 返回当前线程复用的构建器, 须在同一线程内完成签名后再开始下一次
+         *
+         * @return 构建器
+         */
+        public Builder builder() {
+            return builders.get().reset();
+        }
+
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+    }
+
+    /**
+     * 签名构建器: 各部分直接写入摘要, 不拼接字符串. 非线程安全
+     */
+    public static final class Builder {
+        private final Engine engine;
+        private final byte[] buffer = new byte[256];
+        private int position;
+
+        Builder(Engine engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * 追加字符串(UTF-8), null按"null"处理
+         */
+        public Builder append(CharSequence part) {
+            if (part == null) {
+                part = "null";
+            }
+            int len = part.length();
+            for (int i = 0; i < len; i++) {
+                char c = part.charAt(i);
+                if (position > buffer.length - 4) {
+                    flush();
+                }
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(part.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, part.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (cp >> 18));
+                    buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // 与String.getBytes(UTF_8)一致, 不成对的代理字符替换为'?'
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 追加十进制数字, 等同于append(String.valueOf(value))
+         */
+        public Builder append(long value) {
+            if (position > buffer.length - 20) {
+                flush();
+            }
+            if (value == Long.MIN_VALUE) {
+                return append(String.valueOf(value));
+            }
+            if (value < 0) {
+                buffer[position++] = '-';
+                value = -value;
+            }
+            int start = position;
+            do {
+                buffer[position++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = position - 1; i < j; i++, j--) {
+                byte tmp = buffer[i];
+                buffer[i] = buffer[j];
+                buffer[j] = tmp;
+            }
+            return this;
+        }
+
+        /**
+         * 丢弃已追加但未完成签名的内容, 包括尚在缓冲区中的部分
+         */
+        public Builder reset() {
+            position = 0;
+            engine.reset();
+            return this;
+        }
+
+        /**
+         * 追加字节
+         */
+        public Builder append(byte[] part) {
+            return append(part, 0, part.length);
+        }
+
+        /**
+         * 追加字节
+         */
+        public Builder append(byte[] part, int offset, int len) {
+            flush();
+            engine.update(part, offset, len);
+            return this;
+        }
+
+        /**
+         * 完成签名
+         *
+         * @return 签名字节
+         */
+        public byte[] digest() {
+            flush();
+            return engine.digest();
+        }
+
+        /**
+         * 完成签名
+         *
+         * @return 小写十六进制签名
+         */
+        public String sign() {
+            return getFormattedText(digest());
+        }
+
+        /**
+         * 完成签名并与给定签名比较, 比较耗时与内容无关
+         *
+         * @param signature 签名字节
+         * @return 是否一致
+         */
+        public boolean verify(byte[] signature) {
+            return signature != null && MessageDigest.isEqual(digest(), signature);
+        }
+
+        /**
+         * 完成签名并与给定的十六进制签名(不区分大小写)比较; 直接逐字节比较, 不对计算结果做十六进制编码, 比较耗时与内容无关
+         *
+         * @param signature 十六进制签名
+         * @return 是否一致
+         */
+        public boolean verify(String signature) {
+            byte[] digest = digest();
+            if (signature == null || signature.length() != digest.length * 2) {
+                return false;
+            }
+            int diff = 0;
+            for (int i = 0; i < digest.length; i++) {
+                int high = hexValue(signature.charAt(i * 2));
+                int low = hexValue(signature.charAt(i * 2 + 1));
+                // 非法字符的取值含0x100位, 与字节异或后不会被抵消
+                diff |= ((high << 4) | low) ^ (digest[i] & 0xFF);
+            }
+            return diff == 0;
+        }
+
+        private void flush() {
+            if (position > 0) {
+                engine.update(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+
+    /**
+     * 摘要算法(非HMAC)的共享签名器
+     */
+    private static final Map<Algorithm, Signer> SIGNERS = keylessSigners();
+    private static final Signer SHA1 = SIGNERS.get(Algorithm.SHA1);
+
+    private static Map<Algorithm, Signer> keylessSigners() {
+        Map<Algorithm, Signer> signers = new EnumMap<>(Algorithm.class);
+        for (Algorithm algorithm : Algorithm.values()) {
+            if (!algorithm.hmac) {
+                signers.put(algorithm, new Signer(algorithm, null));
+            }
+        }
+        return signers;
+    }
+
+    /**
+     * 十六进制字符的值, 非法字符返回0x100; 不使用分支
+     */
+    private static int hexValue(char c) {
+        int digit = c - '0';
+        int letter = (c | 0x20) - 'a';
+        // 在范围内时掩码为-1, 否则为0
+        int digitMask = ~((digit | (9 - digit)) >> 31);
+        int letterMask = ~((letter | (5 - letter)) >> 31);
+        return (digit & digitMask) | ((letter + 10) & letterMask) | (~(digitMask | letterMask) & 0x100);
+    }
+
+    private static Engine newEngine(Algorithm algorithm, byte[] key) {
         try {
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA1");
-            messageDigest.update(str.getBytes(StandardCharsets.UTF_8));
-            return getFormattedText(messageDigest.digest());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            switch (algorithm) {
+                case SM3:
+                    return new Sm3Engine();
+                case HMAC_SHA256:
+                    Mac mac = Mac.getInstance(algorithm.jcaName);
+                    mac.init(new SecretKeySpec(key, algorithm.jcaName));
+                    return new MacEngine(mac);
+                default:
+                    return new DigestEngine(MessageDigest.getInstance(algorithm.jcaName));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 摘要实现, digest后自动重置
+     */
+    private interface Engine {
+        void update(byte[] in, int offset, int len);
+
+        byte[] digest();
+
+        void reset();
+    }
+
+    private static final class DigestEngine implements Engine {
+        private final MessageDigest digest;
+
+        DigestEngine(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void update(byte[] in, int offset, int len) {
+            digest.update(in, offset, len);
+        }
+
+        @Override
+        public byte[] digest() {
+            return digest.digest();
+        }
+
+        @Override
+        public void reset() {
+            digest.reset();
+        }
+    }
+
+    private static final class MacEngine implements Engine {
+        private final Mac mac;
+
+        MacEngine(Mac mac) {
+            this.mac = mac;
+        }
+
+        @Override
+        public void update(byte[] in, int offset, int len) {
+            mac.update(in, offset, len);
+        }
+
+        @Override
+        public byte[] digest() {
+            return mac.doFinal();
+        }
+
+        @Override
+        public void reset() {
+            mac.reset();
+        }
+    }
+
+    private static final class Sm3Engine implements Engine {
+        private final SM3Utils sm3 = new SM3Utils();
+
+        @Override
+        public void update(byte[] in, int offset, int len) {
+            sm3.update(in, offset, len);
+        }
+
+        @Override
+        public byte[] digest() {
+            byte[] out = new byte[sm3.getDigestSize()];
+            sm3.doFinal(out, 0);
+            sm3.reset();
+            return out;
+        }
+
+        @Override
+        public void reset() {
+            sm3.reset();
         }
     }
 
@@ -0,0 +1,122 @@
+package com.changhong.sei.util;
+
+import org.apache.commons.io.output.DeferredFileOutputStream;
+
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * 实现功能：可重复读取的溢出缓冲
+ * <p>
+ * 写入的数据不超过阈值时保存在内存中, 超过后转存到临时文件; 写入完成后可多次打开输入流重复读取.
+ * 用于替代将整个流缓存到{@link ByteArrayOutputStream}的做法, 关闭时删除临时文件.
+ * <pre>
+ * try (SpillBuffer buffer = FileUtils.cloneInputStream(in, 1024 * 1024)) {
+ *     try (InputStream first = buffer.openInputStream()) { ... }
+ *     try (InputStream second = buffer.openInputStream()) { ... }
+ * }
+ * </pre>
+ * 非线程安全; 写入完成(调用{@link #openInputStream()}或{@link #finish()})后可并发读取.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class SpillBuffer extends OutputStream {
+    private final DeferredFileOutputStream out;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * @param threshold 内存中保存的最大字节数
+     */
+    public SpillBuffer(int threshold) {
+        this(threshold, null);
+    }
+
+    /**
+     * @param threshold 内存中保存的最大字节数
+     * @param directory 临时文件目录, 为null时使用系统临时目录
+     */
+    public SpillBuffer(int threshold, File directory) {
+        this.out = new DeferredFileOutputStream(threshold, Math.min(threshold, 4096), "sei-spill", ".tmp", directory);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkWritable();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkWritable();
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * 结束写入
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            out.close();
+        }
+    }
+
+    /**
+     * @return 已写入的字节数
+     */
+    public long size() {
+        return out.getByteCount();
+    }
+
+    /**
+     * @return 数据是否仍在内存中
+     */
+    public boolean isInMemory() {
+        return out.isInMemory();
+    }
+
+    /**
+     * 打开一个新的输入流从头读取, 会先结束写入
+     *
+     * @return 输入流
+     */
+    public InputStream openInputStream() throws IOException {
+        if (closed) {
+            throw new IOException("SpillBuffer已关闭");
+        }
+        finish();
+        if (out.isInMemory()) {
+            byte[] data = out.getData();
+            return new ByteArrayInputStream(data == null ? new byte[0] : data);
+        }
+        return new BufferedInputStream(Files.newInputStream(out.getFile().toPath()));
+    }
+
+    /**
+     * 关闭并删除临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finish();
+        if (!out.isInMemory()) {
+            Files.deleteIfExists(out.getFile().toPath());
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (finished) {
+            throw new IOException("SpillBuffer已结束写入");
+        }
+    }
+}
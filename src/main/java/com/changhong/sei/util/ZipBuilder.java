@@ -0,0 +1,650 @@
+package com.changhong.sei.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * 实现功能：并行zip压缩
+ * <p>
+ * 各文件在线程池中以独立的{@link Deflater}并行压缩, 再按添加顺序依次写出到输出流;
+ * 通过{@link FileChannel}读取文件, 已压缩格式(zip/jpg/mp4等)或压缩后不变小的文件以STORED方式直接存储.
+ * 压缩结果(STORED文件为原始数据)不超过{@link #spillThreshold(int)}时缓存在内存, 否则暂存到临时文件, 写出时不再读取源文件;
+ * 同时在途的文件数受并行度限制. 压缩后不变小而改为直接存储的文件在写出时重新读取并校验CRC, 期间被修改时抛出{@link ZipException}.
+ * 支持Zip64, 文件名以UTF-8编码.
+ * <pre>
+ * ZipUtils.builder()
+ *         .addDirectory(new File("D:/log"), true)
+ *         .addFile(new File("D:/readme.txt"), "readme.txt")
+ *         .writeTo(out);
+ * </pre>
+ * 实例非线程安全, 每个实例只能写出一次.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ZipBuilder {
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int FLAG_UTF8 = 1 << 11;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    /**
+     * 默认以STORED方式存储的扩展名(已压缩格式)
+     */
+    public static final Set<String> DEFAULT_STORED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "jar", "war",
+            "jpg", "jpeg", "png", "gif", "webp", "mp3", "mp4", "avi", "mov", "mkv",
+            "docx", "xlsx", "pptx", "pdf")));
+
+    private final List<Source> sources = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private int bufferSize = 64 * 1024;
+    private int spillThreshold = 4 * 1024 * 1024;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+    private Set<String> storedExtensions = DEFAULT_STORED_EXTENSIONS;
+    private boolean written;
+
+    ZipBuilder() {
+    }
+
+    /**
+     * 读写缓冲区大小, 默认64K
+     */
+    public ZipBuilder bufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize必须大于0");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * 单个文件压缩结果(STORED文件为原始数据)在内存中缓存的上限, 超过时暂存到临时文件, 默认4M
+     */
+    public ZipBuilder spillThreshold(int spillThreshold) {
+        this.spillThreshold = Math.max(0, spillThreshold);
+        return this;
+    }
+
+    /**
+     * 压缩级别(0-9), 默认{@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public ZipBuilder level(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("无效的压缩级别: " + level);
+        }
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * 并行度, 默认为CPU核数; 指定了{@link #executor(ExecutorService)}时仅用于限制在途文件数
+     */
+    public ZipBuilder parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism必须大于0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 使用外部线程池压缩(不会被关闭); 未指定时每次写出创建并关闭一个固定大小的线程池
+     */
+    public ZipBuilder executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 以STORED方式存储的扩展名(小写, 不含点)
+     */
+    public ZipBuilder storedExtensions(Collection<String> extensions) {
+        Set<String> set = new HashSet<>();
+        for (String extension : extensions) {
+            set.add(extension.toLowerCase());
+        }
+        this.storedExtensions = set;
+        return this;
+    }
+
+    /**
+     * 添加文件
+     *
+     * @param file      文件
+     * @param entryName 压缩包中的名称
+     * @throws ZipException 名称重复
+     */
+    public ZipBuilder addFile(File file, String entryName) throws ZipException {
+        return addFile(file.toPath(), entryName);
+    }
+
+    /**
+     * 添加文件
+     *
+     * @param file      文件
+     * @param entryName 压缩包中的名称
+     * @throws ZipException 名称重复
+     */
+    public ZipBuilder addFile(Path file, String entryName) throws ZipException {
+        add(new Source(file, normalize(entryName), false));
+        return this;
+    }
+
+    /**
+     * 添加目录(含子目录)
+     *
+     * @param dir              目录, 为文件时直接添加该文件
+     * @param keepDirStructure 是否保留原来的目录结构,true:保留目录结构;
+     *                         false:所有文件跑到压缩包根目录下(注意：不保留目录结构可能会出现同名文件,会压缩失败)
+     * @throws ZipException 名称重复
+     */
+    public ZipBuilder addDirectory(File dir, boolean keepDirStructure) throws ZipException {
+        addTree(dir, dir.getName(), keepDirStructure);
+        return this;
+    }
+
+    /**
+     * 压缩并写出到输出流, 不关闭输出流
+     *
+     * @param out 输出流
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (written) {
+            throw new IllegalStateException("ZipBuilder只能写出一次");
+        }
+        written = true;
+        ExecutorService pool = executor;
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, sources.size())));
+        }
+        CountingOutputStream cos = new CountingOutputStream(out);
+        List<Entry> entries = new ArrayList<>(sources.size());
+        Deque<Future<Entry>> inFlight = new ArrayDeque<>();
+        int window = parallelism * 2;
+        int next = 0;
+        try {
+            while (next < sources.size() || !inFlight.isEmpty()) {
+                while (next < sources.size() && inFlight.size() < window) {
+                    Source source = sources.get(next++);
+                    inFlight.add(pool.submit(() -> prepare(source)));
+                }
+                Entry entry = await(inFlight.poll());
+                try {
+                    writeEntry(entry, cos);
+                } finally {
+                    entry.release();
+                }
+                entries.add(entry);
+            }
+            writeCentralDirectory(entries, cos);
+            cos.flush();
+        } finally {
+            for (Future<Entry> future : inFlight) {
+                future.cancel(true);
+                releaseQuietly(future);
+            }
+            if (executor == null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private void addTree(File file, String name, boolean keepDirStructure) throws ZipException {
+        if (file.isFile()) {
+            add(new Source(file.toPath(), normalize(name), false));
+            return;
+        }
+        File[] listFiles = file.listFiles();
+        if (listFiles == null || listFiles.length == 0) {
+            // 需要保留原来的文件结构时,需要对空文件夹进行处理
+            if (keepDirStructure) {
+                add(new Source(file.toPath(), normalize(name) + "/", true));
+            }
+            return;
+        }
+        Arrays.sort(listFiles);
+        for (File child : listFiles) {
+            addTree(child, keepDirStructure ? name + "/" + child.getName() : child.getName(), keepDirStructure);
+        }
+    }
+
+    private void add(Source source) throws ZipException {
+        if (!names.add(source.name)) {
+            throw new ZipException("duplicate entry: " + source.name);
+        }
+        sources.add(source);
+    }
+
+    private static String normalize(String entryName) {
+        String name = entryName.replace('\\', '/');
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("entryName不能为空");
+        }
+        return name;
+    }
+
+    /**
+     * 在工作线程中计算CRC并压缩
+     */
+    private Entry prepare(Source source) throws IOException {
+        Entry entry = new Entry(source);
+        if (source.directory) {
+            entry.method = METHOD_STORED;
+            return entry;
+        }
+        entry.time = Files.getLastModifiedTime(source.path).toMillis();
+        boolean stored = level == Deflater.NO_COMPRESSION || storedExtensions.contains(extension(source.name));
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(source.path, StandardOpenOption.READ)) {
+            if (stored) {
+                // 与计算CRC同一次读取的数据一并缓存, 保证写出的数据与CRC一致
+                Spool spool = new Spool(spillThreshold);
+                try {
+                    while (channel.read(buffer) != -1) {
+                        crc.update(buffer.array(), 0, buffer.position());
+                        entry.size += buffer.position();
+                        spool.write(buffer.array(), 0, buffer.position());
+                        buffer.clear();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    spool.release();
+                    throw e;
+                }
+                entry.method = METHOD_STORED;
+                entry.compressedSize = entry.size;
+                entry.spool = spool;
+            } else {
+                deflate(channel, buffer, crc, entry);
+            }
+        }
+        entry.crc = crc.getValue();
+        return entry;
+    }
+
+    private void deflate(FileChannel channel, ByteBuffer buffer, CRC32 crc, Entry entry) throws IOException {
+        Deflater deflater = new Deflater(level, true);
+        Spool spool = new Spool(spillThreshold);
+        byte[] out = new byte[bufferSize];
+        try {
+            while (channel.read(buffer) != -1) {
+                int len = buffer.position();
+                crc.update(buffer.array(), 0, len);
+                entry.size += len;
+                deflater.setInput(buffer.array(), 0, len);
+                while (!deflater.needsInput()) {
+                    int n = deflater.deflate(out);
+                    spool.write(out, 0, n);
+                }
+                buffer.clear();
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(out);
+                spool.write(out, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            spool.release();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        if (spool.size() >= entry.size) {
+            // 压缩后未变小, 改为直接存储
+            spool.release();
+            entry.method = METHOD_STORED;
+            entry.compressedSize = entry.size;
+        } else {
+            entry.method = METHOD_DEFLATED;
+            entry.compressedSize = spool.size();
+            entry.spool = spool;
+        }
+    }
+
+    private static String extension(String name) {
+        int index = name.lastIndexOf('.');
+        return index < 0 || index < name.lastIndexOf('/') ? "" : name.substring(index + 1).toLowerCase();
+    }
+
+    private void writeEntry(Entry entry, CountingOutputStream out) throws IOException {
+        entry.offset = out.count;
+        byte[] name = entry.source.name.getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+        DataBuffer header = new DataBuffer(30 + name.length + 20);
+        header.putInt(LOCAL_HEADER_SIG);
+        header.putShort(zip64 ? 45 : 20);
+        header.putShort(FLAG_UTF8);
+        header.putShort(entry.method);
+        header.putInt(dosTime(entry.time));
+        header.putInt((int) entry.crc);
+        header.putInt(zip64 ? (int) ZIP64_MAGIC : (int) entry.compressedSize);
+        header.putInt(zip64 ? (int) ZIP64_MAGIC : (int) entry.size);
+        header.putShort(name.length);
+        header.putShort(zip64 ? 20 : 0);
+        header.put(name);
+        if (zip64) {
+            header.putShort(ZIP64_EXTRA_ID);
+            header.putShort(16);
+            header.putLong(entry.size);
+            header.putLong(entry.compressedSize);
+        }
+        header.writeTo(out);
+
+        if (entry.source.directory) {
+            return;
+        }
+        long written = out.count;
+        if (entry.spool != null) {
+            entry.spool.writeTo(out, bufferSize);
+        } else if (copyFile(entry.source.path, out) != entry.crc) {
+            throw new ZipException("文件在压缩过程中被修改: " + entry.source.path);
+        }
+        if (out.count - written != entry.compressedSize) {
+            throw new ZipException("文件在压缩过程中被修改: " + entry.source.path);
+        }
+    }
+
+    /**
+     * 复制源文件内容
+     *
+     * @return 复制内容的CRC
+     */
+    private long copyFile(Path path, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                crc.update(buffer.array(), 0, buffer.position());
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private void writeCentralDirectory(List<Entry> entries, CountingOutputStream out) throws IOException {
+        long start = out.count;
+        for (Entry entry : entries) {
+            byte[] name = entry.source.name.getBytes(StandardCharsets.UTF_8);
+            boolean bigSize = entry.size >= ZIP64_MAGIC;
+            boolean bigCompressed = entry.compressedSize >= ZIP64_MAGIC;
+            boolean bigOffset = entry.offset >= ZIP64_MAGIC;
+            int extraLength = (bigSize ? 8 : 0) + (bigCompressed ? 8 : 0) + (bigOffset ? 8 : 0);
+            boolean zip64 = extraLength > 0;
+            DataBuffer header = new DataBuffer(46 + name.length + (zip64 ? 4 + extraLength : 0));
+            header.putInt(CENTRAL_HEADER_SIG);
+            header.putShort(zip64 ? 45 : 20);
+            header.putShort(zip64 ? 45 : 20);
+            header.putShort(FLAG_UTF8);
+            header.putShort(entry.method);
+            header.putInt(dosTime(entry.time));
+            header.putInt((int) entry.crc);
+            header.putInt(bigCompressed ? (int) ZIP64_MAGIC : (int) entry.compressedSize);
+            header.putInt(bigSize ? (int) ZIP64_MAGIC : (int) entry.size);
+            header.putShort(name.length);
+            header.putShort(zip64 ? 4 + extraLength : 0);
+            // comment length, disk number, internal attributes
+            header.putShort(0);
+            header.putShort(0);
+            header.putShort(0);
+            header.putInt(entry.source.directory ? 0x10 : 0);
+            header.putInt(bigOffset ? (int) ZIP64_MAGIC : (int) entry.offset);
+            header.put(name);
+            if (zip64) {
+                header.putShort(ZIP64_EXTRA_ID);
+                header.putShort(extraLength);
+                if (bigSize) {
+                    header.putLong(entry.size);
+                }
+                if (bigCompressed) {
+                    header.putLong(entry.compressedSize);
+                }
+                if (bigOffset) {
+                    header.putLong(entry.offset);
+                }
+            }
+            header.writeTo(out);
+        }
+        long end = out.count;
+        long size = end - start;
+        boolean zip64 = entries.size() >= ZIP64_MAGIC_COUNT || start >= ZIP64_MAGIC || size >= ZIP64_MAGIC;
+        DataBuffer trailer = new DataBuffer(56 + 20 + 22);
+        if (zip64) {
+            trailer.putInt(ZIP64_END_SIG);
+            trailer.putLong(44);
+            trailer.putShort(45);
+            trailer.putShort(45);
+            trailer.putInt(0);
+            trailer.putInt(0);
+            trailer.putLong(entries.size());
+            trailer.putLong(entries.size());
+            trailer.putLong(size);
+            trailer.putLong(start);
+            trailer.putInt(ZIP64_LOCATOR_SIG);
+            trailer.putInt(0);
+            trailer.putLong(end);
+            trailer.putInt(1);
+        }
+        trailer.putInt(END_SIG);
+        trailer.putShort(0);
+        trailer.putShort(0);
+        trailer.putShort(zip64 ? ZIP64_MAGIC_COUNT : entries.size());
+        trailer.putShort(zip64 ? ZIP64_MAGIC_COUNT : entries.size());
+        trailer.putInt(zip64 ? (int) ZIP64_MAGIC : (int) size);
+        trailer.putInt(zip64 ? (int) ZIP64_MAGIC : (int) start);
+        trailer.putShort(0);
+        trailer.writeTo(out);
+    }
+
+    private static int dosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    private static Entry await(Future<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("zip interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void releaseQuietly(Future<Entry> future) {
+        try {
+            future.get().release();
+        } catch (Exception e) {
+            // 已取消或失败, 无需释放
+        }
+    }
+
+    private static final class Source {
+        private final Path path;
+        private final String name;
+        private final boolean directory;
+
+        Source(Path path, String name, boolean directory) {
+            this.path = path;
+            this.name = name;
+            this.directory = directory;
+        }
+    }
+
+    private static final class Entry {
+        private final Source source;
+        private int method;
+        private long time = System.currentTimeMillis();
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long offset;
+        private Spool spool;
+
+        Entry(Source source) {
+            this.source = source;
+        }
+
+        void release() {
+            if (spool != null) {
+                spool.release();
+                spool = null;
+            }
+        }
+    }
+
+    /**
+     * 压缩结果缓存: 超过阈值后转存到临时文件
+     */
+    private static final class Spool {
+        private final int threshold;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+        private long size;
+
+        Spool(int threshold) {
+            this.threshold = threshold;
+        }
+
+        void write(byte[] b, int off, int len) throws IOException {
+            if (len <= 0) {
+                return;
+            }
+            if (fileOut == null && size + len > threshold) {
+                file = Files.createTempFile("sei-zip", ".tmp");
+                fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+            size += len;
+        }
+
+        long size() {
+            return size;
+        }
+
+        void writeTo(OutputStream out, int bufferSize) throws IOException {
+            if (fileOut == null) {
+                memory.writeTo(out);
+                return;
+            }
+            fileOut.close();
+            ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (channel.read(buffer) != -1) {
+                    out.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+            }
+        }
+
+        void release() {
+            memory = null;
+            if (file != null) {
+                try {
+                    fileOut.close();
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+                file = null;
+            }
+        }
+    }
+
+    /**
+     * 小端序头部缓冲
+     */
+    private static final class DataBuffer {
+        private final ByteBuffer buffer;
+
+        DataBuffer(int capacity) {
+            buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void putShort(int value) {
+            buffer.putShort((short) value);
+        }
+
+        void putInt(int value) {
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) {
+            buffer.putLong(value);
+        }
+
+        void put(byte[] bytes) {
+            buffer.put(bytes);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(buffer.array(), 0, buffer.position());
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
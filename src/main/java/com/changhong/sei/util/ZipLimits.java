@@ -0,0 +1,187 @@
+package com.changhong.sei.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.zip.ZipException;
+
+/**
+ * 实现功能：解压限制(防zip炸弹)
+ * <p>
+ * 按实际解压出的字节数检查单个文件大小、解压总大小及压缩比, 不信任压缩包中声明的解压后大小.
+ * 压缩比中的压缩字节数: 流式解压时为实际读取的字节数, {@link ZipReader}为中央目录声明的压缩大小(以压缩包大小为上限).
+ * 压缩比仅在单个文件解压超过{@link #getRatioThreshold()}字节后检查, 避免小文件误判.
+ * 实例创建后不可变, 线程安全.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ZipLimits {
+    /**
+     * 默认限制: 单文件1G, 总计4G, 压缩比100, 最多10000个文件
+     */
+    public static final ZipLimits DEFAULT = new ZipLimits(1L << 30, 4L << 30, 100, 10000, 1 << 20);
+    /**
+     * 不限制
+     */
+    public static final ZipLimits UNLIMITED = new ZipLimits(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long maxEntrySize;
+    private final long maxTotalSize;
+    private final int maxRatio;
+    private final int maxEntries;
+    private final long ratioThreshold;
+
+    private ZipLimits(long maxEntrySize, long maxTotalSize, int maxRatio, int maxEntries, long ratioThreshold) {
+        this.maxEntrySize = maxEntrySize;
+        this.maxTotalSize = maxTotalSize;
+        this.maxRatio = maxRatio;
+        this.maxEntries = maxEntries;
+        this.ratioThreshold = ratioThreshold;
+    }
+
+    /**
+     * @param maxEntrySize 单个文件解压后的最大字节数
+     * @return 新的限制
+     */
+    public ZipLimits withMaxEntrySize(long maxEntrySize) {
+        return new ZipLimits(maxEntrySize, maxTotalSize, maxRatio, maxEntries, ratioThreshold);
+    }
+
+    /**
+     * @param maxTotalSize 解压总字节数上限
+     * @return 新的限制
+     */
+    public ZipLimits withMaxTotalSize(long maxTotalSize) {
+        return new ZipLimits(maxEntrySize, maxTotalSize, maxRatio, maxEntries, ratioThreshold);
+    }
+
+    /**
+     * @param maxRatio 单个文件最大压缩比(解压后大小/压缩后大小)
+     * @return 新的限制
+     */
+    public ZipLimits withMaxRatio(int maxRatio) {
+        return new ZipLimits(maxEntrySize, maxTotalSize, maxRatio, maxEntries, ratioThreshold);
+    }
+
+    /**
+     * @param maxEntries 最大文件数
+     * @return 新的限制
+     */
+    public ZipLimits withMaxEntries(int maxEntries) {
+        return new ZipLimits(maxEntrySize, maxTotalSize, maxRatio, maxEntries, ratioThreshold);
+    }
+
+    /**
+     * @param ratioThreshold 单个文件解压超过该字节数后才检查压缩比
+     * @return 新的限制
+     */
+    public ZipLimits withRatioThreshold(long ratioThreshold) {
+        return new ZipLimits(maxEntrySize, maxTotalSize, maxRatio, maxEntries, ratioThreshold);
+    }
+
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public long getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public int getMaxRatio() {
+        return maxRatio;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getRatioThreshold() {
+        return ratioThreshold;
+    }
+
+    /**
+     * 检查文件数
+     */
+    void checkEntries(int entries) throws ZipException {
+        if (entries > maxEntries) {
+            throw new ZipException("压缩包文件数超过限制: " + maxEntries);
+        }
+    }
+
+    /**
+     * 包装解压流, 读取时检查限制
+     *
+     * @param in             解压流
+     * @param name           文件名
+     * @param compressedSize 已读取的压缩字节数
+     * @param total          解压总字节数计数器(多个文件共享)
+     */
+    InputStream limit(InputStream in, String name, LongSupplier compressedSize, AtomicLong total) {
+        return new LimitedInputStream(in, name, compressedSize, total);
+    }
+
+    private final class LimitedInputStream extends FilterInputStream {
+        private final String name;
+        private final LongSupplier compressedSize;
+        private final AtomicLong total;
+        private long count;
+
+        LimitedInputStream(InputStream in, String name, LongSupplier compressedSize, AtomicLong total) {
+            super(in);
+            this.name = name;
+            this.compressedSize = compressedSize;
+            this.total = total;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                consumed(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            if (skipped > 0) {
+                consumed(skipped);
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void consumed(long n) throws ZipException {
+            count += n;
+            if (count > maxEntrySize) {
+                throw new ZipException("文件解压后超过大小限制: " + name);
+            }
+            if (total != null && total.addAndGet(n) > maxTotalSize) {
+                throw new ZipException("压缩包解压后超过总大小限制: " + maxTotalSize);
+            }
+            if (count > ratioThreshold) {
+                long compressed = Math.max(1, compressedSize.getAsLong());
+                if (count / compressed > maxRatio) {
+                    throw new ZipException("文件压缩比超过限制: " + name);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.changhong.sei.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * 实现功能：zip读取与解压
+ * <p>
+ * 基于中央目录随机访问, 可直接按文件名获取解压流而无需临时文件, 也可并行解压到目录.
+ * 所有解压流均受{@link ZipLimits}限制, 解压到目录时拒绝指向目标目录之外的文件名(zip slip).
+ * 解压总大小按每次{@link #extractTo(Path)}(或每个{@link #getInputStream(ZipEntry)}返回的流)分别计算.
+ * {@link ZipFile}不暴露压缩数据的原始流, 压缩比按中央目录声明的压缩大小计算:
+ * ZipFile对每个文件至多读取声明的压缩字节数, 声明值另以压缩包文件大小为上限, 因此不会因伪造过大的声明值而放过zip炸弹.
+ * <pre>
+ * try (ZipReader reader = ZipUtils.open(file)) {
+ *     for (ZipEntry entry : reader.getEntries()) {
+ *         ...
+ *     }
+ *     reader.extractTo(destDir, 4);
+ * }
+ * </pre>
+ * 线程安全, 可并发读取不同文件.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ZipReader implements Closeable {
+    private final ZipFile zipFile;
+    private final ZipLimits limits;
+    private final List<ZipEntry> entries;
+    /**
+     * 压缩包文件大小, 作为各文件压缩大小的上限
+     */
+    private final long archiveSize;
+
+    ZipReader(Path path, Charset charset, ZipLimits limits) throws IOException {
+        this.zipFile = new ZipFile(path.toFile(), charset);
+        this.limits = limits;
+        this.archiveSize = path.toFile().length();
+        try {
+            limits.checkEntries(zipFile.size());
+            List<ZipEntry> list = new ArrayList<>(zipFile.size());
+            Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+            while (enumeration.hasMoreElements()) {
+                list.add(enumeration.nextElement());
+            }
+            this.entries = Collections.unmodifiableList(list);
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return 全部文件(含目录), 按中央目录顺序
+     */
+    public List<ZipEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @param name 文件名
+     * @return 文件, 不存在时返回null
+     */
+    public ZipEntry getEntry(String name) {
+        return zipFile.getEntry(name);
+    }
+
+    /**
+     * @return 文件数(含目录)
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return 各文件声明的解压后总大小(未知时按0计)
+     */
+    public long getDeclaredSize() {
+        long size = 0;
+        for (ZipEntry entry : entries) {
+            size += Math.max(0, entry.getSize());
+        }
+        return size;
+    }
+
+    /**
+     * 获取文件的解压流
+     *
+     * @param name 文件名
+     * @return 解压流, 调用方负责关闭
+     * @throws ZipException 文件不存在
+     */
+    public InputStream getInputStream(String name) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        if (entry == null) {
+            throw new ZipException("文件不存在: " + name);
+        }
+        return getInputStream(entry);
+    }
+
+    /**
+     * 获取文件的解压流
+     *
+     * @param entry 文件
+     * @return 解压流, 调用方负责关闭
+     */
+    public InputStream getInputStream(ZipEntry entry) throws IOException {
+        return getInputStream(entry, new AtomicLong());
+    }
+
+    /**
+     * @param total 解压总字节数计数器, 同一次解压的各文件共享
+     */
+    private InputStream getInputStream(ZipEntry entry, AtomicLong total) throws IOException {
+        long declared = entry.getCompressedSize();
+        long compressedSize = declared < 0 ? archiveSize : Math.min(declared, archiveSize);
+        return limits.limit(zipFile.getInputStream(entry), entry.getName(), () -> compressedSize, total);
+    }
+
+    /**
+     * 解压全部文件到目录
+     *
+     * @param destDir 目标目录
+     */
+    public void extractTo(Path destDir) throws IOException {
+        extractTo(destDir, 1);
+    }
+
+    /**
+     * 并行解压全部文件到目录
+     *
+     * @param destDir     目标目录
+     * @param parallelism 并行度
+     */
+    public void extractTo(Path destDir, int parallelism) throws IOException {
+        if (parallelism <= 1) {
+            Path root = prepareDirectories(destDir);
+            AtomicLong total = new AtomicLong();
+            for (ZipEntry entry : entries) {
+                extract(entry, root, total);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            extractTo(destDir, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 使用指定线程池并行解压全部文件到目录, 线程池不会被关闭
+     *
+     * @param destDir  目标目录
+     * @param executor 线程池
+     */
+    public void extractTo(Path destDir, ExecutorService executor) throws IOException {
+        Path root = prepareDirectories(destDir);
+        AtomicLong total = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>(entries.size());
+        try {
+            for (ZipEntry entry : entries) {
+                if (!entry.isDirectory()) {
+                    futures.add(executor.submit(() -> {
+                        extract(entry, root, total);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("unzip interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 先按顺序建好全部目录, 并发解压时无需再竞争创建
+     */
+    private Path prepareDirectories(Path destDir) throws IOException {
+        Path root = Files.createDirectories(destDir).toRealPath();
+        Set<Path> created = new HashSet<>();
+        for (ZipEntry entry : entries) {
+            Path target = ZipUtils.resolveEntry(root, entry.getName());
+            Path dir = entry.isDirectory() ? target : target.getParent();
+            if (created.add(dir)) {
+                Files.createDirectories(dir);
+            }
+        }
+        return root;
+    }
+
+    private void extract(ZipEntry entry, Path root, AtomicLong total) throws IOException {
+        if (entry.isDirectory()) {
+            return;
+        }
+        Path target = ZipUtils.resolveEntry(root, entry.getName());
+        try (InputStream in = getInputStream(entry, total)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+}
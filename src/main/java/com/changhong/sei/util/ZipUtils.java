@@ -1,19 +1,37 @@
 package com.changhong.sei.util;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
 
 /**
- * 实现功能：文件或目录zip压缩
+ * 实现功能：文件或目录zip压缩及解压
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2020-04-07 00:41
  */
 public class ZipUtils {
-    private static final int BUFFER_SIZE = 2 * 1024;
+
+    /**
+     * 创建并行zip压缩构建器
+     * <p>
+     * 各文件并行压缩后按添加顺序写出, 已压缩格式的文件直接存储, 可配置缓冲区大小、压缩级别及线程池
+     *
+     * @return zip压缩构建器
+     * @see ZipBuilder
+     */
+    public static ZipBuilder builder() {
+        return new ZipBuilder();
+    }
 
     /**
      * 压缩成ZIP 方法1
@@ -27,23 +45,14 @@ public class ZipUtils {
     public static void toZip(String srcDir, OutputStream out, boolean keepDirStructure)
             throws RuntimeException {
         long start = System.currentTimeMillis();
-        ZipOutputStream zos = null;
         try {
-            zos = new ZipOutputStream(out);
-            File sourceFile = new File(srcDir);
-            compress(sourceFile, zos, sourceFile.getName(), keepDirStructure);
+            builder().addDirectory(new File(srcDir), keepDirStructure).writeTo(out);
             long end = System.currentTimeMillis();
             System.out.println("压缩完成，耗时：" + (end - start) + " ms");
         } catch (Exception e) {
             throw new RuntimeException("zip error from ZipUtils", e);
         } finally {
-            if (zos != null) {
-                try {
-                    zos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+            closeQuietly(out);
         }
     }
 
@@ -56,82 +65,173 @@ public class ZipUtils {
      */
     public static void toZip(List<File> srcFiles, OutputStream out) throws RuntimeException {
         long start = System.currentTimeMillis();
-        ZipOutputStream zos = null;
         try {
-            zos = new ZipOutputStream(out);
+            ZipBuilder builder = builder();
             for (File srcFile : srcFiles) {
-                byte[] buf = new byte[BUFFER_SIZE];
-                zos.putNextEntry(new ZipEntry(srcFile.getName()));
-                int len;
-                FileInputStream in = new FileInputStream(srcFile);
-                while ((len = in.read(buf)) != -1) {
-                    zos.write(buf, 0, len);
-                }
-                zos.closeEntry();
-                in.close();
+                builder.addFile(srcFile, srcFile.getName());
             }
+            builder.writeTo(out);
             long end = System.currentTimeMillis();
             System.out.println("压缩完成，耗时：" + (end - start) + " ms");
         } catch (Exception e) {
             throw new RuntimeException("zip error from ZipUtils", e);
         } finally {
-            if (zos != null) {
-                try {
-                    zos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+            closeQuietly(out);
         }
     }
 
     /**
-     * 递归压缩方法
+     * 打开zip文件(UTF-8文件名, 默认解压限制)
      *
-     * @param sourceFile       源文件
-     * @param zos              zip输出流
-     * @param name             压缩后的名称
-     * @param keepDirStructure 是否保留原来的目录结构,true:保留目录结构;
-     *                         false:所有文件跑到压缩包根目录下(注意：不保留目录结构可能会出现同名文件,会压缩失败)
-     * @throws Exception
+     * @param zipFile zip文件
+     * @return zip读取器, 调用方负责关闭
      */
-    private static void compress(File sourceFile, ZipOutputStream zos, String name,
-                                 boolean keepDirStructure) throws Exception {
-        byte[] buf = new byte[BUFFER_SIZE];
-        if (sourceFile.isFile()) {
-            // 向zip输出流中添加一个zip实体，构造器中name为zip实体的文件的名字
-            zos.putNextEntry(new ZipEntry(name));
-            // copy文件到zip输出流中
-            int len;
-            FileInputStream in = new FileInputStream(sourceFile);
-            while ((len = in.read(buf)) != -1) {
-                zos.write(buf, 0, len);
-            }
-            // Complete the entry
-            zos.closeEntry();
-            in.close();
-        } else {
-            File[] listFiles = sourceFile.listFiles();
-            if (listFiles == null || listFiles.length == 0) {
-                // 需要保留原来的文件结构时,需要对空文件夹进行处理
-                if (keepDirStructure) {
-                    // 空文件夹的处理
-                    zos.putNextEntry(new ZipEntry(name + File.separator));
-                    // 没有文件，不需要文件的copy
-                    zos.closeEntry();
-                }
+    public static ZipReader open(File zipFile) throws IOException {
+        return open(zipFile.toPath(), StandardCharsets.UTF_8, ZipLimits.DEFAULT);
+    }
+
+    /**
+     * 打开zip文件
+     *
+     * @param zipFile zip文件
+     * @param charset 文件名编码(Windows下生成的压缩包通常为GBK)
+     * @param limits  解压限制
+     * @return zip读取器, 调用方负责关闭
+     */
+    public static ZipReader open(Path zipFile, Charset charset, ZipLimits limits) throws IOException {
+        return new ZipReader(zipFile, charset, limits);
+    }
+
+    /**
+     * 解压zip文件到目录(默认解压限制)
+     *
+     * @param zipFile zip文件
+     * @param destDir 目标目录
+     * @throws RuntimeException 解压失败会抛出运行时异常
+     */
+    public static void unzip(File zipFile, File destDir) throws RuntimeException {
+        try (ZipReader reader = open(zipFile)) {
+            reader.extractTo(destDir.toPath(), Runtime.getRuntime().availableProcessors());
+        } catch (IOException e) {
+            throw new RuntimeException("unzip error from ZipUtils", e);
+        }
+    }
+
+    /**
+     * 从流中逐个读取zip文件, 不落盘也不整体缓存(适用于上传的压缩包)
+     *
+     * @param in      zip输入流, 不会被关闭
+     * @param charset 文件名编码
+     * @param limits  解压限制
+     * @param handler 文件处理器, 传入的解压流仅在回调内有效
+     */
+    public static void forEachEntry(InputStream in, Charset charset, ZipLimits limits, EntryHandler handler) throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        ZipInputStream zis = new ZipInputStream(counting, charset);
+        AtomicLong total = new AtomicLong();
+        int entries = 0;
+        ZipEntry entry;
+        while ((entry = zis.getNextEntry()) != null) {
+            limits.checkEntries(++entries);
+            long start = counting.count;
+            InputStream entryIn = limits.limit(new NonClosingInputStream(zis), entry.getName(), () -> counting.count - start, total);
+            handler.handle(entry, entryIn);
+            zis.closeEntry();
+        }
+    }
+
+    /**
+     * 从流中解压到目录
+     *
+     * @param in      zip输入流, 不会被关闭
+     * @param destDir 目标目录
+     * @param limits  解压限制
+     */
+    public static void unzip(InputStream in, Path destDir, ZipLimits limits) throws IOException {
+        Path root = Files.createDirectories(destDir).toRealPath();
+        forEachEntry(in, StandardCharsets.UTF_8, limits, (entry, entryIn) -> {
+            Path target = resolveEntry(root, entry.getName());
+            if (entry.isDirectory()) {
+                Files.createDirectories(target);
             } else {
-                for (File file : listFiles) {
-                    // 判断是否需要保留原来的文件结构
-                    if (keepDirStructure) {
-                        // 注意：file.getName()前面需要带上父文件夹的名字加一斜杠,
-                        // 不然最后压缩包中就不能保留原来的文件结构,即：所有文件都跑到压缩包根目录下了
-                        compress(file, zos, name + File.separator + file.getName(), keepDirStructure);
-                    } else {
-                        compress(file, zos, file.getName(), keepDirStructure);
-                    }
-                }
+                Files.createDirectories(target.getParent());
+                Files.copy(entryIn, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
+    }
+
+    /**
+     * 解析文件在目标目录下的路径, 拒绝指向目录之外的文件名(zip slip)
+     */
+    static Path resolveEntry(Path root, String name) throws ZipException {
+        Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+            throw new ZipException("非法的文件名: " + name);
+        }
+        return target;
+    }
+
+    /**
+     * zip文件处理器
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+        /**
+         * @param entry 文件
+         * @param in    解压流, 无需关闭
+         */
+        void handle(ZipEntry entry, InputStream in) throws IOException;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
             }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static final class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // 由ZipInputStream.closeEntry结束当前文件
+        }
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
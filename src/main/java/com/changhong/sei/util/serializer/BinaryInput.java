@@ -0,0 +1,213 @@
+package com.changhong.sei.util.serializer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * 实现功能：二进制编码输入缓冲
+ * <p>
+ * 可直接读取字节数组(无拷贝), 或从输入流读取. 读取输入流时不会越过对象末尾:
+ * 输入流支持mark/reset时按块读取, 结束后回退多读的部分; 否则只读取当前需要的字节数.
+ * 非线程安全.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+final class BinaryInput {
+    private final InputStream in;
+    /**
+     * 输入流是否支持mark/reset, 支持时按块读取
+     */
+    private final boolean markable;
+    private final byte[] buf;
+    /**
+     * 长度(字节数组、字符串、数组及集合的元素个数)上限
+     */
+    private final int maxLength;
+    private int pos;
+    private int limit;
+    /**
+     * 已从输入流读入缓冲区的字节总数
+     */
+    private long filled;
+
+    /**
+     * 直接读取字节数组
+     */
+    BinaryInput(byte[] bytes, int offset, int length, int maxLength) {
+        this.in = null;
+        this.markable = false;
+        this.buf = bytes;
+        this.maxLength = maxLength;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * 经缓冲区读取输入流
+     */
+    BinaryInput(byte[] buf, InputStream in, int maxLength) {
+        this.in = in;
+        this.markable = in.markSupported();
+        this.buf = buf;
+        this.maxLength = maxLength;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    /**
+     * @return 已消费的字节数(仅输入流模式)
+     */
+    long consumed() {
+        return filled - (limit - pos);
+    }
+
+    /**
+     * 读取完一个对象后调用, 将输入流中多读的字节退回
+     */
+    void finish() throws IOException {
+        if (in == null || !markable || pos == limit) {
+            return;
+        }
+        in.reset();
+        long remaining = pos;
+        while (remaining > 0) {
+            long n = in.skip(remaining);
+            if (n <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                n = 1;
+            }
+            remaining -= n;
+        }
+        filled -= limit - pos;
+        limit = pos;
+    }
+
+    /**
+     * @param wanted 当前需要的字节数, 输入流不支持mark/reset时最多读取该字节数
+     */
+    private boolean fill(int wanted) throws IOException {
+        if (in == null) {
+            return false;
+        }
+        int n;
+        if (markable) {
+            in.mark(buf.length);
+            n = in.read(buf, 0, buf.length);
+        } else {
+            n = in.read(buf, 0, Math.min(wanted, buf.length));
+        }
+        if (n <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        filled += n;
+        return true;
+    }
+
+    int readByte() throws IOException {
+        if (pos == limit && !fill(1)) {
+            throw new EOFException();
+        }
+        return buf[pos++];
+    }
+
+    int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed varint");
+    }
+
+    long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("malformed varlong");
+    }
+
+    int readZigZagInt() throws IOException {
+        int n = readVarInt();
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    long readZigZagLong() throws IOException {
+        long n = readVarLong();
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    long readLong() throws IOException {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = (result << 8) | (readByte() & 0xFF);
+        }
+        return result;
+    }
+
+    void readBytes(byte[] target, int off, int len) throws IOException {
+        while (len > 0) {
+            if (pos == limit && !fill(len)) {
+                throw new EOFException();
+            }
+            int n = Math.min(len, limit - pos);
+            System.arraycopy(buf, pos, target, off, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    String readString() throws IOException {
+        int length = readLength();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int b = readByte() & 0xFF;
+            if (b < 0x80) {
+                chars[i] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[i] = (char) (((b & 0x1F) << 6) | (readByte() & 0x3F));
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[i] = (char) (((b & 0x0F) << 12) | ((readByte() & 0x3F) << 6) | (readByte() & 0x3F));
+            } else {
+                throw new StreamCorruptedException("malformed string");
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 读取长度, 并校验其合法性
+     */
+    int readLength() throws IOException {
+        int length = readVarInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("negative length: " + length);
+        }
+        // 输入流模式无法预知剩余字节数, 按上限拦截伪造的超大长度, 避免按长度预分配时内存溢出
+        if (length > maxLength) {
+            throw new StreamCorruptedException("length " + length + " exceeds limit " + maxLength);
+        }
+        // 直接读取字节数组时, 每个元素至少占1个字节, 提前拦截伪造的超大长度
+        if (in == null && length > limit - pos) {
+            throw new EOFException("length " + length + " exceeds remaining " + (limit - pos));
+        }
+        return length;
+    }
+}
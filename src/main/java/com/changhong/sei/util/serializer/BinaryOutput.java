@@ -0,0 +1,142 @@
+package com.changhong.sei.util.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 实现功能：二进制编码输出缓冲
+ * <p>
+ * 指定输出流时, 缓冲区写满即刷出, 内存占用固定; 未指定时缓冲区按需扩容.
+ * 非线程安全.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+final class BinaryOutput {
+    private final OutputStream out;
+    private byte[] buf;
+    private int pos;
+
+    BinaryOutput(byte[] buf, OutputStream out) {
+        this.buf = buf;
+        this.out = out;
+    }
+
+    byte[] buffer() {
+        return buf;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    void flush() throws IOException {
+        if (out != null && pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    /**
+     * 确保缓冲区至少还有n个字节的空间(n不超过缓冲区大小时)
+     */
+    private void require(int n) throws IOException {
+        if (pos + n <= buf.length) {
+            return;
+        }
+        if (out != null) {
+            flush();
+            if (n <= buf.length) {
+                return;
+            }
+        }
+        buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + n));
+    }
+
+    void writeByte(int value) throws IOException {
+        if (pos == buf.length) {
+            require(1);
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    void writeVarInt(int value) throws IOException {
+        require(5);
+        while ((value & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    void writeVarLong(long value) throws IOException {
+        require(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    void writeZigZagInt(int value) throws IOException {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    void writeZigZagLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeLong(long value) throws IOException {
+        require(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeBytes(byte[] bytes, int off, int len) throws IOException {
+        if (out != null && len > buf.length - pos) {
+            flush();
+            if (len > buf.length) {
+                // 大块数据直接写出, 不经过缓冲区
+                out.write(bytes, off, len);
+                return;
+            }
+        }
+        require(len);
+        System.arraycopy(bytes, off, buf, pos, len);
+        pos += len;
+    }
+
+    /**
+     * 写出字符串: 字符数(varint) + 逐字符1~3字节编码(ASCII为单字节)
+     */
+    void writeString(String value) throws IOException {
+        int length = value.length();
+        writeVarInt(length);
+        int i = 0;
+        while (i < length) {
+            // 按块保证空间, 每个字符最多3字节
+            int chunk = Math.min(length - i, Math.max(1, (buf.length - 1) / 3));
+            require(chunk * 3);
+            int end = i + chunk;
+            for (; i < end; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,1024 @@
+package com.changhong.sei.util.serializer;
+
+import com.changhong.sei.exception.SerializationException;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * 实现功能：紧凑二进制序列化器
+ * <p>
+ * 1.按类缓存字段结构(schema), 每个流中每个类的类名及字段表只写一次, 之后以序号引用;
+ * 2.整数采用变长编码, 常用JDK值类型(String/BigDecimal/Date/java.time等)使用专用编码;
+ * 3.支持对象共享引用及循环引用;
+ * 4.缓冲区按线程复用, 写输出流时内存占用固定;
+ * 5.反序列化只实例化白名单内的类;
+ * 6.没有无参构造函数的可序列化类, 以及无法按字段访问的JDK类, 回退为Java原生序列化.
+ * <p>
+ * 按字段序列化时不调用writeObject/readObject/readResolve等自定义序列化方法, 忽略static及transient字段;
+ * 字段按名称匹配, 新增或删除的字段在读取时被忽略.
+ * 从输入流读取时只消费一个对象的字节, 同一输入流中可连续读取多个对象;
+ * 输入流支持mark/reset(如{@link BufferedInputStream})时按块读取, 否则逐次只读取所需的字节, 建议包装缓冲流.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public class BinarySerializer implements Serializer {
+    public static final String NAME = "binary";
+
+    /**
+     * 编码格式版本
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 默认的长度上限(字节数组、字符串、数组及集合的元素个数)
+     */
+    public static final int DEFAULT_MAX_LENGTH = 1 << 24;
+
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * 超过该大小的缓冲区用完即丢弃, 不再复用
+     */
+    private static final int MAX_POOLED_SIZE = 1 << 16;
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int BYTE = 3;
+    private static final int SHORT = 4;
+    private static final int CHAR = 5;
+    private static final int INT = 6;
+    private static final int LONG = 7;
+    private static final int FLOAT = 8;
+    private static final int DOUBLE = 9;
+    private static final int STRING = 10;
+    private static final int BYTES = 11;
+    private static final int BIG_DECIMAL = 12;
+    private static final int BIG_INTEGER = 13;
+    private static final int DATE = 14;
+    private static final int UUID_VALUE = 15;
+    private static final int LOCAL_DATE = 16;
+    private static final int LOCAL_DATE_TIME = 17;
+    private static final int INSTANT = 18;
+    private static final int ENUM = 19;
+    private static final int COLLECTION = 20;
+    private static final int MAP = 21;
+    private static final int ARRAY = 22;
+    private static final int BEAN = 23;
+    private static final int JAVA = 24;
+    private static final int REF = 25;
+
+    /**
+     * 字段及数组元素类型编码, 0为对象
+     */
+    private static final Class<?>[] PRIMITIVES = {null, boolean.class, byte.class, short.class, char.class,
+            int.class, long.class, float.class, double.class};
+
+    private static final ClassValue<Schema> SCHEMAS = new ClassValue<Schema>() {
+        @Override
+        protected Schema computeValue(Class<?> type) {
+            return new Schema(type);
+        }
+    };
+
+    private final ClassAllowlist allowlist;
+    private final int maxLength;
+
+    public BinarySerializer() {
+        this(ClassAllowlist.DEFAULT);
+    }
+
+    public BinarySerializer(ClassAllowlist allowlist) {
+        this(allowlist, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param allowlist 反序列化类白名单
+     * @param maxLength 反序列化时允许的最大长度(字节数组、字符串、数组及集合的元素个数),
+     *                  超过时抛出{@link StreamCorruptedException}
+     */
+    public BinarySerializer(ClassAllowlist allowlist, int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive.");
+        }
+        this.allowlist = Objects.requireNonNull(allowlist, "allowlist");
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream out) throws IOException {
+        byte[] buf = borrow();
+        try {
+            BinaryOutput output = new BinaryOutput(buf, out);
+            new Writer(output).writeRoot(object);
+            output.flush();
+            out.flush();
+        } finally {
+            release(buf);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object object) {
+        byte[] buf = borrow();
+        BinaryOutput output = new BinaryOutput(buf, null);
+        try {
+            new Writer(output).writeRoot(object);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("serialize object error", e);
+        } finally {
+            release(output.buffer());
+        }
+    }
+
+    @Override
+    public void serialize(Object object, ByteBuffer buffer) {
+        byte[] buf = borrow();
+        BinaryOutput output = new BinaryOutput(buf, null);
+        try {
+            new Writer(output).writeRoot(object);
+            buffer.put(output.buffer(), 0, output.position());
+        } catch (IOException e) {
+            throw new SerializationException("serialize object error", e);
+        } finally {
+            release(output.buffer());
+        }
+    }
+
+    @Override
+    public Object deserialize(InputStream in) throws IOException {
+        byte[] buf = borrow();
+        try {
+            BinaryInput input = new BinaryInput(buf, in, maxLength);
+            Object result = new Reader(input).readRoot();
+            input.finish();
+            return result;
+        } finally {
+            release(buf);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deserialize(byte[] bytes) {
+        try {
+            return (T) new Reader(new BinaryInput(bytes, 0, bytes.length, maxLength)).readRoot();
+        } catch (IOException e) {
+            throw new SerializationException("unserialize object error", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deserialize(ByteBuffer buffer) {
+        try {
+            if (buffer.hasArray()) {
+                int offset = buffer.arrayOffset() + buffer.position();
+                BinaryInput input = new BinaryInput(buffer.array(), offset, buffer.remaining(), maxLength);
+                Object result = new Reader(input).readRoot();
+                buffer.position(input.position() - buffer.arrayOffset());
+                return (T) result;
+            }
+            byte[] buf = borrow();
+            try {
+                BinaryInput input = new BinaryInput(buf, new ByteBufferInputStream(buffer.duplicate()), maxLength);
+                Object result = new Reader(input).readRoot();
+                buffer.position(buffer.position() + (int) input.consumed());
+                return (T) result;
+            } finally {
+                release(buf);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("unserialize object error", e);
+        }
+    }
+
+    /**
+     * 借用当前线程的缓冲区; 借出期间线程内重入时另行分配
+     */
+    private static byte[] borrow() {
+        byte[] buf = BUFFERS.get();
+        if (buf == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        BUFFERS.remove();
+        return buf;
+    }
+
+    private static void release(byte[] buf) {
+        if (buf.length <= MAX_POOLED_SIZE) {
+            BUFFERS.set(buf);
+        }
+    }
+
+    private static int typeCode(Class<?> type) {
+        for (int i = 1; i < PRIMITIVES.length; i++) {
+            if (PRIMITIVES[i] == type) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isJdkClass(String name) {
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("jdk.");
+    }
+
+    private static Constructor<?> noArgConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isArray() || type.isPrimitive()) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 类的序列化结构, 按类缓存
+     */
+    private static final class Schema {
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        /**
+         * 字段名, 被子类同名字段遮蔽的父类字段以"父类名#字段名"区分
+         */
+        private final String[] names;
+        private final int[] typeCodes;
+        private final Field[] fields;
+        private final Map<String, Integer> indexes;
+        /**
+         * 集合/Map写出时使用的实现类, null表示需回退为Java原生序列化
+         */
+        private final Class<?> containerClass;
+
+        Schema(Class<?> type) {
+            this.type = type;
+            this.constructor = noArgConstructor(type);
+            this.containerClass = Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                    ? containerClass(type) : null;
+
+            List<Field> fieldList = new ArrayList<>();
+            List<String> nameList = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            if (constructor != null && !isJdkClass(type.getName())) {
+                // JDK父类的字段无法跨模块访问, 不纳入字段表
+                for (Class<?> c = type; c != null && !isJdkClass(c.getName()); c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        String name = field.getName();
+                        if (!seen.add(name)) {
+                            name = c.getName() + "#" + name;
+                        }
+                        fieldList.add(field);
+                        nameList.add(name);
+                    }
+                }
+            }
+            this.fields = fieldList.toArray(new Field[0]);
+            this.names = nameList.toArray(new String[0]);
+            this.typeCodes = new int[fields.length];
+            this.indexes = new HashMap<>(names.length * 2);
+            for (int i = 0; i < fields.length; i++) {
+                typeCodes[i] = typeCode(fields[i].getType());
+                indexes.put(names[i], i);
+            }
+        }
+
+        boolean isBean() {
+            return constructor != null && !isJdkClass(type.getName());
+        }
+
+        Object newInstance() throws IOException {
+            if (constructor == null) {
+                throw new InvalidClassException(type.getName(), "没有无参构造函数");
+            }
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                InvalidClassException ex = new InvalidClassException(type.getName(), "实例化失败");
+                ex.initCause(e);
+                throw ex;
+            }
+        }
+
+        private static Class<?> containerClass(Class<?> type) {
+            if (EnumSet.class.isAssignableFrom(type) || EnumMap.class.isAssignableFrom(type)) {
+                return null;
+            }
+            if (SortedSet.class.isAssignableFrom(type) || SortedMap.class.isAssignableFrom(type)) {
+                // 带比较器的有序集合无法按元素重建
+                return null;
+            }
+            if (Modifier.isPublic(type.getModifiers()) && noArgConstructor(type) != null) {
+                return type;
+            }
+            if (Map.class.isAssignableFrom(type)) {
+                return LinkedHashMap.class;
+            }
+            return Set.class.isAssignableFrom(type) ? LinkedHashSet.class : ArrayList.class;
+        }
+    }
+
+    /**
+     * 单次序列化的写出状态
+     */
+    private final class Writer {
+        private final BinaryOutput out;
+        private Map<Object, Integer> handles;
+        private Map<Class<?>, Integer> classes;
+
+        Writer(BinaryOutput out) {
+            this.out = out;
+        }
+
+        void writeRoot(Object object) throws IOException {
+            out.writeByte(VERSION);
+            writeObject(object);
+        }
+
+        void writeObject(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                out.writeByte(STRING);
+                out.writeString((String) value);
+            } else if (type == Integer.class) {
+                out.writeByte(INT);
+                out.writeZigZagInt((Integer) value);
+            } else if (type == Long.class) {
+                out.writeByte(LONG);
+                out.writeZigZagLong((Long) value);
+            } else if (type == Boolean.class) {
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (type == Double.class) {
+                out.writeByte(DOUBLE);
+                out.writeLong(Double.doubleToRawLongBits((Double) value));
+            } else if (type == BigDecimal.class) {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeByte(BIG_DECIMAL);
+                out.writeZigZagInt(decimal.scale());
+                writeByteArray(decimal.unscaledValue().toByteArray());
+            } else if (type == Date.class) {
+                out.writeByte(DATE);
+                out.writeZigZagLong(((Date) value).getTime());
+            } else if (type == Byte.class) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (type == Short.class) {
+                out.writeByte(SHORT);
+                out.writeZigZagInt((Short) value);
+            } else if (type == Character.class) {
+                out.writeByte(CHAR);
+                out.writeVarInt((Character) value);
+            } else if (type == Float.class) {
+                out.writeByte(FLOAT);
+                out.writeVarInt(Float.floatToRawIntBits((Float) value));
+            } else if (type == byte[].class) {
+                out.writeByte(BYTES);
+                writeByteArray((byte[]) value);
+            } else if (type == BigInteger.class) {
+                out.writeByte(BIG_INTEGER);
+                writeByteArray(((BigInteger) value).toByteArray());
+            } else if (type == UUID.class) {
+                out.writeByte(UUID_VALUE);
+                out.writeLong(((UUID) value).getMostSignificantBits());
+                out.writeLong(((UUID) value).getLeastSignificantBits());
+            } else if (type == LocalDate.class) {
+                out.writeByte(LOCAL_DATE);
+                out.writeZigZagLong(((LocalDate) value).toEpochDay());
+            } else if (type == LocalDateTime.class) {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                out.writeByte(LOCAL_DATE_TIME);
+                out.writeZigZagLong(dateTime.toLocalDate().toEpochDay());
+                out.writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+            } else if (type == Instant.class) {
+                out.writeByte(INSTANT);
+                out.writeZigZagLong(((Instant) value).getEpochSecond());
+                out.writeVarInt(((Instant) value).getNano());
+            } else if (value instanceof Enum) {
+                out.writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                out.writeString(((Enum<?>) value).name());
+            } else {
+                writeReferable(value, type);
+            }
+        }
+
+        /**
+         * 写出可被共享引用的对象: 集合、Map、数组、Bean、Java原生序列化对象
+         */
+        private void writeReferable(Object value, Class<?> type) throws IOException {
+            if (handles == null) {
+                handles = new IdentityHashMap<>();
+            }
+            Integer handle = handles.get(value);
+            if (handle != null) {
+                out.writeByte(REF);
+                out.writeVarInt(handle);
+                return;
+            }
+            handles.put(value, handles.size());
+
+            if (type.isArray()) {
+                writeArray(value, type.getComponentType());
+                return;
+            }
+            Schema schema = SCHEMAS.get(type);
+            if (value instanceof Collection && schema.containerClass != null) {
+                Collection<?> collection = (Collection<?>) value;
+                out.writeByte(COLLECTION);
+                writeClass(schema.containerClass);
+                out.writeVarInt(collection.size());
+                for (Object element : collection) {
+                    writeObject(element);
+                }
+            } else if (value instanceof Map && schema.containerClass != null) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.writeByte(MAP);
+                writeClass(schema.containerClass);
+                out.writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeObject(entry.getKey());
+                    writeObject(entry.getValue());
+                }
+            } else if (schema.isBean() && !(value instanceof Collection) && !(value instanceof Map)) {
+                out.writeByte(BEAN);
+                writeClass(type);
+                writeFields(value, schema);
+            } else if (value instanceof Serializable) {
+                out.writeByte(JAVA);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+                ObjectOutputStream oos = new ObjectOutputStream(bytes);
+                oos.writeObject(value);
+                oos.flush();
+                writeByteArray(bytes.toByteArray());
+            } else {
+                throw new NotSerializableException(type.getName());
+            }
+        }
+
+        private void writeFields(Object bean, Schema schema) throws IOException {
+            Field[] fields = schema.fields;
+            int[] typeCodes = schema.typeCodes;
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    Field field = fields[i];
+                    switch (typeCodes[i]) {
+                        case 1:
+                            out.writeByte(field.getBoolean(bean) ? 1 : 0);
+                            break;
+                        case 2:
+                            out.writeByte(field.getByte(bean));
+                            break;
+                        case 3:
+                            out.writeZigZagInt(field.getShort(bean));
+                            break;
+                        case 4:
+                            out.writeVarInt(field.getChar(bean));
+                            break;
+                        case 5:
+                            out.writeZigZagInt(field.getInt(bean));
+                            break;
+                        case 6:
+                            out.writeZigZagLong(field.getLong(bean));
+                            break;
+                        case 7:
+                            out.writeVarInt(Float.floatToRawIntBits(field.getFloat(bean)));
+                            break;
+                        case 8:
+                            out.writeLong(Double.doubleToRawLongBits(field.getDouble(bean)));
+                            break;
+                        default:
+                            writeObject(field.get(bean));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new SerializationException("读取字段失败: " + schema.type.getName(), e);
+            }
+        }
+
+        private void writeArray(Object array, Class<?> componentType) throws IOException {
+            int length = Array.getLength(array);
+            int code = typeCode(componentType);
+            out.writeByte(ARRAY);
+            out.writeByte(code);
+            if (code == 0) {
+                writeClass(componentType);
+            }
+            out.writeVarInt(length);
+            switch (code) {
+                case 1:
+                    for (boolean v : (boolean[]) array) {
+                        out.writeByte(v ? 1 : 0);
+                    }
+                    break;
+                case 2:
+                    out.writeBytes((byte[]) array, 0, length);
+                    break;
+                case 3:
+                    for (short v : (short[]) array) {
+                        out.writeZigZagInt(v);
+                    }
+                    break;
+                case 4:
+                    for (char v : (char[]) array) {
+                        out.writeVarInt(v);
+                    }
+                    break;
+                case 5:
+                    for (int v : (int[]) array) {
+                        out.writeZigZagInt(v);
+                    }
+                    break;
+                case 6:
+                    for (long v : (long[]) array) {
+                        out.writeZigZagLong(v);
+                    }
+                    break;
+                case 7:
+                    for (float v : (float[]) array) {
+                        out.writeVarInt(Float.floatToRawIntBits(v));
+                    }
+                    break;
+                case 8:
+                    for (double v : (double[]) array) {
+                        out.writeLong(Double.doubleToRawLongBits(v));
+                    }
+                    break;
+                default:
+                    for (Object v : (Object[]) array) {
+                        writeObject(v);
+                    }
+            }
+        }
+
+        private void writeByteArray(byte[] bytes) throws IOException {
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        }
+
+        /**
+         * 写出类描述: 首次出现写0+类名(可按字段序列化的类附带字段表), 之后写序号+1
+         */
+        private void writeClass(Class<?> type) throws IOException {
+            if (classes == null) {
+                classes = new HashMap<>();
+            }
+            Integer index = classes.get(type);
+            if (index != null) {
+                out.writeVarInt(index + 1);
+                return;
+            }
+            if (!allowlist.isAllowed(type.getName())) {
+                throw new InvalidClassException(type.getName(), "类不在序列化白名单中");
+            }
+            classes.put(type, classes.size());
+            out.writeVarInt(0);
+            out.writeString(type.getName());
+            Schema schema = SCHEMAS.get(type);
+            if (!schema.isBean()) {
+                out.writeByte(0);
+                return;
+            }
+            out.writeByte(1);
+            out.writeVarInt(schema.names.length);
+            for (int i = 0; i < schema.names.length; i++) {
+                out.writeString(schema.names[i]);
+                out.writeByte(schema.typeCodes[i]);
+            }
+        }
+    }
+
+    /**
+     * 流中的类描述
+     */
+    private static final class StreamClass {
+        private final Class<?> type;
+        private final int[] typeCodes;
+        /**
+         * 流中字段对应的本地字段, 本地不存在的字段为null
+         */
+        private final Field[] targets;
+
+        StreamClass(Class<?> type, int[] typeCodes, Field[] targets) {
+            this.type = type;
+            this.typeCodes = typeCodes;
+            this.targets = targets;
+        }
+    }
+
+    /**
+     * 单次反序列化的读取状态
+     */
+    private final class Reader {
+        private final BinaryInput in;
+        private final List<Object> handles = new ArrayList<>();
+        private final List<StreamClass> classes = new ArrayList<>();
+
+        Reader(BinaryInput in) {
+            this.in = in;
+        }
+
+        Object readRoot() throws IOException {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("unsupported version: " + version);
+            }
+            return readObject();
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object readObject() throws IOException {
+            int tag = in.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case BYTE:
+                    return (byte) in.readByte();
+                case SHORT:
+                    return (short) in.readZigZagInt();
+                case CHAR:
+                    return (char) in.readVarInt();
+                case INT:
+                    return in.readZigZagInt();
+                case LONG:
+                    return in.readZigZagLong();
+                case FLOAT:
+                    return Float.intBitsToFloat(in.readVarInt());
+                case DOUBLE:
+                    return Double.longBitsToDouble(in.readLong());
+                case STRING:
+                    return in.readString();
+                case BYTES:
+                    return readByteArray();
+                case BIG_DECIMAL:
+                    int scale = in.readZigZagInt();
+                    return new BigDecimal(new BigInteger(readByteArray()), scale);
+                case BIG_INTEGER:
+                    return new BigInteger(readByteArray());
+                case DATE:
+                    return new Date(in.readZigZagLong());
+                case UUID_VALUE:
+                    return new UUID(in.readLong(), in.readLong());
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(in.readZigZagLong());
+                case LOCAL_DATE_TIME:
+                    LocalDate date = LocalDate.ofEpochDay(in.readZigZagLong());
+                    return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readVarLong()));
+                case INSTANT:
+                    return Instant.ofEpochSecond(in.readZigZagLong(), in.readVarInt());
+                case ENUM:
+                    Class<?> enumType = readClass().type;
+                    if (!enumType.isEnum()) {
+                        throw new InvalidClassException(enumType.getName(), "不是枚举类型");
+                    }
+                    return Enum.valueOf((Class) enumType, in.readString());
+                case COLLECTION:
+                    return readCollection();
+                case MAP:
+                    return readMap();
+                case ARRAY:
+                    return readArray();
+                case BEAN:
+                    return readBean();
+                case JAVA:
+                    return readJava();
+                case REF:
+                    int handle = in.readVarInt();
+                    if (handle < 0 || handle >= handles.size()) {
+                        throw new StreamCorruptedException("invalid handle: " + handle);
+                    }
+                    return handles.get(handle);
+                default:
+                    throw new StreamCorruptedException("unknown tag: " + tag);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object readCollection() throws IOException {
+            Class<?> type = readClass().type;
+            if (!Collection.class.isAssignableFrom(type)) {
+                throw new InvalidClassException(type.getName(), "不是集合类型");
+            }
+            Collection<Object> collection = (Collection<Object>) SCHEMAS.get(type).newInstance();
+            handles.add(collection);
+            int size = in.readLength();
+            for (int i = 0; i < size; i++) {
+                collection.add(readObject());
+            }
+            return collection;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object readMap() throws IOException {
+            Class<?> type = readClass().type;
+            if (!Map.class.isAssignableFrom(type)) {
+                throw new InvalidClassException(type.getName(), "不是Map类型");
+            }
+            Map<Object, Object> map = (Map<Object, Object>) SCHEMAS.get(type).newInstance();
+            handles.add(map);
+            int size = in.readLength();
+            for (int i = 0; i < size; i++) {
+                Object key = readObject();
+                map.put(key, readObject());
+            }
+            return map;
+        }
+
+        private Object readArray() throws IOException {
+            int code = in.readByte();
+            if (code < 0 || code >= PRIMITIVES.length) {
+                throw new StreamCorruptedException("invalid array type: " + code);
+            }
+            Class<?> componentType = code == 0 ? readClass().type : PRIMITIVES[code];
+            int length = in.readLength();
+            Object array = Array.newInstance(componentType, length);
+            handles.add(array);
+            switch (code) {
+                case 1:
+                    boolean[] booleans = (boolean[]) array;
+                    for (int i = 0; i < length; i++) {
+                        booleans[i] = in.readByte() != 0;
+                    }
+                    break;
+                case 2:
+                    in.readBytes((byte[]) array, 0, length);
+                    break;
+                case 3:
+                    short[] shorts = (short[]) array;
+                    for (int i = 0; i < length; i++) {
+                        shorts[i] = (short) in.readZigZagInt();
+                    }
+                    break;
+                case 4:
+                    char[] chars = (char[]) array;
+                    for (int i = 0; i < length; i++) {
+                        chars[i] = (char) in.readVarInt();
+                    }
+                    break;
+                case 5:
+                    int[] ints = (int[]) array;
+                    for (int i = 0; i < length; i++) {
+                        ints[i] = in.readZigZagInt();
+                    }
+                    break;
+                case 6:
+                    long[] longs = (long[]) array;
+                    for (int i = 0; i < length; i++) {
+                        longs[i] = in.readZigZagLong();
+                    }
+                    break;
+                case 7:
+                    float[] floats = (float[]) array;
+                    for (int i = 0; i < length; i++) {
+                        floats[i] = Float.intBitsToFloat(in.readVarInt());
+                    }
+                    break;
+                case 8:
+                    double[] doubles = (double[]) array;
+                    for (int i = 0; i < length; i++) {
+                        doubles[i] = Double.longBitsToDouble(in.readLong());
+                    }
+                    break;
+                default:
+                    Object[] objects = (Object[]) array;
+                    for (int i = 0; i < length; i++) {
+                        Object element = readObject();
+                        if (element != null && !componentType.isInstance(element)) {
+                            throw new StreamCorruptedException("array element type mismatch: " + element.getClass().getName());
+                        }
+                        objects[i] = element;
+                    }
+            }
+            return array;
+        }
+
+        private Object readBean() throws IOException {
+            StreamClass streamClass = readClass();
+            if (streamClass.targets == null) {
+                throw new StreamCorruptedException("missing field table: " + streamClass.type.getName());
+            }
+            Object bean = SCHEMAS.get(streamClass.type).newInstance();
+            handles.add(bean);
+            int[] typeCodes = streamClass.typeCodes;
+            Field[] targets = streamClass.targets;
+            try {
+                for (int i = 0; i < typeCodes.length; i++) {
+                    Field field = targets[i];
+                    switch (typeCodes[i]) {
+                        case 1:
+                            boolean z = in.readByte() != 0;
+                            if (field != null) {
+                                field.setBoolean(bean, z);
+                            }
+                            break;
+                        case 2:
+                            byte b = (byte) in.readByte();
+                            if (field != null) {
+                                field.setByte(bean, b);
+                            }
+                            break;
+                        case 3:
+                            short s = (short) in.readZigZagInt();
+                            if (field != null) {
+                                field.setShort(bean, s);
+                            }
+                            break;
+                        case 4:
+                            char c = (char) in.readVarInt();
+                            if (field != null) {
+                                field.setChar(bean, c);
+                            }
+                            break;
+                        case 5:
+                            int n = in.readZigZagInt();
+                            if (field != null) {
+                                field.setInt(bean, n);
+                            }
+                            break;
+                        case 6:
+                            long l = in.readZigZagLong();
+                            if (field != null) {
+                                field.setLong(bean, l);
+                            }
+                            break;
+                        case 7:
+                            float f = Float.intBitsToFloat(in.readVarInt());
+                            if (field != null) {
+                                field.setFloat(bean, f);
+                            }
+                            break;
+                        case 8:
+                            double d = Double.longBitsToDouble(in.readLong());
+                            if (field != null) {
+                                field.setDouble(bean, d);
+                            }
+                            break;
+                        default:
+                            Object value = readObject();
+                            if (field != null) {
+                                field.set(bean, value);
+                            }
+                    }
+                }
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new SerializationException("设置字段失败: " + streamClass.type.getName(), e);
+            }
+            return bean;
+        }
+
+        private Object readJava() throws IOException {
+            int index = handles.size();
+            // 先占位, 保证序号与写出时一致
+            handles.add(null);
+            byte[] bytes = readByteArray();
+            ObjectInputStream ois = new JdkSerializer.AllowlistObjectInputStream(new ByteArrayInputStream(bytes), allowlist);
+            try {
+                Object value = ois.readObject();
+                handles.set(index, value);
+                return value;
+            } catch (ClassNotFoundException e) {
+                throw new InvalidClassException(e.getMessage());
+            }
+        }
+
+        private byte[] readByteArray() throws IOException {
+            byte[] bytes = new byte[in.readLength()];
+            in.readBytes(bytes, 0, bytes.length);
+            return bytes;
+        }
+
+        private StreamClass readClass() throws IOException {
+            int index = in.readVarInt();
+            if (index > 0) {
+                if (index > classes.size()) {
+                    throw new StreamCorruptedException("invalid class index: " + index);
+                }
+                return classes.get(index - 1);
+            }
+            String name = in.readString();
+            if (!allowlist.isAllowed(name)) {
+                throw new InvalidClassException(name, "类不在反序列化白名单中");
+            }
+            Class<?> type;
+            try {
+                type = Class.forName(name, false, classLoader());
+            } catch (ClassNotFoundException e) {
+                throw new InvalidClassException(name, "类不存在");
+            }
+            StreamClass streamClass;
+            if (in.readByte() == 0) {
+                streamClass = new StreamClass(type, null, null);
+            } else {
+                Schema schema = SCHEMAS.get(type);
+                if (!schema.isBean()) {
+                    throw new InvalidClassException(name, "不支持按字段反序列化");
+                }
+                int count = in.readLength();
+                int[] typeCodes = new int[count];
+                Field[] targets = new Field[count];
+                for (int i = 0; i < count; i++) {
+                    String fieldName = in.readString();
+                    typeCodes[i] = in.readByte();
+                    if (typeCodes[i] < 0 || typeCodes[i] >= PRIMITIVES.length) {
+                        throw new StreamCorruptedException("invalid field type: " + typeCodes[i]);
+                    }
+                    Integer local = schema.indexes.get(fieldName);
+                    if (local != null && schema.typeCodes[local] == typeCodes[i]) {
+                        targets[i] = schema.fields[local];
+                    }
+                }
+                streamClass = new StreamClass(type, typeCodes, targets);
+            }
+            classes.add(streamClass);
+            return streamClass;
+        }
+
+        private ClassLoader classLoader() {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            return loader != null ? loader : BinarySerializer.class.getClassLoader();
+        }
+    }
+
+    /**
+     * 读取ByteBuffer的输入流
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.changhong.sei.util.serializer;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 实现功能：反序列化类白名单
+ * <p>
+ * 按类全名或包名前缀放行, 反序列化时只实例化白名单内的类, 防止反序列化攻击.
+ * 实例创建后不可变, 线程安全.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ClassAllowlist {
+    /**
+     * 默认白名单: 本平台类及常用的JDK值类型
+     */
+    public static final ClassAllowlist DEFAULT = new ClassAllowlist(Collections.emptySet(), setOf(
+            "com.changhong.sei.", "java.lang.", "java.math.", "java.sql.", "java.time.", "java.util."));
+
+    private final Set<String> classNames;
+    private final String[] packagePrefixes;
+
+    private ClassAllowlist(Set<String> classNames, Set<String> packagePrefixes) {
+        this.classNames = Collections.unmodifiableSet(new LinkedHashSet<>(classNames));
+        this.packagePrefixes = packagePrefixes.toArray(new String[0]);
+    }
+
+    /**
+     * 按包名前缀创建白名单(如"com.changhong.sei.")
+     *
+     * @param packagePrefixes 包名前缀
+     * @return 白名单
+     */
+    public static ClassAllowlist ofPackages(String... packagePrefixes) {
+        return new ClassAllowlist(Collections.emptySet(), setOf(packagePrefixes));
+    }
+
+    /**
+     * 在当前白名单基础上追加包名前缀
+     *
+     * @param packagePrefixes 包名前缀
+     * @return 新的白名单
+     */
+    public ClassAllowlist allowPackages(String... packagePrefixes) {
+        Set<String> prefixes = setOf(this.packagePrefixes);
+        prefixes.addAll(setOf(packagePrefixes));
+        return new ClassAllowlist(classNames, prefixes);
+    }
+
+    /**
+     * 在当前白名单基础上追加类
+     *
+     * @param classes 类
+     * @return 新的白名单
+     */
+    public ClassAllowlist allowClasses(Class<?>... classes) {
+        Set<String> names = new LinkedHashSet<>(classNames);
+        for (Class<?> clazz : classes) {
+            names.add(Objects.requireNonNull(clazz).getName());
+        }
+        return new ClassAllowlist(names, setOf(packagePrefixes));
+    }
+
+    /**
+     * 判断类是否允许被反序列化
+     *
+     * @param className 类全名, 数组按组件类型判断, 基本类型数组始终允许
+     * @return 是否允许
+     */
+    public boolean isAllowed(String className) {
+        if (className == null) {
+            return false;
+        }
+        if (className.startsWith("[")) {
+            int dimensions = 0;
+            while (className.charAt(dimensions) == '[') {
+                dimensions++;
+            }
+            if (className.length() == dimensions + 1) {
+                // 基本类型数组
+                return true;
+            }
+            // 形如"[[Lcom.foo.Bar;"
+            className = className.substring(dimensions + 1, className.length() - 1);
+        }
+        if (classNames.contains(className)) {
+            return true;
+        }
+        for (String prefix : packagePrefixes) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> setOf(String... values) {
+        Set<String> set = new LinkedHashSet<>();
+        for (String value : values) {
+            set.add(Objects.requireNonNull(value));
+        }
+        return set;
+    }
+}
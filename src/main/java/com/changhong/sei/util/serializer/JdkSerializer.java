@@ -0,0 +1,81 @@
+package com.changhong.sei.util.serializer;
+
+import java.io.*;
+import java.util.Objects;
+
+/**
+ * 实现功能：基于Java原生序列化(ObjectOutputStream/ObjectInputStream)的序列化器
+ * <p>
+ * 兼容 {@link com.changhong.sei.util.SerializeUtils#serialize(Object)} 产生的数据.
+ * 反序列化时按白名单校验流中出现的每一个类.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public class JdkSerializer implements Serializer {
+    public static final String NAME = "jdk";
+
+    private final ClassAllowlist allowlist;
+
+    public JdkSerializer() {
+        this(ClassAllowlist.DEFAULT);
+    }
+
+    public JdkSerializer(ClassAllowlist allowlist) {
+        this.allowlist = Objects.requireNonNull(allowlist, "allowlist");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream out) throws IOException {
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(object);
+        oos.flush();
+    }
+
+    @Override
+    public Object deserialize(InputStream in) throws IOException {
+        ObjectInputStream ois = new AllowlistObjectInputStream(in, allowlist);
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(e.getMessage());
+        }
+    }
+
+    /**
+     * 按白名单校验类的ObjectInputStream
+     */
+    static final class AllowlistObjectInputStream extends ObjectInputStream {
+        private final ClassAllowlist allowlist;
+
+        AllowlistObjectInputStream(InputStream in, ClassAllowlist allowlist) throws IOException {
+            super(in);
+            this.allowlist = allowlist;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            check(desc.getName());
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            for (String name : interfaces) {
+                check(name);
+            }
+            return super.resolveProxyClass(interfaces);
+        }
+
+        private void check(String name) throws InvalidClassException {
+            if (!allowlist.isAllowed(name)) {
+                throw new InvalidClassException(name, "类不在反序列化白名单中");
+            }
+        }
+    }
+}
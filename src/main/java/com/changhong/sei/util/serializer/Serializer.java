@@ -0,0 +1,99 @@
+package com.changhong.sei.util.serializer;
+
+import com.changhong.sei.exception.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 实现功能：序列化SPI
+ * <p>
+ * 自定义实现可通过 META-INF/services/com.changhong.sei.util.serializer.Serializer 注册,
+ * 并经 {@link Serializers#get(String)} 按名称获取.
+ * 实现类须是线程安全的.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public interface Serializer {
+
+    /**
+     * @return 序列化器名称
+     */
+    String getName();
+
+    /**
+     * 将对象序列化写入输出流(不关闭流)
+     *
+     * @param object 对象
+     * @param out    输出流
+     */
+    void serialize(Object object, OutputStream out) throws IOException;
+
+    /**
+     * 从输入流中读取一个对象(不关闭流)
+     *
+     * @param in 输入流
+     * @return 对象
+     */
+    Object deserialize(InputStream in) throws IOException;
+
+    /**
+     * 对象序列化为二进制
+     *
+     * @param object 对象
+     * @return 二进制
+     */
+    default byte[] serialize(Object object) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try {
+            serialize(object, out);
+        } catch (IOException e) {
+            throw new SerializationException("serialize object error", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 二进制反序列化为对象
+     *
+     * @param bytes 二进制
+     * @return 对象
+     */
+    @SuppressWarnings("unchecked")
+    default <T> T deserialize(byte[] bytes) {
+        try {
+            return (T) deserialize(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new SerializationException("unserialize object error", e);
+        }
+    }
+
+    /**
+     * 将对象序列化写入缓冲区, 从缓冲区当前位置开始写入
+     *
+     * @param object 对象
+     * @param buffer 缓冲区
+     * @throws java.nio.BufferOverflowException 缓冲区剩余空间不足
+     */
+    default void serialize(Object object, ByteBuffer buffer) {
+        buffer.put(serialize(object));
+    }
+
+    /**
+     * 从缓冲区当前位置读取一个对象. 默认实现读取缓冲区全部剩余内容
+     *
+     * @param buffer 缓冲区
+     * @return 对象
+     */
+    @SuppressWarnings("unchecked")
+    default <T> T deserialize(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return deserialize(bytes);
+    }
+}
@@ -0,0 +1,69 @@
+package com.changhong.sei.util.serializer;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实现功能：序列化器注册表
+ * <p>
+ * 内置 {@link BinarySerializer#NAME} 及 {@link JdkSerializer#NAME} 两种序列化器(使用默认白名单),
+ * 其余通过 {@link ServiceLoader} 发现或调用 {@link #register(Serializer)} 注册.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class Serializers {
+    private static final Serializer BINARY = new BinarySerializer();
+    private static final Serializer JDK = new JdkSerializer();
+    private static final Map<String, Serializer> REGISTRY = new ConcurrentHashMap<>();
+
+    static {
+        REGISTRY.put(BINARY.getName(), BINARY);
+        REGISTRY.put(JDK.getName(), JDK);
+        for (Serializer serializer : ServiceLoader.load(Serializer.class, Serializers.class.getClassLoader())) {
+            REGISTRY.put(serializer.getName(), serializer);
+        }
+    }
+
+    private Serializers() {
+    }
+
+    /**
+     * @return 默认白名单的紧凑二进制序列化器
+     */
+    public static Serializer binary() {
+        return BINARY;
+    }
+
+    /**
+     * @return 默认白名单的Java原生序列化器
+     */
+    public static Serializer jdk() {
+        return JDK;
+    }
+
+    /**
+     * 按名称获取序列化器
+     *
+     * @param name 名称
+     * @return 序列化器
+     * @throws IllegalArgumentException 未注册的名称
+     */
+    public static Serializer get(String name) {
+        Serializer serializer = REGISTRY.get(name);
+        if (serializer == null) {
+            throw new IllegalArgumentException("未注册的序列化器: " + name);
+        }
+        return serializer;
+    }
+
+    /**
+     * 注册序列化器, 同名时覆盖
+     *
+     * @param serializer 序列化器
+     */
+    public static void register(Serializer serializer) {
+        REGISTRY.put(serializer.getName(), serializer);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * 序列化SPI及实现: 紧凑二进制编码(BinarySerializer)及Java原生序列化(JdkSerializer)
+ */
+package com.changhong.sei.util.serializer;
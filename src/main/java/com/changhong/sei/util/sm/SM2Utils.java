@@ -1,5 +1,7 @@
 package com.changhong.sei.util.sm;
 
+import com.changhong.sei.util.ByteSlice;
+import com.changhong.sei.util.ByteUtil;
 import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
 import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
@@ -78,8 +80,8 @@ public class SM2Utils {
 //      System.out.println("C1 " + Util.byteToHex(c1.getEncoded()));
 //      System.out.println("C2 " + Util.byteToHex(source));
 //      System.out.println("C3 " + Util.byteToHex(c3));
-        //C1 C2 C3拼装成加密字串
-        return Util.byteToHex(c1.getEncoded()) + Util.byteToHex(source) + Util.byteToHex(c3);
+        //C1 C2 C3拼装成加密字串(合并后一次转换)
+        return Util.byteToHex(ByteUtil.composite().add(c1.getEncoded()).add(source).add(c3).toByteArray());
 
     }
 
@@ -92,17 +94,17 @@ public class SM2Utils {
         if (encryptedData == null || encryptedData.length == 0) {
             return null;
         }
-        //加密字节数组转换为十六进制的字符串 长度变为encryptedData.length * 2
-        String data = Util.byteToHex(encryptedData);
-        /***分解加密字串
-         * （C1 = C1标志位2位 + C1实体部分128位 = 130）
-         * （C3 = C3实体部分64位  = 64）
-         * （C2 = encryptedData.length * 2 - C1长度  - C2长度）
+        /***分解加密数据, 直接按字节截取, 不再经过十六进制字符串
+         * （C1 = C1标志位1字节 + C1实体部分64字节 = 65）
+         * （C3 = 32字节）
+         * （C2 = encryptedData.length - C1长度 - C3长度）
          */
-        byte[] c1Bytes = Util.hexToByte(data.substring(0, 130));
+        ByteSlice data = ByteSlice.wrap(encryptedData);
+        byte[] c1Bytes = data.slice(0, 65).toByteArray();
         int c2Len = encryptedData.length - 97;
-        byte[] c2 = Util.hexToByte(data.substring(130, 130 + 2 * c2Len));
-        byte[] c3 = Util.hexToByte(data.substring(130 + 2 * c2Len, 194 + 2 * c2Len));
+        // C2在原位解密, C3由Dofinal写入, 均需独立的数组
+        byte[] c2 = data.slice(65, c2Len).toByteArray();
+        byte[] c3 = new byte[32];
 
         SM2 sm2 = SM2.Instance();
         BigInteger userD = new BigInteger(1, privateKey);
@@ -599,24 +599,15 @@ public class Util {
             throw new IllegalArgumentException(
                     "Argument b ( byte array ) is null! ");
         }
-        String hs = "";
-        String stmp = "";
-        for (int n = 0; n < b.length; n++) {
-            stmp = Integer.toHexString(b[n] & 0xff);
-            if (stmp.length() == 1) {
-                hs = hs + "0" + stmp;
-            } else {
-                hs = hs + stmp;
-            }
-        }
-        return hs.toUpperCase();
+        return encodeHexString(b, false);
     }
 
+    /**
+     * 复制字节数组中的一段; 只需读取时请使用{@link com.changhong.sei.util.ByteSlice#slice(int, int)}避免复制
+     */
     public static byte[] subByte(byte[] input, int startIndex, int length) {
         byte[] bt = new byte[length];
-        for (int i = 0; i < length; i++) {
-            bt[i] = input[i + startIndex];
-        }
+        System.arraycopy(input, startIndex, bt, 0, length);
         return bt;
     }
 }
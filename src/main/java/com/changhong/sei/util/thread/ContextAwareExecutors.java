@@ -0,0 +1,388 @@
+package com.changhong.sei.util.thread;
+
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.alibaba.ttl.threadpool.TtlForkJoinPoolHelper;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 实现功能：传递线程上下文的线程池工厂
+ * <p>
+ * 提交任务时一次性捕获 {@link ThreadLocalHolder} 的上下文快照(O(1)), 任务执行前恢复、执行后还原,
+ * 调用方无需再手工用TTL包装线程池. 工作线程不继承创建者的线程变量, 避免上下文串用.
+ * 任务内调用了begin()却未调用end()时, 任务结束后自动清理并计入泄漏数.
+ * <p>
+ * ForkJoinPool内部fork的子任务不经过包装, 需要上下文时请通过本类提交.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ContextAwareExecutors {
+    private static final LongAdder CAPTURES = new LongAdder();
+    private static final LongAdder CAPTURE_NANOS = new LongAdder();
+    private static final LongAdder LEAKED_CONTEXTS = new LongAdder();
+
+    private ContextAwareExecutors() {
+    }
+
+    /**
+     * 固定大小的线程池
+     */
+    public static ExecutorService newFixedThreadPool(int threads) {
+        return newFixedThreadPool(threads, "sei-ctx-pool");
+    }
+
+    /**
+     * 固定大小的线程池
+     *
+     * @param threads    线程数
+     * @param namePrefix 线程名前缀
+     */
+    public static ExecutorService newFixedThreadPool(int threads, String namePrefix) {
+        return wrap(Executors.newFixedThreadPool(threads, threadFactory(namePrefix)));
+    }
+
+    /**
+     * ForkJoin工作窃取线程池
+     *
+     * @param parallelism 并行度
+     */
+    public static ExecutorService newWorkStealingPool(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism,
+                TtlForkJoinPoolHelper.getDefaultDisableInheritableForkJoinWorkerThreadFactory(), null, true);
+        return wrap(pool);
+    }
+
+    /**
+     * 定时任务线程池
+     *
+     * @param corePoolSize 核心线程数
+     */
+    public static ScheduledExecutorService newScheduledThreadPool(int corePoolSize) {
+        return wrap(Executors.newScheduledThreadPool(corePoolSize, threadFactory("sei-ctx-scheduler")));
+    }
+
+    /**
+     * 每任务一个虚拟线程的执行器(JDK 21+); 当前JDK不支持虚拟线程时退化为缓存线程池
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return wrap((ExecutorService) method.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return wrap(Executors.newCachedThreadPool(threadFactory("sei-ctx-task")));
+        }
+    }
+
+    /**
+     * 包装已有的线程池
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        if (executor instanceof ContextAwareExecutorService) {
+            return executor;
+        }
+        return new ContextAwareExecutorService(executor);
+    }
+
+    /**
+     * 包装已有的定时任务线程池
+     */
+    public static ScheduledExecutorService wrap(ScheduledExecutorService executor) {
+        if (executor instanceof ContextAwareScheduledExecutorService) {
+            return executor;
+        }
+        return new ContextAwareScheduledExecutorService(executor);
+    }
+
+    /**
+     * 包装任务, 捕获当前线程上下文
+     */
+    public static Runnable wrap(Runnable task) {
+        if (task instanceof ContextRunnable) {
+            return task;
+        }
+        return new ContextRunnable(capture(), task);
+    }
+
+    /**
+     * 包装任务, 捕获当前线程上下文
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        if (task instanceof ContextCallable) {
+            return task;
+        }
+        return new ContextCallable<>(capture(), task);
+    }
+
+    /**
+     * 传递上下文的CompletableFuture.supplyAsync
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        ThreadLocalHolder.Snapshot snapshot = capture();
+        return CompletableFuture.supplyAsync(() -> {
+            ThreadLocalHolder.Snapshot backup = ThreadLocalHolder.restore(snapshot);
+            try {
+                return supplier.get();
+            } finally {
+                release(snapshot, backup);
+            }
+        }, executor);
+    }
+
+    /**
+     * 传递上下文的CompletableFuture.runAsync
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        return CompletableFuture.runAsync(wrap(runnable), executor);
+    }
+
+    /**
+     * @return 上下文传递的统计指标
+     */
+    public static Metrics getMetrics() {
+        return new Metrics(CAPTURES.sum(), CAPTURE_NANOS.sum(), LEAKED_CONTEXTS.sum());
+    }
+
+    /**
+     * 重置统计指标
+     */
+    public static void resetMetrics() {
+        CAPTURES.reset();
+        CAPTURE_NANOS.reset();
+        LEAKED_CONTEXTS.reset();
+    }
+
+    private static ThreadLocalHolder.Snapshot capture() {
+        long start = System.nanoTime();
+        ThreadLocalHolder.Snapshot snapshot = ThreadLocalHolder.capture();
+        CAPTURE_NANOS.add(System.nanoTime() - start);
+        CAPTURES.increment();
+        return snapshot;
+    }
+
+    private static void release(ThreadLocalHolder.Snapshot restored, ThreadLocalHolder.Snapshot backup) {
+        if (ThreadLocalHolder.isLeaked(restored)) {
+            LEAKED_CONTEXTS.increment();
+        }
+        ThreadLocalHolder.restore(backup);
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        };
+        // 工作线程不继承创建者的线程变量
+        return TtlExecutors.getDisableInheritableThreadFactory(factory);
+    }
+
+    private static <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(wrap(task));
+        }
+        return wrapped;
+    }
+
+    /**
+     * 上下文传递的统计指标
+     */
+    public static final class Metrics {
+        private final long captures;
+        private final long captureNanos;
+        private final long leakedContexts;
+
+        Metrics(long captures, long captureNanos, long leakedContexts) {
+            this.captures = captures;
+            this.captureNanos = captureNanos;
+            this.leakedContexts = leakedContexts;
+        }
+
+        /**
+         * @return 捕获上下文的次数
+         */
+        public long getCaptures() {
+            return captures;
+        }
+
+        /**
+         * @return 捕获上下文的总耗时(纳秒)
+         */
+        public long getCaptureNanos() {
+            return captureNanos;
+        }
+
+        /**
+         * @return 平均每次捕获的耗时(纳秒)
+         */
+        public double getAverageCaptureNanos() {
+            return captures == 0 ? 0 : (double) captureNanos / captures;
+        }
+
+        /**
+         * @return 任务结束时未调用end()而被自动清理的上下文数
+         */
+        public long getLeakedContexts() {
+            return leakedContexts;
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{captures=" + captures + ", captureNanos=" + captureNanos
+                    + ", leakedContexts=" + leakedContexts + '}';
+        }
+    }
+
+    private static final class ContextRunnable implements Runnable {
+        private final ThreadLocalHolder.Snapshot snapshot;
+        private final Runnable task;
+
+        ContextRunnable(ThreadLocalHolder.Snapshot snapshot, Runnable task) {
+            this.snapshot = snapshot;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalHolder.Snapshot backup = ThreadLocalHolder.restore(snapshot);
+            try {
+                task.run();
+            } finally {
+                release(snapshot, backup);
+            }
+        }
+    }
+
+    private static final class ContextCallable<T> implements Callable<T> {
+        private final ThreadLocalHolder.Snapshot snapshot;
+        private final Callable<T> task;
+
+        ContextCallable(ThreadLocalHolder.Snapshot snapshot, Callable<T> task) {
+            this.snapshot = snapshot;
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            ThreadLocalHolder.Snapshot backup = ThreadLocalHolder.restore(snapshot);
+            try {
+                return task.call();
+            } finally {
+                release(snapshot, backup);
+            }
+        }
+    }
+
+    private static class ContextAwareExecutorService implements ExecutorService {
+        private final ExecutorService delegate;
+
+        ContextAwareExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            return delegate.submit(wrap(task));
+        }
+
+        @Override
+        public <T> Future<T> submit(Runnable task, T result) {
+            return delegate.submit(wrap(task), result);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return delegate.submit(wrap(task));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+            return delegate.invokeAll(wrapAll(tasks));
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.invokeAll(wrapAll(tasks), timeout, unit);
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+            return delegate.invokeAny(wrapAll(tasks));
+        }
+
+        @Override
+        public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.invokeAny(wrapAll(tasks), timeout, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    private static final class ContextAwareScheduledExecutorService extends ContextAwareExecutorService
+            implements ScheduledExecutorService {
+        private final ScheduledExecutorService delegate;
+
+        ContextAwareScheduledExecutorService(ScheduledExecutorService delegate) {
+            super(delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return delegate.schedule(wrap(command), delay, unit);
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            return delegate.schedule(wrap(callable), delay, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            return delegate.scheduleAtFixedRate(wrap(command), initialDelay, period, unit);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return delegate.scheduleWithFixedDelay(wrap(command), initialDelay, delay, unit);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.changhong.sei.util.thread;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 实现功能：线程上下文的注册键
+ * <p>
+ * 每个键在注册时分配固定的槽位下标, {@link ThreadContext} 按下标直接存取, 不再经过字符串拼接和哈希查找.
+ * 键应在类加载时注册为常量并长期复用, 不宜按请求动态注册.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ContextKey<T> {
+    private static final ConcurrentMap<String, ContextKey<?>> KEYS = new ConcurrentHashMap<>();
+    /**
+     * 按下标排列的已注册键
+     */
+    private static volatile ContextKey<?>[] indexedKeys = new ContextKey<?>[0];
+
+    private final String name;
+    private final int index;
+
+    private ContextKey(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    /**
+     * 获取或注册键
+     *
+     * @param name 键名
+     * @return 注册键
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ContextKey<T> of(String name) {
+        Objects.requireNonNull(name, "name");
+        ContextKey<?> key = KEYS.get(name);
+        if (key == null) {
+            synchronized (KEYS) {
+                key = KEYS.get(name);
+                if (key == null) {
+                    key = new ContextKey<>(name, indexedKeys.length);
+                    ContextKey<?>[] keys = Arrays.copyOf(indexedKeys, indexedKeys.length + 1);
+                    keys[key.index] = key;
+                    indexedKeys = keys;
+                    KEYS.put(name, key);
+                }
+            }
+        }
+        return (ContextKey<T>) key;
+    }
+
+    /**
+     * 查找已注册的键
+     *
+     * @param name 键名
+     * @return 注册键, 未注册时返回null
+     */
+    static ContextKey<?> lookup(String name) {
+        return KEYS.get(name);
+    }
+
+    /**
+     * 按下标获取已注册的键
+     */
+    static ContextKey<?> byIndex(int index) {
+        return indexedKeys[index];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    int index() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
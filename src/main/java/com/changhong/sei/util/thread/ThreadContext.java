@@ -0,0 +1,168 @@
+package com.changhong.sei.util.thread;
+
+import java.util.*;
+
+/**
+ * 实现功能：不可变的线程上下文快照
+ * <p>
+ * 已注册键({@link ContextKey})的值存放在按下标访问的槽位数组中, 未注册键的值存放在附加Map中.
+ * 键名在值写入附加Map之后才注册时, 读取回退到附加Map, 下次写入该键时迁移到槽位.
+ * 每次修改都返回新的实例(写时复制), 因此同一实例可以在线程间直接共享:
+ * 捕获上下文只需传递引用, 子线程的修改不会影响父线程.
+ *
+ * @author agent
+ * @version 1.0.00  2026-10-19
+ */
+public final class ThreadContext {
+    public static final ThreadContext EMPTY = new ThreadContext(new Object[0], Collections.emptyMap());
+
+    private final Object[] slots;
+    private final Map<String, Object> extras;
+
+    private ThreadContext(Object[] slots, Map<String, Object> extras) {
+        this.slots = slots;
+        this.extras = extras;
+    }
+
+    /**
+     * 读取已注册键的值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextKey<T> key) {
+        int index = key.index();
+        return index < slots.length ? (T) slots[index] : null;
+    }
+
+    /**
+     * 按键名读取值
+     */
+    public Object get(String name) {
+        ContextKey<?> key = ContextKey.lookup(name);
+        if (key == null) {
+            return extras.get(name);
+        }
+        Object value = get(key);
+        return value != null || extras.isEmpty() ? value : extras.get(name);
+    }
+
+    /**
+     * 设置已注册键的值, value为null时删除
+     *
+     * @return 新的上下文
+     */
+    public <T> ThreadContext with(ContextKey<T> key, T value) {
+        int index = key.index();
+        Object current = index < slots.length ? slots[index] : null;
+        boolean migrate = extras.containsKey(key.getName());
+        if (current == value && !migrate) {
+            return this;
+        }
+        Object[] copy = Arrays.copyOf(slots, Math.max(slots.length, index + 1));
+        copy[index] = value;
+        return new ThreadContext(copy, migrate ? without(extras, key.getName()) : extras);
+    }
+
+    /**
+     * 按键名设置值, value为null时删除
+     *
+     * @return 新的上下文
+     */
+    @SuppressWarnings("unchecked")
+    public ThreadContext with(String name, Object value) {
+        ContextKey<Object> key = (ContextKey<Object>) ContextKey.lookup(name);
+        if (key != null) {
+            return with(key, value);
+        }
+        if (value == null && !extras.containsKey(name)) {
+            return this;
+        }
+        Map<String, Object> copy = new HashMap<>(extras);
+        if (value == null) {
+            copy.remove(name);
+        } else {
+            copy.put(name, value);
+        }
+        return new ThreadContext(slots, copy.isEmpty() ? Collections.emptyMap() : copy);
+    }
+
+    /**
+     * 批量设置值, 只复制一次
+     *
+     * @return 新的上下文
+     */
+    @SuppressWarnings("unchecked")
+    public ThreadContext withAll(Map<String, ?> values) {
+        if (values == null || values.isEmpty()) {
+            return this;
+        }
+        Object[] slotCopy = slots;
+        Map<String, Object> extraCopy = null;
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            ContextKey<?> key = ContextKey.lookup(entry.getKey());
+            if (key != null) {
+                if (slotCopy == slots) {
+                    slotCopy = Arrays.copyOf(slots, Math.max(slots.length, key.index() + 1));
+                } else if (slotCopy.length <= key.index()) {
+                    slotCopy = Arrays.copyOf(slotCopy, key.index() + 1);
+                }
+                slotCopy[key.index()] = entry.getValue();
+                if (extras.containsKey(entry.getKey())) {
+                    if (extraCopy == null) {
+                        extraCopy = new HashMap<>(extras);
+                    }
+                    extraCopy.remove(entry.getKey());
+                }
+            } else {
+                if (extraCopy == null) {
+                    extraCopy = new HashMap<>(extras);
+                }
+                if (entry.getValue() == null) {
+                    extraCopy.remove(entry.getKey());
+                } else {
+                    extraCopy.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return new ThreadContext(slotCopy, extraCopy == null ? extras
+                : extraCopy.isEmpty() ? Collections.<String, Object>emptyMap() : extraCopy);
+    }
+
+    public boolean isEmpty() {
+        if (!extras.isEmpty()) {
+            return false;
+        }
+        for (Object slot : slots) {
+            if (slot != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> without(Map<String, Object> extras, String name) {
+        if (extras.size() == 1) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> copy = new HashMap<>(extras);
+        copy.remove(name);
+        return copy;
+    }
+
+    /**
+     * @return 全部键值的Map副本, 槽位中的值优先
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>(extras);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                map.put(ContextKey.byIndex(i).getName(), slots[i]);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
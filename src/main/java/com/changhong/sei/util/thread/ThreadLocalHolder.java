@@ -2,11 +2,16 @@ package com.changhong.sei.util.thread;
 
 import com.alibaba.ttl.TransmittableThreadLocal;
 
+import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 实现功能：本地线程全局变量存储,支持父子线程之间的数据传递
+ * <p>
+ * 可传播的线程变量以不可变的 {@link ThreadContext} 存放, 修改时写时复制,
+ * 因此跨线程传递(TTL或 {@link #capture()}/{@link #restore(Snapshot)})只需传递引用.
  *
  * @author 马超(Vision.Mac)
  * @version 1.0.00  2020-01-07 13:15
@@ -21,26 +26,42 @@ public final class ThreadLocalHolder {
     /**
      * 可传播的线程变量
      */
-    protected static final TransmittableThreadLocal<Map<String, Object>> TRAN_VAR = new TransmittableThreadLocal<>();
+    protected static final TransmittableThreadLocal<ThreadContext> TRAN_VAR = new TransmittableThreadLocal<>();
 
+    /**
+     * 视图绑定调用线程当前的上下文: 在该线程本次开启期间(调用{@link #end()}之前)读写作用于线程上下文;
+     * 传递到其他线程或本次上下文结束后, 视图保留结束前的值, 写操作只作用于视图本身,
+     * 因此可以通过{@link #begin(Map)}在其他线程(或本线程之后)恢复.
+     *
+     * @return 可传播的线程变量视图; 未开启时返回null
+     */
     public static Map<String, Object> getTranVars() {
+        ThreadContext context = TRAN_VAR.get();
+        return context == null ? null : new TranVarsView(LOCAL_VAR.get(), context);
+    }
+
+    /**
+     * @return 当前线程的可传播上下文快照, 未开启时返回null
+     */
+    public static ThreadContext getTranContext() {
         return TRAN_VAR.get();
     }
 
     public static void begin() {
         if (LOCAL_VAR.get() == null) {
             LOCAL_VAR.set(new HashMap<String, Object>(16));
-            TRAN_VAR.set(new HashMap<String, Object>(16));
+            TRAN_VAR.set(ThreadContext.EMPTY);
         }
     }
 
     public static void begin(Map<String, Object> tranVar) {
-        if (LOCAL_VAR.get() == null) {
-            LOCAL_VAR.set(new HashMap<String, Object>(16));
-            TRAN_VAR.set(new HashMap<String, Object>(16));
-        }
-        if (tranVar != null) {
-            TRAN_VAR.get().putAll(tranVar);
+        ThreadContext captured = tranVar instanceof TranVarsView ? ((TranVarsView) tranVar).context() : null;
+        begin();
+        ThreadContext context = TRAN_VAR.get();
+        if (captured != null) {
+            TRAN_VAR.set(context.isEmpty() ? captured : context.withAll(captured.toMap()));
+        } else if (tranVar != null) {
+            TRAN_VAR.set(context.withAll(tranVar));
         }
     }
 
@@ -48,4 +69,140 @@ public final class ThreadLocalHolder {
         LOCAL_VAR.remove();
         TRAN_VAR.remove();
     }
+
+    /**
+     * 捕获当前线程的上下文, O(1)
+     *
+     * @return 上下文快照
+     */
+    public static Snapshot capture() {
+        return new Snapshot(LOCAL_VAR.get(), TRAN_VAR.get());
+    }
+
+    /**
+     * 将快照恢复到当前线程
+     *
+     * @param snapshot 由 {@link #capture()} 获得的快照
+     * @return 恢复前当前线程的上下文, 用于执行结束后还原
+     */
+    public static Snapshot restore(Snapshot snapshot) {
+        Snapshot backup = capture();
+        apply(snapshot);
+        return backup;
+    }
+
+    /**
+     * 判断当前线程是否在恢复快照后开启了新的上下文而未调用 {@link #end()}
+     *
+     * @param restored 任务执行前恢复的快照
+     */
+    static boolean isLeaked(Snapshot restored) {
+        Map<String, Object> localVar = LOCAL_VAR.get();
+        return localVar != null && localVar != restored.localVar;
+    }
+
+    private static void apply(Snapshot snapshot) {
+        if (snapshot.localVar == null) {
+            LOCAL_VAR.remove();
+        } else {
+            LOCAL_VAR.set(snapshot.localVar);
+        }
+        if (snapshot.tranVar == null) {
+            TRAN_VAR.remove();
+        } else {
+            TRAN_VAR.set(snapshot.tranVar);
+        }
+    }
+
+    /**
+     * 线程上下文快照
+     */
+    public static final class Snapshot {
+        private final Map<String, Object> localVar;
+        private final ThreadContext tranVar;
+
+        private Snapshot(Map<String, Object> localVar, ThreadContext tranVar) {
+            this.localVar = localVar;
+            this.tranVar = tranVar;
+        }
+
+        /**
+         * @return 快照是否为空(捕获时线程未开启上下文)
+         */
+        public boolean isEmpty() {
+            return localVar == null && tranVar == null;
+        }
+    }
+
+    /**
+     * 可传播线程变量的Map视图, 兼容原有的Map读写方式
+     */
+    private static final class TranVarsView extends AbstractMap<String, Object> {
+        private final Thread owner;
+        /**
+         * 创建视图时线程的本地变量Map, 每次开启上下文都会新建, 用于判断视图所属的上下文是否仍有效
+         */
+        private final Map<String, Object> session;
+        private volatile ThreadContext context;
+
+        TranVarsView(Map<String, Object> session, ThreadContext context) {
+            this.owner = Thread.currentThread();
+            this.session = session;
+            this.context = context;
+        }
+
+        private boolean isLive() {
+            return Thread.currentThread() == owner && LOCAL_VAR.get() == session;
+        }
+
+        ThreadContext context() {
+            if (isLive()) {
+                ThreadContext live = TRAN_VAR.get();
+                if (live != null) {
+                    context = live;
+                }
+            }
+            return context;
+        }
+
+        private void update(ThreadContext next) {
+            context = next;
+            if (isLive() && TRAN_VAR.get() != null) {
+                TRAN_VAR.set(next);
+            }
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return context().toMap().entrySet();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? context().get((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            ThreadContext current = context();
+            Object previous = current.get(key);
+            update(current.with(key, value));
+            return previous;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return key instanceof String ? put((String) key, null) : null;
+        }
+
+        @Override
+        public void clear() {
+            update(ThreadContext.EMPTY);
+        }
+    }
 }
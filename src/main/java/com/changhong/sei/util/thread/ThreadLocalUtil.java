@@ -46,21 +46,54 @@ public final class ThreadLocalUtil {
      * 读可传播的线程变量
      */
     public static String getTranVar(String key) {
-        return get(ThreadLocalHolder.TRAN_VAR, key.toLowerCase());
+        ThreadContext context = ThreadLocalHolder.TRAN_VAR.get();
+        return context == null ? null : (String) context.get(key.toLowerCase());
     }
 
     /**
      * 写可传播的线程变量
      */
     public static void setTranVar(String key, String value) {
-        set(ThreadLocalHolder.TRAN_VAR, key.toLowerCase(), value);
+        ThreadContext context = ThreadLocalHolder.TRAN_VAR.get();
+        if (context != null) {
+            ThreadLocalHolder.TRAN_VAR.set(context.with(key.toLowerCase(), value));
+        }
     }
 
     /**
      * 删可传播的线程变量
      */
     public static void removeTranVar(String key) {
-        remove(ThreadLocalHolder.TRAN_VAR, key.toLowerCase());
+        setTranVar(key, null);
+    }
+
+    /**
+     * 注册可传播线程变量的键, 通过注册键读写时按槽位下标直接存取.
+     * 键名统一转为小写, 与按字符串读写的变量互通.
+     *
+     * @param key 键名
+     * @return 注册键, 建议保存为常量
+     */
+    public static ContextKey<String> tranKey(String key) {
+        return ContextKey.of(key.toLowerCase());
+    }
+
+    /**
+     * 通过注册键读可传播的线程变量
+     */
+    public static String getTranVar(ContextKey<String> key) {
+        ThreadContext context = ThreadLocalHolder.TRAN_VAR.get();
+        return context == null ? null : context.get(key);
+    }
+
+    /**
+     * 通过注册键写可传播的线程变量
+     */
+    public static void setTranVar(ContextKey<String> key, String value) {
+        ThreadContext context = ThreadLocalHolder.TRAN_VAR.get();
+        if (context != null) {
+            ThreadLocalHolder.TRAN_VAR.set(context.with(key, value));
+        }
     }
 
     @SuppressWarnings("unchecked")